@@ -0,0 +1,26 @@
+package io.reflectoring.virtualthreads;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import io.reflectoring.buckpal.common.VirtualThreads;
+
+/**
+ * The virtual threads of JDK 21, found by {@link VirtualThreads} through the {@link java.util.ServiceLoader}.
+ */
+public class JdkVirtualThreads implements VirtualThreads.Provider {
+
+	@Override
+	public ThreadFactory factory(String prefix) {
+		return Thread.ofVirtual()
+				.name(prefix, 1L)
+				.factory();
+	}
+
+	@Override
+	public ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+		return Executors.newThreadPerTaskExecutor(threadFactory);
+	}
+
+}
@@ -0,0 +1,97 @@
+package io.reflectoring.buckpal;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs the application without the web layer against the embedded H2 database, for benchmarks that need
+ * the real persistence adapter.
+ */
+public final class BenchmarkApplication implements AutoCloseable {
+
+	/**
+	 * The balance each seeded account starts with, high enough for any benchmark not to run out of money.
+	 */
+	public static final long OPENING_BALANCE = 1_000_000_000L;
+
+	/**
+	 * Seeded activities get IDs from here on, far away from the ones handed out by the activity sequence.
+	 */
+	private static final long FIRST_SEEDED_ACTIVITY_ID = 1_000_000_000L;
+
+	private static final int INSERT_BATCH_SIZE = 10_000;
+
+	private final ConfigurableApplicationContext context;
+
+	private long nextActivityId = FIRST_SEEDED_ACTIVITY_ID;
+
+	private BenchmarkApplication(ConfigurableApplicationContext context) {
+		this.context = context;
+	}
+
+	public static BenchmarkApplication start(String... properties) {
+		return new BenchmarkApplication(new SpringApplicationBuilder(BuckPalApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(properties)
+				.run());
+	}
+
+	public <T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	/**
+	 * Creates the accounts {@code 1..accounts}. Each one gets an opening deposit before {@code windowStart}
+	 * and {@code activitiesPerAccount} alternating withdrawals and deposits of 1 between {@code windowStart}
+	 * and now, exchanged with its neighbour account.
+	 */
+	public void seedAccounts(int accounts, int activitiesPerAccount, LocalDateTime windowStart) {
+		JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+		LocalDateTime now = LocalDateTime.now();
+		long windowNanos = Duration.between(windowStart, now).toNanos();
+
+		List<Object[]> accountRows = new ArrayList<>();
+		List<Object[]> activityRows = new ArrayList<>();
+		for (long account = 1; account <= accounts; account++) {
+			accountRows.add(new Object[]{account});
+			long neighbour = account % accounts + 1;
+			activityRows.add(activity(windowStart.minusDays(1), account, neighbour, account, OPENING_BALANCE));
+			for (int i = 0; i < activitiesPerAccount; i++) {
+				LocalDateTime timestamp = windowStart.plusNanos(windowNanos / activitiesPerAccount * i);
+				activityRows.add(i % 2 == 0
+						? activity(timestamp, account, account, neighbour, 1L)
+						: activity(timestamp, account, neighbour, account, 1L));
+				if (activityRows.size() == INSERT_BATCH_SIZE) {
+					insertActivities(jdbcTemplate, activityRows);
+				}
+			}
+		}
+		jdbcTemplate.batchUpdate("insert into account (id) values (?)", accountRows);
+		insertActivities(jdbcTemplate, activityRows);
+	}
+
+	private Object[] activity(LocalDateTime timestamp, long owner, long source, long target, long amount) {
+		return new Object[]{nextActivityId++, Timestamp.valueOf(timestamp), owner, source, target, amount};
+	}
+
+	private void insertActivities(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+		jdbcTemplate.batchUpdate("insert into activity " +
+				"(id, timestamp, owner_account_id, source_account_id, target_account_id, amount) " +
+				"values (?, ?, ?, ?, ?, ?)", rows);
+		rows.clear();
+	}
+
+	@Override
+	public void close() {
+		context.close();
+	}
+
+}
@@ -0,0 +1,128 @@
+package io.reflectoring.buckpal.account.adapter.out.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import io.reflectoring.buckpal.BenchmarkApplication;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end transfers through {@link SendMoneyUseCase} with the JPA adapter (and its account cache) compared to
+ * the journal adapter, between random accounts that each have {@code windowSize} activities within the 10 day
+ * window. The journal syncs every transfer to disk, the embedded H2 database does not. With the journal, a transfer
+ * without an idempotency key still runs in a database transaction, but sends no statements to the database.
+ * Run with {@code -t} to vary the number of concurrent callers, which share the journal's syncs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+
+	private static final int ACCOUNTS = 64;
+
+	@Param({"10", "1000"})
+	private int windowSize;
+
+	@Param({"jpa", "journal"})
+	private String adapter;
+
+	private Path directory;
+
+	private BenchmarkApplication application;
+
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		LocalDateTime windowStart = LocalDateTime.now().minusDays(9);
+		if (adapter.equals("journal")) {
+			directory = Files.createTempDirectory("journal-benchmark");
+			application = BenchmarkApplication.start(
+					"spring.profiles.active=journal",
+					"buckpal.journal.directory=" + directory);
+			seedJournal(application.bean(JournalAccountPersistenceAdapter.class), windowStart);
+		} else {
+			application = BenchmarkApplication.start();
+			application.seedAccounts(ACCOUNTS, windowSize, windowStart);
+		}
+		sendMoneyUseCase = application.bean(SendMoneyUseCase.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		application.close();
+		if (directory != null) {
+			try (Stream<Path> files = Files.walk(directory)) {
+				for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+					Files.delete(file);
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean sendMoney() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long source = random.nextInt(ACCOUNTS) + 1;
+		long target = source % ACCOUNTS + 1;
+		return sendMoneyUseCase.sendMoney(new SendMoneyCommand(
+				new AccountId(source),
+				new AccountId(target),
+				Money.of(1L)));
+	}
+
+	/**
+	 * The same accounts and activities as {@link BenchmarkApplication#seedAccounts}, one append per account.
+	 */
+	private void seedJournal(JournalAccountPersistenceAdapter journal, LocalDateTime windowStart) {
+		LocalDateTime now = LocalDateTime.now();
+		long windowNanos = Duration.between(windowStart, now).toNanos();
+		for (long account = 1; account <= ACCOUNTS; account++) {
+			AccountId accountId = new AccountId(account);
+			AccountId neighbour = new AccountId(account % ACCOUNTS + 1);
+			journal.openAccount(accountId);
+			List<Activity> activities = new ArrayList<>(windowSize + 1);
+			activities.add(new Activity(accountId, neighbour, accountId, windowStart.minusDays(1),
+					Money.of(BenchmarkApplication.OPENING_BALANCE)));
+			for (int i = 0; i < windowSize; i++) {
+				LocalDateTime timestamp = windowStart.plusNanos(windowNanos / windowSize * i);
+				activities.add(i % 2 == 0
+						? new Activity(accountId, accountId, neighbour, timestamp, Money.of(1L))
+						: new Activity(accountId, neighbour, accountId, timestamp, Money.of(1L)));
+			}
+			journal.updateActivities(Account.withId(accountId, Money.ZERO, new ActivityWindow(activities)));
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.BenchmarkApplication;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loads accounts from the embedded H2 database through {@link AccountPersistenceAdapter}, with a growing
+ * number of activities inside the window. {@code fourQueriesPerAccount} is the way {@code loadAccount} used
+ * to do it, for comparison with the single-query {@link AccountPersistenceAdapter#loadAccounts}.
+ * {@code balanceFromAccount} is the way the balance query used to read a balance, for comparison with
+ * {@link AccountPersistenceAdapter#loadBalance}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountLoadingBenchmark {
+
+	private static final AccountId SOURCE = new AccountId(1L);
+
+	private static final AccountId TARGET = new AccountId(2L);
+
+	/**
+	 * Number of activities per account within the window; 1000000 works as well, but takes long to seed.
+	 */
+	@Param({"10", "1000", "100000"})
+	private int windowSize;
+
+	private BenchmarkApplication application;
+
+	private AccountPersistenceAdapter adapter;
+
+	private SpringDataAccountRepository accountRepository;
+
+	private ActivityRepository activityRepository;
+
+	private AccountMapper accountMapper;
+
+	private LocalDateTime baselineDate;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		application = BenchmarkApplication.start();
+		adapter = application.bean(AccountPersistenceAdapter.class);
+		accountRepository = application.bean(SpringDataAccountRepository.class);
+		activityRepository = application.bean(ActivityRepository.class);
+		accountMapper = application.bean(AccountMapper.class);
+
+		baselineDate = LocalDateTime.now().minusDays(10);
+		application.seedAccounts(2, windowSize, baselineDate);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		application.close();
+	}
+
+	@Benchmark
+	public Account loadAccount() {
+		return adapter.loadAccount(SOURCE, baselineDate);
+	}
+
+	@Benchmark
+	public List<Account> singleRoundTrip() {
+		return adapter.loadAccounts(List.of(SOURCE, TARGET), baselineDate);
+	}
+
+	@Benchmark
+	public List<Account> fourQueriesPerAccount() {
+		return List.of(loadAccountWithFourQueries(SOURCE), loadAccountWithFourQueries(TARGET));
+	}
+
+	@Benchmark
+	public Money balanceFromAccount() {
+		return adapter.loadAccount(SOURCE, LocalDateTime.now()).calculateBalance();
+	}
+
+	@Benchmark
+	public Money balanceOnly() {
+		return adapter.loadBalance(SOURCE);
+	}
+
+	private Account loadAccountWithFourQueries(AccountId accountId) {
+		AccountJpaEntity account = accountRepository.findById(accountId.getValue()).orElseThrow();
+		List<ActivityJpaEntity> activities =
+				activityRepository.findByOwnerSince(accountId.getValue(), baselineDate);
+		Long withdrawalBalance = activityRepository.getWithdrawalBalanceUntil(accountId.getValue(), baselineDate);
+		Long depositBalance = activityRepository.getDepositBalanceUntil(accountId.getValue(), baselineDate);
+		return accountMapper.mapToDomainEntity(
+				account,
+				activities,
+				withdrawalBalance == null ? 0L : withdrawalBalance,
+				depositBalance == null ? 0L : depositBalance);
+	}
+
+}
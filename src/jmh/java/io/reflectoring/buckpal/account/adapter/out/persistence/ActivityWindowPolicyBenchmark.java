@@ -0,0 +1,88 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.BenchmarkApplication;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transfers between two hot accounts with a growing number of activities within the last ten days, with the
+ * window reaching back ten days ({@code maxActivities=0}) or capped to the latest activities. Balance snapshots
+ * are taken every hour of the seeded history, as {@link BalanceSnapshotter} would have. The account cache is
+ * disabled, so that every transfer loads both accounts from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActivityWindowPolicyBenchmark {
+
+	private static final int SEEDED_DAYS = 9;
+
+	@Param({"100", "10000", "50000"})
+	private int activitiesPerAccount;
+
+	@Param({"0", "100"})
+	private int maxActivities;
+
+	private BenchmarkApplication application;
+
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	private long transfers;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		application = BenchmarkApplication.start(
+				"buckpal.account-cache.enabled=false",
+				"buckpal.activity-window.max-activities=" + maxActivities);
+		LocalDateTime now = LocalDateTime.now();
+		application.seedAccounts(2, activitiesPerAccount, now.minusDays(SEEDED_DAYS));
+
+		BalanceSnapshotRepository balanceSnapshotRepository = application.bean(BalanceSnapshotRepository.class);
+		TransactionTemplate transaction = new TransactionTemplate(application.bean(PlatformTransactionManager.class));
+		for (int hour = SEEDED_DAYS * 24; hour > 0; hour--) {
+			LocalDateTime until = now.minusHours(hour);
+			transaction.executeWithoutResult(status -> balanceSnapshotRepository.rollForwardTo(
+					until, Long.MIN_VALUE, Long.MAX_VALUE));
+		}
+
+		sendMoneyUseCase = application.bean(SendMoneyUseCase.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		application.close();
+	}
+
+	@Benchmark
+	public boolean sendMoney() {
+		long source = transfers++ % 2 + 1;
+		return sendMoneyUseCase.sendMoney(new SendMoneyCommand(
+				new AccountId(source),
+				new AccountId(source % 2 + 1),
+				Money.of(1L)));
+	}
+
+}
@@ -0,0 +1,75 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looking up idempotency keys in a filled {@link IdempotencyKeyIndex}: a retried transfer (hit) and a new one
+ * (miss).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyKeyIndexBenchmark {
+
+	private static final int KEYS = 1 << 12;
+
+	@Param({"65536", "1048576"})
+	private int capacity;
+
+	private IdempotencyKeyIndex index;
+
+	private String[] recordedKeys;
+
+	private String[] newKeys;
+
+	private long now;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void fillIndex() {
+		now = System.currentTimeMillis();
+		index = new IdempotencyKeyIndex(capacity, TimeUnit.HOURS.toMillis(24));
+		int code = index.codeOf("SUCCEEDED");
+		for (int i = 0; i < capacity / 2; i++) {
+			index.put(UUID.randomUUID().toString(), now, code, now);
+		}
+		recordedKeys = new String[KEYS];
+		newKeys = new String[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			recordedKeys[i] = UUID.randomUUID().toString();
+			index.put(recordedKeys[i], now, code, now);
+			newKeys[i] = UUID.randomUUID().toString();
+		}
+	}
+
+	@Benchmark
+	public int lookupRecordedKey() {
+		next = (next + 1) & (KEYS - 1);
+		return index.lookup(recordedKeys[next], now);
+	}
+
+	@Benchmark
+	public int lookupNewKey() {
+		next = (next + 1) & (KEYS - 1);
+		return index.lookup(newKeys[next], now);
+	}
+
+}
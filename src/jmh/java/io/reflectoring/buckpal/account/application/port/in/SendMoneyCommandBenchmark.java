@@ -0,0 +1,51 @@
+package io.reflectoring.buckpal.account.application.port.in;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of creating a {@link SendMoneyCommand}, which validates itself on construction.
+ * {@code buildValidatorFactoryPerCommand} reproduces what {@code SelfValidating} used to do for every instance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SendMoneyCommandBenchmark {
+
+	private final AccountId source = new AccountId(41L);
+
+	private final AccountId target = new AccountId(42L);
+
+	private final Money money = Money.of(500L);
+
+	@Benchmark
+	public SendMoneyCommand sharedValidator() {
+		return new SendMoneyCommand(source, target, money);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<SendMoneyCommand>> buildValidatorFactoryPerCommand() {
+		SendMoneyCommand command = new SendMoneyCommand(source, target, money);
+		ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+		return factory.getValidator().validate(command);
+	}
+
+}
@@ -0,0 +1,69 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.account.application.port.out.AccountLock;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of locking both accounts of a transfer under contention.
+ * {@code accounts} controls the contention: with 2 accounts every transfer collides, with 100000 almost none do.
+ * Run with {@code -t} to vary the thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class AccountLockBenchmark {
+
+	@Param({"striped", "none"})
+	private String lockType;
+
+	@Param({"2", "100000"})
+	private int accounts;
+
+	private AccountLock lock;
+
+	private AccountId[] accountIds;
+
+	@Setup
+	public void setUp() {
+		lock = lockType.equals("striped") ? new StripedAccountLock(1024) : new NoOpAccountLock();
+		accountIds = new AccountId[accounts];
+		for (int i = 0; i < accounts; i++) {
+			accountIds[i] = new AccountId((long) i);
+		}
+	}
+
+	@Benchmark
+	public void transfer() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		AccountId source = accountIds[random.nextInt(accounts)];
+		AccountId target = accountIds[random.nextInt(accounts)];
+		lock.lockAccounts(source, target);
+		try {
+			// stands in for the in-memory part of a transfer
+			Blackhole.consumeCPU(100);
+		} finally {
+			lock.releaseAccounts(source, target);
+		}
+	}
+
+}
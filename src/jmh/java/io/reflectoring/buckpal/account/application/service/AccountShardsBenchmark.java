@@ -0,0 +1,66 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of transfers between uniformly distributed accounts on {@code shards} single-writer shards.
+ * With enough callers, throughput should grow about linearly with the number of shards up to the number of cores;
+ * transfers spanning two shards cost an extra hand-off. Run with {@code -t} to vary the number of callers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class AccountShardsBenchmark {
+
+	private static final int ACCOUNTS = 100_000;
+
+	@Param({"1", "2", "4", "8"})
+	private int shards;
+
+	private AccountShards accountShards;
+
+	@Setup
+	public void setUp() {
+		accountShards = new AccountShards(shards);
+	}
+
+	@TearDown
+	public void tearDown() {
+		accountShards.close();
+	}
+
+	@Benchmark
+	public Object transfer() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		AccountId source = new AccountId((long) random.nextInt(ACCOUNTS));
+		AccountId target = new AccountId((long) random.nextInt(ACCOUNTS));
+		return accountShards.execute(List.of(source, target), () -> {
+			// stands in for the in-memory part of a transfer
+			Blackhole.consumeCPU(1000);
+			return null;
+		});
+	}
+
+}
@@ -0,0 +1,79 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.BenchmarkApplication;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end transfers through {@link SendMoneyUseCase} with the striped account lock compared to optimistic
+ * locking with retries and to the single-writer shards. {@code accounts} controls the contention: with 2 accounts every transfer collides, with
+ * 1000 almost none do. Run with {@code -t} to vary the thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ConcurrencyControlBenchmark {
+
+	private static final int WINDOW_SIZE = 10;
+
+	@Param({"striped", "optimistic", "sharded"})
+	private String lockType;
+
+	@Param({"2", "1000"})
+	private int accounts;
+
+	private BenchmarkApplication application;
+
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		application = BenchmarkApplication.start(
+				"buckpal.account-lock.type=" + lockType,
+				// a transfer that runs out of attempts would abort the benchmark
+				"buckpal.transfer-retry.max-attempts=1000");
+		application.seedAccounts(accounts, WINDOW_SIZE, LocalDateTime.now().minusDays(9));
+		sendMoneyUseCase = application.bean(SendMoneyUseCase.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		application.close();
+	}
+
+	@Benchmark
+	public boolean sendMoney() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long source = random.nextInt(accounts) + 1;
+		long target = source % accounts + 1;
+		return sendMoneyUseCase.sendMoney(new SendMoneyCommand(
+				new AccountId(source),
+				new AccountId(target),
+				Money.of(1L)));
+	}
+
+}
@@ -0,0 +1,77 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.BenchmarkApplication;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end transfers through {@link SendMoneyUseCase}, each in its own transaction or committed together with
+ * the transfers of the other threads. Run with {@code -t} to vary the number of concurrent callers, which bounds
+ * the size of a batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+	private static final int ACCOUNTS = 1000;
+
+	private static final int WINDOW_SIZE = 10;
+
+	@Param({"false", "true"})
+	private boolean groupCommit;
+
+	private BenchmarkApplication application;
+
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		application = BenchmarkApplication.start(
+				"buckpal.group-commit.enabled=" + groupCommit,
+				"buckpal.transfer-retry.max-attempts=1000");
+		application.seedAccounts(ACCOUNTS, WINDOW_SIZE, LocalDateTime.now().minusDays(9));
+		sendMoneyUseCase = application.bean(SendMoneyUseCase.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		application.close();
+	}
+
+	@Benchmark
+	public boolean sendMoney() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long source = random.nextInt(ACCOUNTS) + 1;
+		long target = source % ACCOUNTS + 1;
+		return sendMoneyUseCase.sendMoney(new SendMoneyCommand(
+				new AccountId(source),
+				new AccountId(target),
+				Money.of(1L)));
+	}
+
+}
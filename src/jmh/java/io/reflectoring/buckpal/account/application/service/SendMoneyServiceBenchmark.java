@@ -0,0 +1,74 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.BenchmarkApplication;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end transfers through {@link SendMoneyUseCase} against the embedded H2 database, between random
+ * accounts that each have {@code windowSize} activities within the 10 day window, with and without the account cache.
+ * Run with {@code -t} (or {@code -PjmhThreads}) to vary the number of concurrent callers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendMoneyServiceBenchmark {
+
+	private static final int ACCOUNTS = 64;
+
+	@Param({"10", "1000", "10000"})
+	private int windowSize;
+
+	@Param({"true", "false"})
+	private boolean accountCache;
+
+	private BenchmarkApplication application;
+
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		application = BenchmarkApplication.start("buckpal.account-cache.enabled=" + accountCache);
+		application.seedAccounts(ACCOUNTS, windowSize, LocalDateTime.now().minusDays(9));
+		sendMoneyUseCase = application.bean(SendMoneyUseCase.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		application.close();
+	}
+
+	@Benchmark
+	public boolean sendMoney() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long source = random.nextInt(ACCOUNTS) + 1;
+		long target = source % ACCOUNTS + 1;
+		return sendMoneyUseCase.sendMoney(new SendMoneyCommand(
+				new AccountId(source),
+				new AccountId(target),
+				Money.of(1L)));
+	}
+
+}
@@ -0,0 +1,112 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.BenchmarkApplication;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code requests} transfers arriving at once, each handled by its own request thread like Tomcat would, against
+ * the embedded H2 database with the connection pool of the {@code virtual-threads} profile.
+ * With {@code platform}, the requests queue for a pool of {@value #PLATFORM_THREADS} threads, Tomcat's default
+ * {@code server.tomcat.threads.max}. With {@code virtual}, every request gets a virtual thread and they queue for
+ * a database connection instead; this needs {@code ./gradlew -PvirtualThreads jmh}, which runs the benchmarks on
+ * JDK 21, otherwise run with {@code -p threads=platform}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadsLoadBenchmark {
+
+	private static final int ACCOUNTS = 1000;
+
+	private static final int PLATFORM_THREADS = 200;
+
+	@Param({"platform", "virtual"})
+	private String threads;
+
+	@Param({"10000"})
+	private int requests;
+
+	private BenchmarkApplication application;
+
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	private ExecutorService requestThreads;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		requestThreads = "virtual".equals(threads)
+				? VirtualThreads.newThreadPerTaskExecutor("request-")
+				: Executors.newFixedThreadPool(PLATFORM_THREADS);
+		application = BenchmarkApplication.start(
+				"spring.datasource.hikari.maximum-pool-size=20",
+				"spring.datasource.hikari.minimum-idle=20",
+				"spring.datasource.hikari.connection-timeout=60000");
+		application.seedAccounts(ACCOUNTS, 10, LocalDateTime.now().minusDays(9));
+		sendMoneyUseCase = application.bean(SendMoneyUseCase.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		requestThreads.shutdown();
+		application.close();
+	}
+
+	/**
+	 * @return the number of successful transfers
+	 */
+	@Benchmark
+	public int sendMoney() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> responses = new ArrayList<>(requests);
+		for (int i = 0; i < requests; i++) {
+			responses.add(requestThreads.submit(() -> {
+				start.await();
+				long source = ThreadLocalRandom.current().nextInt(ACCOUNTS) + 1;
+				long target = source % ACCOUNTS + 1;
+				return sendMoneyUseCase.sendMoney(new SendMoneyCommand(
+						new AccountId(source),
+						new AccountId(target),
+						Money.of(1L)));
+			}));
+		}
+		start.countDown();
+		int succeeded = 0;
+		for (Future<Boolean> response : responses) {
+			if (response.get()) {
+				succeeded++;
+			}
+		}
+		return succeeded;
+	}
+
+}
@@ -0,0 +1,91 @@
+package io.reflectoring.buckpal.account.domain;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ActivityWindow} and {@link Account} operations on windows of growing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivityWindowBenchmark {
+
+	private static final AccountId OWNER = new AccountId(1L);
+
+	private static final AccountId OTHER = new AccountId(2L);
+
+	@Param({"10", "1000", "100000", "1000000"})
+	private int windowSize;
+
+	private List<Activity> activities;
+
+	private ActivityWindow window;
+
+	private Account account;
+
+	@Setup(Level.Trial)
+	public void createActivities() {
+		LocalDateTime start = LocalDateTime.now().minusDays(10);
+		activities = new ArrayList<>(windowSize);
+		for (int i = 0; i < windowSize; i++) {
+			activities.add(i % 2 == 0
+					? new Activity(OWNER, OTHER, OWNER, start.plusSeconds(i), Money.of(2L))
+					: new Activity(OWNER, OWNER, OTHER, start.plusSeconds(i), Money.of(1L)));
+		}
+	}
+
+	/**
+	 * Recreated per iteration, because {@link #withdraw()} keeps adding activities.
+	 */
+	@Setup(Level.Iteration)
+	public void createWindow() {
+		window = new ActivityWindow(new ArrayList<>(activities));
+		account = Account.withId(OWNER, Money.of(1_000_000_000L), window);
+	}
+
+	@Benchmark
+	public ActivityWindow buildWindow() {
+		return new ActivityWindow(new ArrayList<>(activities));
+	}
+
+	@Benchmark
+	public Money calculateBalance() {
+		return window.calculateBalance(OWNER);
+	}
+
+	@Benchmark
+	public LocalDateTime getStartTimestamp() {
+		return window.getStartTimestamp();
+	}
+
+	@Benchmark
+	public LocalDateTime getEndTimestamp() {
+		return window.getEndTimestamp();
+	}
+
+	@Benchmark
+	public boolean withdraw() {
+		return account.withdraw(Money.of(1L), OTHER);
+	}
+
+}
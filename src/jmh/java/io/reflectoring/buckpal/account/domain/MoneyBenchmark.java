@@ -0,0 +1,105 @@
+package io.reflectoring.buckpal.account.domain;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Money} arithmetic with the plain {@link BigInteger} arithmetic it used to be built on.
+ * The {@code bigInteger*} benchmarks reproduce what {@code Money} did before it was backed by a {@code long}.
+ * Run with {@code -prof gc} to compare the allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+	@Param({"100", "1000000"})
+	private long amount;
+
+	private Money[] moneys;
+
+	private BigInteger[] bigIntegers;
+
+	@Setup
+	public void setUp() {
+		moneys = new Money[64];
+		bigIntegers = new BigInteger[64];
+		for (int i = 0; i < moneys.length; i++) {
+			moneys[i] = Money.of(amount + i);
+			bigIntegers[i] = BigInteger.valueOf(amount + i);
+		}
+	}
+
+	/**
+	 * Sums deposits minus withdrawals, like {@code ActivityWindow.calculateBalance}.
+	 */
+	@Benchmark
+	public Money moneyBalance() {
+		Money deposits = Money.ZERO;
+		Money withdrawals = Money.ZERO;
+		for (int i = 0; i < moneys.length; i++) {
+			if ((i & 1) == 0) {
+				deposits = Money.add(deposits, moneys[i]);
+			} else {
+				withdrawals = Money.add(withdrawals, moneys[i]);
+			}
+		}
+		return Money.add(deposits, withdrawals.negate());
+	}
+
+	@Benchmark
+	public BigInteger bigIntegerBalance() {
+		BigInteger deposits = BigInteger.ZERO;
+		BigInteger withdrawals = BigInteger.ZERO;
+		for (int i = 0; i < bigIntegers.length; i++) {
+			if ((i & 1) == 0) {
+				deposits = deposits.add(bigIntegers[i]);
+			} else {
+				withdrawals = withdrawals.add(bigIntegers[i]);
+			}
+		}
+		return deposits.add(withdrawals.negate());
+	}
+
+	/**
+	 * The check done by {@code Account.mayWithdraw}.
+	 */
+	@Benchmark
+	public boolean moneyMayWithdraw() {
+		return Money.add(moneys[0], moneys[1].negate()).isPositiveOrZero();
+	}
+
+	@Benchmark
+	public boolean bigIntegerMayWithdraw() {
+		return bigIntegers[0].add(bigIntegers[1].negate()).compareTo(BigInteger.ZERO) >= 0;
+	}
+
+	/**
+	 * The threshold check done by {@code SendMoneyService}.
+	 */
+	@Benchmark
+	public boolean moneyIsGreaterThan() {
+		return moneys[0].isGreaterThan(moneys[1]);
+	}
+
+	@Benchmark
+	public boolean bigIntegerIsGreaterThan() {
+		return bigIntegers[0].compareTo(bigIntegers[1]) >= 1;
+	}
+
+}
@@ -1,13 +1,31 @@
 package io.reflectoring.buckpal;
 
+import java.nio.file.Paths;
+
+import io.reflectoring.buckpal.account.adapter.in.web.SendMoneyBatchProperties;
+import io.reflectoring.buckpal.account.adapter.out.journal.JournalProperties;
+import io.reflectoring.buckpal.account.adapter.out.persistence.AccountCacheProperties;
+import io.reflectoring.buckpal.account.adapter.out.persistence.BalanceSnapshotProperties;
+import io.reflectoring.buckpal.account.adapter.out.persistence.IdempotencyKeyProperties;
+import io.reflectoring.buckpal.account.adapter.out.persistence.LedgerProperties;
+import io.reflectoring.buckpal.account.adapter.out.r2dbc.R2dbcConnectionProperties;
+import io.reflectoring.buckpal.account.application.service.ActivityWindowProperties;
+import io.reflectoring.buckpal.account.application.service.AsyncTransferProperties;
+import io.reflectoring.buckpal.account.application.service.GroupCommitProperties;
 import io.reflectoring.buckpal.account.application.service.MoneyTransferProperties;
+import io.reflectoring.buckpal.account.application.service.ReactiveTransferProperties;
+import io.reflectoring.buckpal.account.application.service.TransferRetryProperties;
 import io.reflectoring.buckpal.account.domain.Money;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableConfigurationProperties(BuckPalConfigurationProperties.class)
+@EnableScheduling
+@EnableRetry
 public class BuckPalConfiguration {
 
   /**
@@ -19,4 +37,147 @@ public class BuckPalConfiguration {
     return new MoneyTransferProperties(Money.of(buckPalConfigurationProperties.getTransferThreshold()));
   }
 
+  /**
+   * Adds a use-case-specific {@link TransferRetryProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public TransferRetryProperties transferRetryProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.TransferRetry transferRetry = buckPalConfigurationProperties.getTransferRetry();
+    return new TransferRetryProperties(
+        transferRetry.getMaxAttempts(),
+        transferRetry.getInitialBackoff(),
+        transferRetry.getMaxBackoff());
+  }
+
+  /**
+   * Adds a use-case-specific {@link ActivityWindowProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public ActivityWindowProperties activityWindowProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.ActivityWindow activityWindow = buckPalConfigurationProperties.getActivityWindow();
+    return new ActivityWindowProperties(
+        activityWindow.getMaxAge(),
+        activityWindow.getMaxActivities());
+  }
+
+  /**
+   * Adds a use-case-specific {@link GroupCommitProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public GroupCommitProperties groupCommitProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.GroupCommit groupCommit = buckPalConfigurationProperties.getGroupCommit();
+    return new GroupCommitProperties(
+        groupCommit.getMaxBatchSize(),
+        groupCommit.getMaxWait(),
+        groupCommit.getResultTimeout());
+  }
+
+  /**
+   * Adds a use-case-specific {@link AsyncTransferProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public AsyncTransferProperties asyncTransferProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.AsyncTransfer asyncTransfer = buckPalConfigurationProperties.getAsyncTransfer();
+    return new AsyncTransferProperties(
+        asyncTransfer.getThreads(),
+        asyncTransfer.getQueueCapacity(),
+        buckPalConfigurationProperties.getVirtualThreads().isEnabled());
+  }
+
+  /**
+   * Adds a use-case-specific {@link ReactiveTransferProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public ReactiveTransferProperties reactiveTransferProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    return new ReactiveTransferProperties(buckPalConfigurationProperties.getReactiveTransfer().getMaxConcurrency());
+  }
+
+  /**
+   * Adds an adapter-specific {@link SendMoneyBatchProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public SendMoneyBatchProperties sendMoneyBatchProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    return new SendMoneyBatchProperties(buckPalConfigurationProperties.getBatchTransfer().getMaxBatchSize());
+  }
+
+  /**
+   * Adds an adapter-specific {@link BalanceSnapshotProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public BalanceSnapshotProperties balanceSnapshotProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.BalanceSnapshot balanceSnapshot = buckPalConfigurationProperties.getBalanceSnapshot();
+    return new BalanceSnapshotProperties(
+        balanceSnapshot.getInterval(),
+        balanceSnapshot.getLag(),
+        balanceSnapshot.getRetention(),
+        balanceSnapshot.getChunkSize());
+  }
+
+  /**
+   * Adds an adapter-specific {@link LedgerProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public LedgerProperties ledgerProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    return new LedgerProperties(buckPalConfigurationProperties.getLedger().getReplayPartitions());
+  }
+
+  /**
+   * Adds an adapter-specific {@link AccountCacheProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public AccountCacheProperties accountCacheProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.AccountCache accountCache = buckPalConfigurationProperties.getAccountCache();
+    return new AccountCacheProperties(
+        accountCache.getMaximumSize(),
+        accountCache.getTimeToLive());
+  }
+
+  /**
+   * Adds an adapter-specific {@link IdempotencyKeyProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public IdempotencyKeyProperties idempotencyKeyProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.IdempotencyKey idempotencyKey = buckPalConfigurationProperties.getIdempotencyKey();
+    return new IdempotencyKeyProperties(
+        idempotencyKey.getTimeToLive(),
+        idempotencyKey.getIndexCapacity(),
+        idempotencyKey.getPurgeInterval());
+  }
+
+  /**
+   * Adds an adapter-specific {@link JournalProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public JournalProperties journalProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.Journal journal = buckPalConfigurationProperties.getJournal();
+    return new JournalProperties(
+        Paths.get(journal.getDirectory()),
+        journal.getRecordsPerSegment());
+  }
+
+  /**
+   * Adds an adapter-specific {@link R2dbcConnectionProperties} object to the application context. The properties
+   * are read from the Spring-Boot-specific {@link BuckPalConfigurationProperties} object.
+   */
+  @Bean
+  public R2dbcConnectionProperties r2dbcConnectionProperties(BuckPalConfigurationProperties buckPalConfigurationProperties){
+    BuckPalConfigurationProperties.R2dbc r2dbc = buckPalConfigurationProperties.getR2dbc();
+    return new R2dbcConnectionProperties(
+        r2dbc.getUrl(),
+        r2dbc.getUsername(),
+        r2dbc.getPassword(),
+        r2dbc.getMaxPoolSize());
+  }
+
 }
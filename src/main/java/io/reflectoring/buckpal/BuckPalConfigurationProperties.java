@@ -1,5 +1,7 @@
 package io.reflectoring.buckpal;
 
+import java.time.Duration;
+
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -9,4 +11,157 @@ public class BuckPalConfigurationProperties {
 
   private long transferThreshold = Long.MAX_VALUE;
 
+  private BalanceSnapshot balanceSnapshot = new BalanceSnapshot();
+
+  private AccountCache accountCache = new AccountCache();
+
+  private TransferRetry transferRetry = new TransferRetry();
+
+  private Journal journal = new Journal();
+
+  private GroupCommit groupCommit = new GroupCommit();
+
+  private ActivityWindow activityWindow = new ActivityWindow();
+
+  private IdempotencyKey idempotencyKey = new IdempotencyKey();
+
+  private AsyncTransfer asyncTransfer = new AsyncTransfer();
+
+  private VirtualThreads virtualThreads = new VirtualThreads();
+
+  private ReactiveTransfer reactiveTransfer = new ReactiveTransfer();
+
+  private R2dbc r2dbc = new R2dbc();
+
+  private Ledger ledger = new Ledger();
+
+  private BatchTransfer batchTransfer = new BatchTransfer();
+
+  @Data
+  public static class BalanceSnapshot {
+
+    private Duration interval = Duration.ofHours(1);
+
+    private Duration lag = Duration.ofMinutes(10);
+
+    private Duration retention = Duration.ofDays(30);
+
+    private int chunkSize = 1000;
+
+  }
+
+  @Data
+  public static class AccountCache {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+  }
+
+  @Data
+  public static class TransferRetry {
+
+    private int maxAttempts = 5;
+
+    private Duration initialBackoff = Duration.ofMillis(5);
+
+    private Duration maxBackoff = Duration.ofMillis(100);
+
+  }
+
+  @Data
+  public static class Journal {
+
+    private String directory = "journal";
+
+    private int recordsPerSegment = 1 << 20;
+
+  }
+
+  @Data
+  public static class GroupCommit {
+
+    private boolean enabled = false;
+
+    private int maxBatchSize = 64;
+
+    private Duration maxWait = Duration.ofMillis(2);
+
+    private Duration resultTimeout = Duration.ofSeconds(30);
+
+  }
+
+  @Data
+  public static class ActivityWindow {
+
+    private Duration maxAge = Duration.ofDays(10);
+
+    private int maxActivities = 0;
+
+  }
+
+  @Data
+  public static class IdempotencyKey {
+
+    private Duration timeToLive = Duration.ofHours(24);
+
+    private int indexCapacity = 1 << 18;
+
+    private Duration purgeInterval = Duration.ofHours(1);
+
+  }
+
+  @Data
+  public static class AsyncTransfer {
+
+    private int threads = 16;
+
+    private int queueCapacity = 1000;
+
+  }
+
+  @Data
+  public static class VirtualThreads {
+
+    private boolean enabled = false;
+
+  }
+
+  @Data
+  public static class ReactiveTransfer {
+
+    private int maxConcurrency = 10;
+
+  }
+
+  @Data
+  public static class R2dbc {
+
+    private String url = "r2dbc:h2:mem:///buckpal?options=DB_CLOSE_DELAY=-1";
+
+    private String username = "sa";
+
+    private String password = "";
+
+    private int maxPoolSize = 10;
+
+  }
+
+  @Data
+  public static class Ledger {
+
+    private int replayPartitions = 4;
+
+  }
+
+  @Data
+  public static class BatchTransfer {
+
+    private int maxBatchSize = 1000;
+
+  }
+
 }
@@ -0,0 +1,21 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import java.math.BigInteger;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 계좌 잔고 조회 응답 (JSON)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class AccountBalanceResponse {
+
+    private long accountId;
+
+    private BigInteger balance;
+
+}
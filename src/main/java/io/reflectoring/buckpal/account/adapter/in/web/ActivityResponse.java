@@ -0,0 +1,39 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+import io.reflectoring.buckpal.account.domain.Activity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 활동 이력 응답의 한 줄 (NDJSON)
+ * 다음 페이지는 마지막 줄의 {@code timestamp}와 {@code id}를 {@code afterTimestamp}, {@code afterId}로 넘겨 요청한다
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class ActivityResponse {
+
+    private long id;
+
+    private LocalDateTime timestamp;
+
+    private long sourceAccountId;
+
+    private long targetAccountId;
+
+    private BigInteger amount;
+
+    static ActivityResponse of(Activity activity) {
+        return new ActivityResponse(
+                activity.getId().getValue(),
+                activity.getTimestamp(),
+                activity.getSourceAccountId().getValue(),
+                activity.getTargetAccountId().getValue(),
+                activity.getMoney().getAmount());
+    }
+
+}
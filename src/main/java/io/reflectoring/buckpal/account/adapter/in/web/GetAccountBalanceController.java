@@ -0,0 +1,56 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import io.reflectoring.buckpal.account.application.port.in.GetAccountBalanceQuery;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.WebAdapter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityNotFoundException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 계좌 잔고를 조회하는 웹 어댑터
+ * 응답에는 잔고로부터 계산한 ETag가 붙으므로, {@code If-None-Match}로 다시 묻는 클라이언트는 잔고가 그대로면
+ * 본문 없이 {@code 304 Not Modified}를 받는다 (비교는 {@link ResponseEntity}를 처리하는 Spring MVC가 한다)
+ * <p>
+ * 애플리케이션 계층 : {@link io.reflectoring.buckpal.account.application.service.GetAccountBalanceService}
+ */
+@WebAdapter
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+class GetAccountBalanceController {
+
+    private final GetAccountBalanceQuery getAccountBalanceQuery;
+
+    @GetMapping(path = "/accounts/{accountId}/balance")
+    ResponseEntity<AccountBalanceResponse> getAccountBalance(@PathVariable("accountId") Long accountId) {
+
+        Money balance = getAccountBalanceQuery.getAccountBalance(new AccountId(accountId));
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTagOf(balance))
+                .body(new AccountBalanceResponse(accountId, balance.getAmount()));
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    ResponseEntity<Void> accountNotFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    private String eTagOf(Money balance) {
+        return DigestUtils.md5DigestAsHex(balance.getAmount().toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,91 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.reflectoring.buckpal.account.application.port.in.GetActivityHistoryQuery;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity.ActivityId;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
+import io.reflectoring.buckpal.common.WebAdapter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityNotFoundException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * 계좌의 활동 이력을 NDJSON(한 줄에 활동 하나)으로 내려주는 웹 어댑터
+ * 활동은 읽는 대로 응답에 쓰므로 이력이 아무리 길어도 메모리에 모으지 않는다
+ * <p>
+ * keyset 페이지네이션 : 활동은 (시각, ID) 순서이고, {@code afterTimestamp}와 {@code afterId}를 주면 그 활동 다음부터,
+ * {@code limit}을 주면 그 수만큼만 내려준다 (없으면 끝까지)
+ * <p>
+ * 애플리케이션 계층 : {@link io.reflectoring.buckpal.account.application.service.GetActivityHistoryService}
+ */
+@WebAdapter
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+class GetActivityHistoryController {
+
+    private final GetActivityHistoryQuery getActivityHistoryQuery;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping(path = "/accounts/{accountId}/activities", produces = SendMoneyBatchController.APPLICATION_NDJSON_VALUE)
+    void getActivities(
+            @PathVariable("accountId") Long accountId,
+            @RequestParam(name = "afterTimestamp", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTimestamp,
+            @RequestParam(name = "afterId", required = false) Long afterId,
+            @RequestParam(name = "limit", required = false) Long limit,
+            HttpServletResponse response) throws IOException {
+
+        if ((afterTimestamp == null) != (afterId == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "afterTimestamp and afterId go together");
+        }
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1");
+        }
+        ActivityCursor after = afterTimestamp == null ? null : new ActivityCursor(afterTimestamp, new ActivityId(afterId));
+
+        response.setContentType(SendMoneyBatchController.APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writerFor(ActivityResponse.class);
+        OutputStream body = response.getOutputStream();
+        try {
+            getActivityHistoryQuery.streamActivities(
+                    new AccountId(accountId),
+                    after,
+                    limit == null ? Long.MAX_VALUE : limit,
+                    activity -> {
+                        try {
+                            body.write(writer.writeValueAsBytes(ActivityResponse.of(activity)));
+                            body.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        body.flush();
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    ResponseEntity<Void> accountNotFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyAsyncUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferRejectedException;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.WebAdapter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link SendMoneyController}의 비동기 버전
+ * 송금을 넘기고 나면 요청 스레드는 바로 돌아가고, 송금이 끝나면 Spring MVC 비동기 처리로 응답을 쓴다
+ * 송금이 실패해도 200으로 응답하며, 그 이유는 {@link SendMoneyResponse#getStatus()}로 알려준다
+ * <p>
+ * 대기 중인 송금이 너무 많아 거절되면 503과 {@code Retry-After}로 응답한다
+ * <p>
+ * 애플리케이션 계층 : {@link io.reflectoring.buckpal.account.application.service.AsyncSendMoneyService}
+ */
+@WebAdapter
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+class SendMoneyAsyncController {
+
+    private final SendMoneyAsyncUseCase sendMoneyAsyncUseCase;
+
+    @PostMapping(path = "/accounts/send/async/{sourceAccountId}/{targetAccountId}/{amount}")
+    CompletableFuture<SendMoneyResponse> sendMoney(
+            @PathVariable("sourceAccountId") Long sourceAccountId,
+            @PathVariable("targetAccountId") Long targetAccountId,
+            @PathVariable("amount") Long amount,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+
+        SendMoneyCommand command = new SendMoneyCommand(
+                new AccountId(sourceAccountId),
+                new AccountId(targetAccountId),
+                Money.of(amount),
+                idempotencyKey);
+
+        return sendMoneyAsyncUseCase.sendMoney(command).thenApply(SendMoneyResponse::of);
+    }
+
+    @ExceptionHandler(TransferRejectedException.class)
+    ResponseEntity<Void> rejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+}
@@ -0,0 +1,118 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyBatchUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.WebAdapter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.ConstraintViolationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 여러 송금을 한 번의 HTTP 요청으로 받는 웹 어댑터
+ * JSON 배열 또는 NDJSON(한 줄에 JSON 객체 하나) 형식으로 송금 목록을 받고, 항목별 결과를 같은 순서로 돌려준다
+ * 송금이 {@link SendMoneyBatchProperties#getMaxBatchSize()}보다 많은 요청은 413으로 거절한다
+ * <p>
+ * 애플리케이션 계층 : {@link io.reflectoring.buckpal.account.application.service.SendMoneyBatchService}
+ */
+@WebAdapter
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+class SendMoneyBatchController {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final SendMoneyBatchUseCase sendMoneyBatchUseCase;
+    private final ObjectMapper objectMapper;
+    private final SendMoneyBatchProperties sendMoneyBatchProperties;
+
+    @PostMapping(path = "/accounts/send/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    List<TransferResponse> sendMoney(@RequestBody List<TransferRequest> requests) {
+        return send(requests);
+    }
+
+    @PostMapping(path = "/accounts/send/batch", consumes = APPLICATION_NDJSON_VALUE)
+    List<TransferResponse> sendMoney(InputStream body) throws IOException {
+        List<TransferRequest> requests = new ArrayList<>();
+        try (MappingIterator<TransferRequest> iterator =
+                     objectMapper.readerFor(TransferRequest.class).readValues(body)) {
+            // 한도를 넘는 순간 나머지는 읽지 않고 거절한다
+            while (iterator.hasNext()) {
+                requests.add(iterator.next());
+                checkBatchSize(requests.size());
+            }
+        }
+        return send(requests);
+    }
+
+    private List<TransferResponse> send(List<TransferRequest> requests) {
+        checkBatchSize(requests.size());
+        List<TransferResponse> responses = new ArrayList<>(requests.size());
+        List<SendMoneyCommand> commands = new ArrayList<>(requests.size());
+        List<Integer> commandIndexes = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            responses.add(new TransferResponse(i, false, TransferResponse.INVALID));
+            SendMoneyCommand command = toCommand(requests.get(i));
+            if (command != null) {
+                commands.add(command);
+                commandIndexes.add(i);
+            }
+        }
+
+        List<TransferResult> results = sendMoneyBatchUseCase.sendMoney(commands);
+        for (int i = 0; i < results.size(); i++) {
+            TransferResult result = results.get(i);
+            responses.set(commandIndexes.get(i), new TransferResponse(
+                    commandIndexes.get(i),
+                    result.isSuccess(),
+                    result.getStatus().name()));
+        }
+        return responses;
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > sendMoneyBatchProperties.getMaxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "a batch holds at most " + sendMoneyBatchProperties.getMaxBatchSize() + " transfers");
+        }
+    }
+
+    /**
+     * @return the command, or {@code null} if the request is invalid
+     */
+    private SendMoneyCommand toCommand(TransferRequest request) {
+        if (request == null
+                || request.getSourceAccountId() == null
+                || request.getTargetAccountId() == null
+                || request.getAmount() == null) {
+            return null;
+        }
+        try {
+            return new SendMoneyCommand(
+                    new AccountId(request.getSourceAccountId()),
+                    new AccountId(request.getTargetAccountId()),
+                    Money.of(request.getAmount()),
+                    request.getIdempotencyKey());
+        } catch (ConstraintViolationException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the batch transfer endpoint of the web adapter.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SendMoneyBatchProperties {
+
+	/**
+	 * How many transfers one request may contain at most. A batch runs in one transaction and holds the locks of
+	 * all of its accounts until it is done, so a larger one is refused instead of stalling the other transfers.
+	 */
+	private int maxBatchSize = 1000;
+
+}
@@ -6,8 +6,10 @@ import io.reflectoring.buckpal.account.domain.Account.AccountId;
 import io.reflectoring.buckpal.account.domain.Money;
 import io.reflectoring.buckpal.common.WebAdapter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 // 저자 - 클래스마다 코드는 적을수록 좋다 (각 연산에 대해 가급적이면 별도의 패키지 안에 별도의 컨트롤러를 만드는 방식을 선호한다)
@@ -21,10 +23,13 @@ import org.springframework.web.bind.annotation.RestController;
  * <br>
  * 즉 어떤 도메인 로직도 수행하지 않는다
  * <p>
+ * 재시도된 요청이 송금을 두 번 실행하지 않도록 {@code Idempotency-Key} 헤더로 송금마다 고유한 키를 보낼 수 있다
+ * <p>
  * 애플리케이션 계층 : {@link SendMoneyService}
  */
 @WebAdapter
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 class SendMoneyController {
 
@@ -34,12 +39,14 @@ class SendMoneyController {
     void sendMoney(
             @PathVariable("sourceAccountId") Long sourceAccountId,
             @PathVariable("targetAccountId") Long targetAccountId,
-            @PathVariable("amount") Long amount) {
+            @PathVariable("amount") Long amount,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
 
         SendMoneyCommand command = new SendMoneyCommand(
                 new AccountId(sourceAccountId),
                 new AccountId(targetAccountId),
-                Money.of(amount));
+                Money.of(amount),
+                idempotencyKey);
 
         sendMoneyUseCase.sendMoney(command);
     }
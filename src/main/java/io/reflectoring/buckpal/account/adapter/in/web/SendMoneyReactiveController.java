@@ -0,0 +1,85 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyReactiveUseCase;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.WebAdapter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolationException;
+
+/**
+ * {@code reactive} 프로필의 WebFlux 웹 어댑터
+ * 요청을 처리하는 동안 스레드를 붙잡지 않으므로 적은 수의 스레드로 많은 동시 요청을 받는다
+ * <p>
+ * 일괄 송금은 NDJSON 스트림으로 받고 결과도 NDJSON 스트림으로 돌려준다
+ * 송금이 끝나는 만큼만 요청 본문을 더 읽으므로, 데이터베이스가 느리면 클라이언트의 전송도 느려진다 (배압)
+ * 유효하지 않은 항목을 만나면 그 항목에서 스트림을 끝낸다. 그 전까지의 결과는 이미 보낸 그대로 유효하다
+ * <p>
+ * 멱등 키는 받지 않는다 : {@link SendMoneyReactiveUseCase}
+ * <p>
+ * 애플리케이션 계층 : {@link io.reflectoring.buckpal.account.application.service.ReactiveSendMoneyService}
+ */
+@WebAdapter
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+class SendMoneyReactiveController {
+
+    private final SendMoneyReactiveUseCase sendMoneyReactiveUseCase;
+
+    @PostMapping(path = "/accounts/send/reactive/{sourceAccountId}/{targetAccountId}/{amount}")
+    Mono<SendMoneyResponse> sendMoney(
+            @PathVariable("sourceAccountId") Long sourceAccountId,
+            @PathVariable("targetAccountId") Long targetAccountId,
+            @PathVariable("amount") Long amount) {
+
+        SendMoneyCommand command = new SendMoneyCommand(
+                new AccountId(sourceAccountId),
+                new AccountId(targetAccountId),
+                Money.of(amount));
+
+        return sendMoneyReactiveUseCase.sendMoney(command).map(SendMoneyResponse::of);
+    }
+
+    @PostMapping(
+            path = "/accounts/send/reactive/batch",
+            consumes = SendMoneyBatchController.APPLICATION_NDJSON_VALUE,
+            produces = SendMoneyBatchController.APPLICATION_NDJSON_VALUE)
+    Flux<TransferResponse> sendMoney(@RequestBody Flux<TransferRequest> requests) {
+        return sendMoneyReactiveUseCase.sendMoney(requests.index().map(request -> toCommand(
+                        request.getT1(), request.getT2())))
+                .index()
+                .map(result -> new TransferResponse(
+                        result.getT1().intValue(),
+                        result.getT2().isSuccess(),
+                        result.getT2().getStatus().name()));
+    }
+
+    private SendMoneyCommand toCommand(long index, TransferRequest request) {
+        if (request.getSourceAccountId() == null
+                || request.getTargetAccountId() == null
+                || request.getAmount() == null
+                || request.getIdempotencyKey() != null) {
+            throw new ServerWebInputException("invalid transfer at index " + index);
+        }
+        try {
+            return new SendMoneyCommand(
+                    new AccountId(request.getSourceAccountId()),
+                    new AccountId(request.getTargetAccountId()),
+                    Money.of(request.getAmount()));
+        } catch (ConstraintViolationException e) {
+            throw new ServerWebInputException("invalid transfer at index " + index);
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 송금 한 건의 응답 (JSON)
+ * {@code status}는 {@link TransferResult.Status} 값입니다.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class SendMoneyResponse {
+
+    private boolean success;
+
+    private String status;
+
+    static SendMoneyResponse of(TransferResult result) {
+        return new SendMoneyResponse(result.isSuccess(), result.getStatus().name());
+    }
+
+}
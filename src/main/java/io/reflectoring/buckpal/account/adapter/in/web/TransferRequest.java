@@ -0,0 +1,26 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 일괄 송금 요청의 한 항목 (JSON)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class TransferRequest {
+
+    private Long sourceAccountId;
+
+    private Long targetAccountId;
+
+    private Long amount;
+
+    /**
+     * 생략할 수 있다 : {@link io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand#getIdempotencyKey()}
+     */
+    private String idempotencyKey;
+
+}
@@ -0,0 +1,25 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 일괄 송금 응답의 한 항목 (JSON)
+ * {@code status}는 {@link io.reflectoring.buckpal.account.application.port.in.TransferResult.Status} 값이거나,
+ * 요청 항목 자체가 유효하지 않으면 {@value #INVALID}입니다.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class TransferResponse {
+
+    static final String INVALID = "INVALID";
+
+    private int index;
+
+    private boolean success;
+
+    private String status;
+
+}
@@ -0,0 +1,52 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import io.reflectoring.buckpal.common.VirtualThreads;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 가상 스레드 모드({@code buckpal.virtual-threads.enabled}, JDK 21 이상)에서는 Tomcat이 요청마다 새 가상 스레드를 만든다
+ * 요청 스레드 수({@code server.tomcat.threads.max})의 제한이 없어지므로, 동시 요청 수는 {@code server.tomcat.max-connections}가,
+ * 동시 트랜잭션 수는 JDBC 커넥션 풀의 크기가 정한다 : {@code application-virtual-threads.yml}
+ */
+@Configuration
+@ConditionalOnClass(ProtocolHandler.class)
+@ConditionalOnProperty(name = "buckpal.virtual-threads.enabled", havingValue = "true")
+class VirtualThreadsWebConfiguration {
+
+    @Bean
+    VirtualThreadsCustomizer virtualThreadsCustomizer() {
+        return new VirtualThreadsCustomizer(VirtualThreads.newThreadPerTaskExecutor("http-request-"));
+    }
+
+    /**
+     * Tomcat은 밖에서 받은 executor를 종료하지 않으므로 컨텍스트가 닫힐 때 직접 종료한다
+     * executor 자체는 빈으로 등록하지 않는다 : 그러면 Spring Boot의 기본 작업 executor가 만들어지지 않는다
+     */
+    static class VirtualThreadsCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, AutoCloseable {
+
+        private final ExecutorService executor;
+
+        VirtualThreadsCustomizer(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            protocolHandler.setExecutor(executor);
+        }
+
+        @Override
+        public void close() {
+            executor.shutdown();
+        }
+
+    }
+
+}
@@ -0,0 +1,242 @@
+package io.reflectoring.buckpal.account.adapter.out.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of fixed-width records in memory-mapped segment files.
+ * <br>
+ * Every record takes {@value #RECORD_SIZE} bytes, so a record never spans two pages and its position alone tells
+ * where it is. The ID of a record is its position plus one, which is written last, together with a CRC32 of the
+ * record. On opening, the segments are scanned up to the first record that is empty or does not match its CRC32;
+ * that is where a crash stopped writing.
+ * <br>
+ * {@link #append(List)} returns once the records are on disk. Concurrent appends share an fsync: whoever gets to
+ * sync first flushes everything written so far, and the others find their records already on disk (group commit).
+ * <br>
+ * Writing and syncing block on the disk, so they are guarded by {@link ReentrantLock}s rather than monitors: a virtual
+ * thread that blocks inside a {@code synchronized} block pins its carrier thread.
+ */
+class ActivityJournal implements AutoCloseable {
+
+	static final int RECORD_SIZE = 64;
+
+	private static final int CHECKSUMMED_SIZE = 52;
+
+	private final Path directory;
+
+	private final int recordsPerSegment;
+
+	private final List<FileChannel> channels = new ArrayList<>();
+
+	/**
+	 * Replaced, never modified, when a segment is added, so that readers need no lock.
+	 */
+	private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+	/**
+	 * The number of records written. Guarded by {@link #writeLock} for writing.
+	 */
+	private volatile long writtenPosition;
+
+	/**
+	 * The number of records known to be on disk. Guarded by {@link #syncLock} for writing.
+	 */
+	private volatile long durablePosition;
+
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	private final ReentrantLock syncLock = new ReentrantLock();
+
+	ActivityJournal(Path directory, int recordsPerSegment) {
+		if (recordsPerSegment < 1) {
+			throw new IllegalArgumentException("expected at least one record per segment but got " + recordsPerSegment);
+		}
+		this.directory = directory;
+		this.recordsPerSegment = recordsPerSegment;
+		try {
+			Files.createDirectories(directory);
+			while (Files.exists(segmentFile(segments.length))) {
+				addSegment();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("could not open journal in " + directory, e);
+		}
+		long position = 0;
+		while (position < (long) segments.length * recordsPerSegment && read(position) != null) {
+			position++;
+		}
+		writtenPosition = position;
+		durablePosition = position;
+	}
+
+	/**
+	 * Appends the given records and waits until they are on disk.
+	 * @return the records with the IDs they were assigned
+	 */
+	List<JournalRecord> append(List<JournalRecord> records) {
+		List<JournalRecord> appended = new ArrayList<>(records.size());
+		long end;
+		writeLock.lock();
+		try {
+			long position = writtenPosition;
+			for (JournalRecord record : records) {
+				JournalRecord withId = record.withId(position + 1);
+				write(position, withId);
+				appended.add(withId);
+				position++;
+			}
+			writtenPosition = position;
+			end = position;
+		} finally {
+			writeLock.unlock();
+		}
+		awaitDurable(end);
+		return appended;
+	}
+
+	/**
+	 * @return the record at the given position, or {@code null} if there is no valid record
+	 */
+	JournalRecord read(long position) {
+		MappedByteBuffer[] current = segments;
+		int segment = (int) (position / recordsPerSegment);
+		if (segment >= current.length) {
+			return null;
+		}
+		ByteBuffer buffer = current[segment].duplicate();
+		int offset = (int) (position % recordsPerSegment) * RECORD_SIZE;
+		long id = buffer.getLong(offset);
+		if (id != position + 1 || buffer.getInt(offset + CHECKSUMMED_SIZE) != checksum(buffer, offset)) {
+			return null;
+		}
+		int type = buffer.getInt(offset + 48);
+		if (type < 0 || type >= JournalRecord.Type.values().length) {
+			return null;
+		}
+		return new JournalRecord(
+				id,
+				JournalRecord.Type.values()[type],
+				buffer.getLong(offset + 8),
+				buffer.getLong(offset + 16),
+				buffer.getLong(offset + 24),
+				buffer.getLong(offset + 32),
+				buffer.getLong(offset + 40));
+	}
+
+	/**
+	 * Passes all records to the given consumer, in the order they were appended.
+	 */
+	void forEach(Consumer<JournalRecord> consumer) {
+		long end = writtenPosition;
+		for (long position = 0; position < end; position++) {
+			consumer.accept(read(position));
+		}
+	}
+
+	long size() {
+		return writtenPosition;
+	}
+
+	private void write(long position, JournalRecord record) {
+		int segment = (int) (position / recordsPerSegment);
+		if (segment >= segments.length) {
+			try {
+				addSegment();
+			} catch (IOException e) {
+				throw new UncheckedIOException("could not add journal segment " + segment, e);
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+		buffer.putLong(0, record.getId());
+		buffer.putLong(8, record.getOwnerAccountId());
+		buffer.putLong(16, record.getSourceAccountId());
+		buffer.putLong(24, record.getTargetAccountId());
+		buffer.putLong(32, record.getTimestamp());
+		buffer.putLong(40, record.getAmount());
+		buffer.putInt(48, record.getType().ordinal());
+		buffer.putInt(CHECKSUMMED_SIZE, checksum(buffer, 0));
+
+		// the ID goes last, so that a record is only valid once it was written completely
+		ByteBuffer target = segments[segment].duplicate();
+		int offset = (int) (position % recordsPerSegment) * RECORD_SIZE;
+		target.position(offset + 8);
+		target.put(buffer.position(8).limit(RECORD_SIZE));
+		target.putLong(offset, record.getId());
+	}
+
+	private void awaitDurable(long position) {
+		if (durablePosition >= position) {
+			return;
+		}
+		syncLock.lock();
+		try {
+			if (durablePosition >= position) {
+				return;
+			}
+			long target = writtenPosition;
+			MappedByteBuffer[] current = segments;
+			for (int segment = (int) (durablePosition / recordsPerSegment);
+					segment <= (target - 1) / recordsPerSegment;
+					segment++) {
+				current[segment].force();
+			}
+			durablePosition = target;
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	private void addSegment() throws IOException {
+		int segment = segments.length;
+		FileChannel channel = FileChannel.open(
+				segmentFile(segment),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		channels.add(channel);
+		MappedByteBuffer[] extended = Arrays.copyOf(segments, segment + 1);
+		extended[segment] = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+		segments = extended;
+	}
+
+	private Path segmentFile(int segment) {
+		return directory.resolve(String.format("activities-%08d.journal", segment));
+	}
+
+	private static int checksum(ByteBuffer buffer, int offset) {
+		CRC32 crc = new CRC32();
+		crc.update(buffer.duplicate().position(offset).limit(offset + CHECKSUMMED_SIZE));
+		return (int) crc.getValue();
+	}
+
+	@Override
+	public void close() {
+		writeLock.lock();
+		try {
+			awaitDurable(writtenPosition);
+			for (FileChannel channel : channels) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException("could not close journal in " + directory, e);
+				}
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+}
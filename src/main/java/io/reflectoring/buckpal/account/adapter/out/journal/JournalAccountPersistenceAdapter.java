@@ -0,0 +1,409 @@
+package io.reflectoring.buckpal.account.adapter.out.journal;
+
+import javax.persistence.EntityNotFoundException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountBalancePort;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityHistoryPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityWindowStartPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadExistingAccountIdsPort;
+import io.reflectoring.buckpal.account.application.port.out.UpdateAccountStatePort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.Activity.ActivityId;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.PersistenceAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps accounts in an {@link ActivityJournal} instead of the database. Used with the {@code journal} profile.
+ * <br>
+ * On startup the journal is read once to build an in-memory index: per account, the positions of its activities in
+ * timestamp order with their timestamps and running balances. Loading an account then reads only the records of that
+ * account since the baseline date, and streaming its history only the records after the cursor.
+ * <br>
+ * New activities are kept in memory until the surrounding database transaction committed and then appended, all
+ * activities of a transaction with one append, so that the journal never holds the activities of a transfer whose
+ * transaction rolled back, e.g. because its idempotency key was recorded concurrently. If that append fails, the
+ * transfer is committed nonetheless; its activities are logged, and the accounts they belong to are closed: loading
+ * or updating them fails until the application is restarted, instead of working with a balance that misses them.
+ * The activities of a transaction that committed just before the application stopped are lost the same way.
+ * The journal does not know account versions, so this adapter relies on the account lock or the account shards to
+ * keep concurrent transfers apart; {@code buckpal.account-lock.type=optimistic} does not protect it.
+ */
+@Slf4j
+@PersistenceAdapter
+@Profile("journal")
+class JournalAccountPersistenceAdapter implements
+		LoadAccountPort,
+		LoadAccountBalancePort,
+		LoadActivityHistoryPort,
+		LoadActivityWindowStartPort,
+		LoadExistingAccountIdsPort,
+		UpdateAccountStatePort,
+		AutoCloseable {
+
+	private static final Object PENDING_RECORDS_KEY = new Object();
+
+	private final ActivityJournal journal;
+
+	private final Map<Long, AccountIndex> accounts = new ConcurrentHashMap<>();
+
+	/**
+	 * The accounts whose committed activities could not be appended, with the reason.
+	 */
+	private final Map<Long, RuntimeException> closedAccounts = new ConcurrentHashMap<>();
+
+	JournalAccountPersistenceAdapter(JournalProperties properties) {
+		this.journal = new ActivityJournal(properties.getDirectory(), properties.getRecordsPerSegment());
+		journal.forEach(this::index);
+	}
+
+	@Override
+	public Account loadAccount(
+					AccountId accountId,
+					LocalDateTime baselineDate) {
+		return loadAccounts(List.of(accountId), baselineDate).get(0);
+	}
+
+	@Override
+	public List<Account> loadAccounts(
+					List<AccountId> accountIds,
+					LocalDateTime baselineDate) {
+		long baseline = toEpochNanos(baselineDate);
+		List<Account> loaded = new ArrayList<>(accountIds.size());
+		for (AccountId accountId : accountIds) {
+			AccountWindow window = indexOf(accountId).windowSince(baseline);
+			List<Activity> activities = new ArrayList<>(window.positions.length);
+			for (long position : window.positions) {
+				activities.add(toActivity(journal.read(position)));
+			}
+			loaded.add(Account.withId(accountId, Money.of(window.baselineBalance), new ActivityWindow(activities)));
+		}
+		return loaded;
+	}
+
+	@Override
+	public Set<AccountId> loadExistingAccountIds(Collection<AccountId> accountIds) {
+		Set<AccountId> existing = new HashSet<>();
+		for (AccountId accountId : accountIds) {
+			if (accounts.containsKey(accountId.getValue())) {
+				existing.add(accountId);
+			}
+		}
+		return existing;
+	}
+
+	@Override
+	public Money loadBalance(AccountId accountId) {
+		return Money.of(indexOf(accountId).balance());
+	}
+
+	/**
+	 * Reads the timestamp off the index, without reading the journal.
+	 */
+	@Override
+	public Optional<LocalDateTime> loadWindowStart(AccountId accountId, int maxActivities) {
+		long timestamp = indexOf(accountId).timestampFromEnd(maxActivities);
+		if (timestamp == Long.MIN_VALUE) {
+			return Optional.empty();
+		}
+		return Optional.of(toLocalDateTime(timestamp));
+	}
+
+	/**
+	 * Finds the cursor in the index and reads only the records from there on. The ID of an activity is its position
+	 * plus one, so the index order is the order of the history, and the activities after the cursor are the ones
+	 * from its timestamp and the position equal to its ID on.
+	 */
+	@Override
+	public void streamActivities(
+					AccountId accountId,
+					ActivityCursor after,
+					long limit,
+					Consumer<Activity> consumer) {
+		AccountIndex index = indexOf(accountId);
+		long[] positions = after == null
+				? index.positionsFrom(Long.MIN_VALUE, Long.MIN_VALUE, limit)
+				: index.positionsFrom(toEpochNanos(after.getTimestamp()), after.getActivityId().getValue(), limit);
+		for (long position : positions) {
+			consumer.accept(toActivity(journal.read(position)));
+		}
+	}
+
+	/**
+	 * Appends the new activities once the surrounding transaction committed, or right away without a transaction.
+	 * An account that is not known yet is created by its first activity.
+	 */
+	@Override
+	public void updateActivities(Account account) {
+		List<JournalRecord> records = new ArrayList<>();
+		for (Activity activity : account.getActivityWindow().getActivities()) {
+			if (activity.getId() == null) {
+				records.add(toRecord(activity));
+			}
+		}
+		if (records.isEmpty()) {
+			return;
+		}
+		checkNotClosed(account.getId().orElseThrow(IllegalStateException::new).getValue());
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			append(records);
+			return;
+		}
+		pendingRecords().addAll(records);
+	}
+
+	/**
+	 * Opens a new account without any activities.
+	 */
+	void openAccount(AccountId accountId) {
+		append(List.of(JournalRecord.accountOpened(accountId.getValue())));
+	}
+
+	@Override
+	public void close() {
+		journal.close();
+	}
+
+	private void append(List<JournalRecord> records) {
+		for (JournalRecord record : journal.append(records)) {
+			index(record);
+		}
+	}
+
+	/**
+	 * The records to append when the current transaction committed. They are appended in {@code afterCommit}, so
+	 * before an account lock is released after the transaction completed.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<JournalRecord> pendingRecords() {
+		List<JournalRecord> pending = (List<JournalRecord>) TransactionSynchronizationManager.getResource(PENDING_RECORDS_KEY);
+		if (pending == null) {
+			List<JournalRecord> created = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(PENDING_RECORDS_KEY, created);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					appendCommitted(created);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_RECORDS_KEY);
+				}
+			});
+			pending = created;
+		}
+		return pending;
+	}
+
+	/**
+	 * Appends the records of a committed transaction. If that fails, the records are lost to the index, so their
+	 * accounts are closed before the account lock is released.
+	 */
+	private void appendCommitted(List<JournalRecord> records) {
+		try {
+			append(records);
+		} catch (RuntimeException e) {
+			Set<Long> owners = new TreeSet<>();
+			for (JournalRecord record : records) {
+				owners.add(record.getOwnerAccountId());
+				closedAccounts.putIfAbsent(record.getOwnerAccountId(), e);
+			}
+			log.error("Could not append the activities of a committed transaction, closing accounts {}: {}",
+					owners, records, e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Adds a record to the index of its account. Only activities get a position; a record opening the account
+	 * just makes it known.
+	 */
+	private void index(JournalRecord record) {
+		AccountIndex index = accounts.computeIfAbsent(record.getOwnerAccountId(), id -> new AccountIndex());
+		if (record.getType() == JournalRecord.Type.ACTIVITY) {
+			index.add(record.getId() - 1, record.getTimestamp(), record.balanceChange());
+		}
+	}
+
+	private AccountIndex indexOf(AccountId accountId) {
+		checkNotClosed(accountId.getValue());
+		AccountIndex index = accounts.get(accountId.getValue());
+		if (index == null) {
+			throw new EntityNotFoundException("account " + accountId.getValue() + " does not exist");
+		}
+		return index;
+	}
+
+	private void checkNotClosed(long accountId) {
+		RuntimeException failure = closedAccounts.get(accountId);
+		if (failure != null) {
+			throw new IllegalStateException("account " + accountId + " misses committed activities that could not be "
+					+ "appended to the journal, see the log", failure);
+		}
+	}
+
+	private static JournalRecord toRecord(Activity activity) {
+		return new JournalRecord(
+				0L,
+				JournalRecord.Type.ACTIVITY,
+				activity.getOwnerAccountId().getValue(),
+				activity.getSourceAccountId().getValue(),
+				activity.getTargetAccountId().getValue(),
+				toEpochNanos(activity.getTimestamp()),
+				activity.getMoney().getAmount().longValueExact());
+	}
+
+	private static Activity toActivity(JournalRecord record) {
+		return new Activity(
+				new ActivityId(record.getId()),
+				new AccountId(record.getOwnerAccountId()),
+				new AccountId(record.getSourceAccountId()),
+				new AccountId(record.getTargetAccountId()),
+				toLocalDateTime(record.getTimestamp()),
+				Money.of(record.getAmount()));
+	}
+
+	private static LocalDateTime toLocalDateTime(long epochNanos) {
+		return LocalDateTime.ofEpochSecond(
+				Math.floorDiv(epochNanos, 1_000_000_000L),
+				(int) Math.floorMod(epochNanos, 1_000_000_000L),
+				ZoneOffset.UTC);
+	}
+
+	private static long toEpochNanos(LocalDateTime timestamp) {
+		return Math.addExact(
+				Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L),
+				timestamp.getNano());
+	}
+
+	/**
+	 * The activities of an account since a baseline date: the balance of the ones before and the positions of the
+	 * ones from the baseline date on.
+	 */
+	private static class AccountWindow {
+
+		private final long baselineBalance;
+
+		private final long[] positions;
+
+		AccountWindow(long baselineBalance, long[] positions) {
+			this.baselineBalance = baselineBalance;
+			this.positions = positions;
+		}
+
+	}
+
+	/**
+	 * The positions of the activities of one account ordered by timestamp and position, with the timestamp of each
+	 * one and the running balance after it. Records are appended in commit order, which lags timestamp order by the
+	 * duration of a transaction at most, so a new activity is inserted at or close to the end. The activities before
+	 * a baseline date or a cursor are found by a binary search, and their balance read off the running balance,
+	 * without reading their records.
+	 */
+	private static class AccountIndex {
+
+		private long[] positions = new long[8];
+
+		private long[] timestamps = new long[8];
+
+		private long[] balances = new long[8];
+
+		private int size;
+
+		synchronized void add(long position, long timestamp, long balanceChange) {
+			if (size == positions.length) {
+				positions = Arrays.copyOf(positions, size * 2);
+				timestamps = Arrays.copyOf(timestamps, size * 2);
+				balances = Arrays.copyOf(balances, size * 2);
+			}
+			int index = size;
+			while (index > 0 && !isBefore(index - 1, timestamp, position)) {
+				index--;
+			}
+			System.arraycopy(positions, index, positions, index + 1, size - index);
+			System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+			System.arraycopy(balances, index, balances, index + 1, size - index);
+			positions[index] = position;
+			timestamps[index] = timestamp;
+			balances[index] = balanceBefore(index) + balanceChange;
+			size++;
+			for (int later = index + 1; later < size; later++) {
+				balances[later] += balanceChange;
+			}
+		}
+
+		synchronized AccountWindow windowSince(long baseline) {
+			int start = firstFrom(baseline, Long.MIN_VALUE);
+			return new AccountWindow(balanceBefore(start), Arrays.copyOfRange(positions, start, size));
+		}
+
+		/**
+		 * @return the positions of at most {@code limit} activities from the given timestamp and position on
+		 */
+		synchronized long[] positionsFrom(long timestamp, long position, long limit) {
+			int start = firstFrom(timestamp, position);
+			return Arrays.copyOfRange(positions, start, start + (int) Math.min(limit, size - start));
+		}
+
+		/**
+		 * @return the timestamp of the {@code n}-th latest activity, or {@link Long#MIN_VALUE} if there are fewer
+		 */
+		synchronized long timestampFromEnd(int n) {
+			return size < n ? Long.MIN_VALUE : timestamps[size - n];
+		}
+
+		synchronized long balance() {
+			return balanceBefore(size);
+		}
+
+		/**
+		 * @return the index of the first activity at or after the given timestamp and position
+		 */
+		private int firstFrom(long timestamp, long position) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (isBefore(middle, timestamp, position)) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		private boolean isBefore(int index, long timestamp, long position) {
+			return timestamps[index] < timestamp || (timestamps[index] == timestamp && positions[index] < position);
+		}
+
+		private long balanceBefore(int index) {
+			return index == 0 ? 0L : balances[index - 1];
+		}
+
+	}
+
+}
@@ -0,0 +1,28 @@
+package io.reflectoring.buckpal.account.adapter.out.journal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the memory-mapped activity journal, used with the {@code journal} profile.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JournalProperties {
+
+	/**
+	 * The directory holding the segment files. It is created if it does not exist.
+	 */
+	private Path directory = Paths.get("journal");
+
+	/**
+	 * How many records a segment file holds. Each record takes {@value ActivityJournal#RECORD_SIZE} bytes.
+	 */
+	private int recordsPerSegment = 1 << 20;
+
+}
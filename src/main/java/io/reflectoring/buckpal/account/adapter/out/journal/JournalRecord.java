@@ -0,0 +1,64 @@
+package io.reflectoring.buckpal.account.adapter.out.journal;
+
+import lombok.Value;
+
+/**
+ * One fixed-width record of the {@link ActivityJournal}. The timestamp is stored as nanoseconds since the epoch.
+ */
+@Value
+class JournalRecord {
+
+	enum Type {
+
+		/**
+		 * An account was opened. Only {@link #ownerAccountId} is set.
+		 */
+		ACCOUNT_OPENED,
+
+		ACTIVITY
+
+	}
+
+	/**
+	 * The position of the record in the journal, plus one. Assigned by the journal on append.
+	 */
+	private final long id;
+
+	private final Type type;
+
+	private final long ownerAccountId;
+
+	private final long sourceAccountId;
+
+	private final long targetAccountId;
+
+	private final long timestamp;
+
+	private final long amount;
+
+	static JournalRecord accountOpened(long accountId) {
+		return new JournalRecord(0L, Type.ACCOUNT_OPENED, accountId, 0L, 0L, 0L, 0L);
+	}
+
+	JournalRecord withId(long id) {
+		return new JournalRecord(id, type, ownerAccountId, sourceAccountId, targetAccountId, timestamp, amount);
+	}
+
+	/**
+	 * How this record changes the balance of its owner account.
+	 */
+	long balanceChange() {
+		if (type != Type.ACTIVITY) {
+			return 0L;
+		}
+		long change = 0L;
+		if (targetAccountId == ownerAccountId) {
+			change += amount;
+		}
+		if (sourceAccountId == ownerAccountId) {
+			change -= amount;
+		}
+		return change;
+	}
+
+}
@@ -0,0 +1,31 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The deposit and withdrawal sums of all activities of an account, see {@link LedgerAccountPersistenceAdapter}.
+ */
+@Entity
+@Table(name = "account_balance")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class AccountBalanceJpaEntity {
+
+	@Id
+	private Long accountId;
+
+	@Column
+	private Long depositBalance;
+
+	@Column
+	private Long withdrawalBalance;
+
+}
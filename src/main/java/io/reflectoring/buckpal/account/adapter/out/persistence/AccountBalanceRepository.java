@@ -0,0 +1,91 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+interface AccountBalanceRepository extends JpaRepository<AccountBalanceJpaEntity, Long> {
+
+	/**
+	 * Loads the account rows of the given accounts together with their balance projections, one row per account:
+	 * account ID, version, deposit balance and withdrawal balance. The balances are null if the account has no
+	 * projection.
+	 */
+	@Query(value = "select acc.id, acc.version, bal.deposit_balance, bal.withdrawal_balance " +
+			"from account acc " +
+			"left join account_balance bal " +
+			"on bal.account_id = acc.id " +
+			"where acc.id in (:accountIds)",
+			nativeQuery = true)
+	List<Object[]> loadProjectedAccounts(@Param("accountIds") Collection<Long> accountIds);
+
+	/**
+	 * Adds the given amounts to the projection of the account. A JPQL update, so that Hibernate only flushes
+	 * pending changes of this table before running it and queued activities stay in one batch.
+	 * @return 1 if the projection was updated, 0 if the account has no projection
+	 */
+	@Modifying
+	@Query("update AccountBalanceJpaEntity b " +
+			"set b.depositBalance = b.depositBalance + :deposits, " +
+			"b.withdrawalBalance = b.withdrawalBalance + :withdrawals " +
+			"where b.accountId = :accountId")
+	int addToBalance(
+			@Param("accountId") Long accountId,
+			@Param("deposits") Long deposits,
+			@Param("withdrawals") Long withdrawals);
+
+	/**
+	 * Adds up the whole activity history of each of the given accounts that has no projection yet into a new
+	 * projection, like {@link #insertPartition(int, int)}.
+	 * @return the number of projections inserted
+	 */
+	@Modifying
+	@Query(value = "insert into account_balance (account_id, deposit_balance, withdrawal_balance) " +
+			"select acc.id, " +
+			"coalesce(sum(case when act.target_account_id = acc.id then act.amount end), 0), " +
+			"coalesce(sum(case when act.source_account_id = acc.id then act.amount end), 0) " +
+			"from account acc " +
+			"left join activity act " +
+			"on act.owner_account_id = acc.id " +
+			"where acc.id in (:accountIds) " +
+			"and not exists (select 1 from account_balance bal where bal.account_id = acc.id) " +
+			"group by acc.id",
+			nativeQuery = true)
+	int insertMissing(@Param("accountIds") Collection<Long> accountIds);
+
+	/**
+	 * Deletes the projections of all accounts whose ID modulo {@code partitions} is {@code partition}.
+	 */
+	@Modifying
+	@Query(value = "delete from account_balance " +
+			"where mod(account_id, :partitions) = :partition",
+			nativeQuery = true)
+	int deletePartition(
+			@Param("partitions") int partitions,
+			@Param("partition") int partition);
+
+	/**
+	 * Adds up the whole activity history of every account whose ID modulo {@code partitions} is {@code partition}
+	 * into a new projection. Reads only the owner and timestamp index of the activities.
+	 * @return the number of projections inserted
+	 */
+	@Modifying
+	@Query(value = "insert into account_balance (account_id, deposit_balance, withdrawal_balance) " +
+			"select acc.id, " +
+			"coalesce(sum(case when act.target_account_id = acc.id then act.amount end), 0), " +
+			"coalesce(sum(case when act.source_account_id = acc.id then act.amount end), 0) " +
+			"from account acc " +
+			"left join activity act " +
+			"on act.owner_account_id = acc.id " +
+			"where mod(acc.id, :partitions) = :partition " +
+			"group by acc.id",
+			nativeQuery = true)
+	int insertPartition(
+			@Param("partitions") int partitions,
+			@Param("partition") int partition);
+
+}
@@ -0,0 +1,28 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the in-memory account cache of the persistence adapter.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountCacheProperties {
+
+	/**
+	 * How many accounts are cached at most.
+	 */
+	private long maximumSize = 10_000;
+
+	/**
+	 * How long an account is cached after it was loaded from the database. Appending new activities does not
+	 * extend this, so changes made outside of this application are picked up after at most this long.
+	 */
+	private Duration timeToLive = Duration.ofMinutes(5);
+
+}
@@ -4,6 +4,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,4 +21,11 @@ class AccountJpaEntity {
 	@GeneratedValue
 	private Long id;
 
+	/**
+	 * Incremented together with every change of the account's activities, see
+	 * {@link AccountPersistenceAdapter#updateActivities}.
+	 */
+	@Version
+	private Long version;
+
 }
@@ -0,0 +1,72 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * One row of {@link SpringDataAccountRepository#loadAccountsWithActivitiesSince}.
+ * Each requested account yields one baseline row ({@link #getActivityId()} is {@code null}) that carries the
+ * deposit and withdrawal sums before the baseline date and the account version, plus one row per activity within
+ * the window.
+ * <br>
+ * Wraps the raw column array instead of using a Spring Data projection, which would create a proxy per row.
+ */
+@RequiredArgsConstructor
+class AccountLoadingRow {
+
+	private final Object[] columns;
+
+	Long getAccountId() {
+		return longAt(0);
+	}
+
+	Long getActivityId() {
+		return longAt(1);
+	}
+
+	LocalDateTime getTimestamp() {
+		Timestamp timestamp = (Timestamp) columns[2];
+		return timestamp == null ? null : timestamp.toLocalDateTime();
+	}
+
+	Long getSourceAccountId() {
+		return longAt(3);
+	}
+
+	Long getTargetAccountId() {
+		return longAt(4);
+	}
+
+	/**
+	 * The amount of the activity, or the deposit balance until the baseline date for a baseline row.
+	 */
+	Long getAmount() {
+		return longAt(5);
+	}
+
+	/**
+	 * The withdrawal balance until the baseline date for a baseline row, {@code null} otherwise.
+	 */
+	Long getWithdrawalBalance() {
+		return longAt(6);
+	}
+
+	/**
+	 * The version of the account for a baseline row, {@code null} otherwise.
+	 */
+	Long getVersion() {
+		return longAt(7);
+	}
+
+	boolean isBaseline() {
+		return columns[1] == null;
+	}
+
+	private Long longAt(int index) {
+		Number value = (Number) columns[index];
+		return value == null ? null : value.longValue();
+	}
+
+}
@@ -35,18 +35,22 @@ class AccountMapper {
 		List<Activity> mappedActivities = new ArrayList<>();
 
 		for (ActivityJpaEntity activity : activities) {
-			mappedActivities.add(new Activity(
-					new ActivityId(activity.getId()),
-					new AccountId(activity.getOwnerAccountId()),
-					new AccountId(activity.getSourceAccountId()),
-					new AccountId(activity.getTargetAccountId()),
-					activity.getTimestamp(),
-					Money.of(activity.getAmount())));
+			mappedActivities.add(mapToDomainEntity(activity));
 		}
 
 		return new ActivityWindow(mappedActivities);
 	}
 
+	Activity mapToDomainEntity(ActivityJpaEntity activity) {
+		return new Activity(
+				new ActivityId(activity.getId()),
+				new AccountId(activity.getOwnerAccountId()),
+				new AccountId(activity.getSourceAccountId()),
+				new AccountId(activity.getTargetAccountId()),
+				activity.getTimestamp(),
+				Money.of(activity.getAmount()));
+	}
+
 	ActivityJpaEntity mapToJpaEntity(Activity activity) {
 		return new ActivityJpaEntity(
 				activity.getId() == null ? null : activity.getId().getValue(),
@@ -3,70 +3,273 @@ package io.reflectoring.buckpal.account.adapter.out.persistence;
 import javax.persistence.EntityNotFoundException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountBalancePort;
 import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityHistoryPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityWindowStartPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadExistingAccountIdsPort;
 import io.reflectoring.buckpal.account.application.port.out.UpdateAccountStatePort;
 import io.reflectoring.buckpal.account.domain.Account;
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
 import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
+import io.reflectoring.buckpal.account.domain.Money;
 import io.reflectoring.buckpal.common.PersistenceAdapter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 
 @RequiredArgsConstructor
 @PersistenceAdapter
+@Profile("!journal")
 class AccountPersistenceAdapter implements
 		LoadAccountPort,
+		LoadAccountBalancePort,
+		LoadActivityHistoryPort,
+		LoadActivityWindowStartPort,
+		LoadExistingAccountIdsPort,
 		UpdateAccountStatePort {
 
+	/**
+	 * How many of the latest snapshots {@link #loadWindowStart(AccountId, int)} searches at most: seven lookups.
+	 */
+	private static final int SEARCHED_SNAPSHOTS = 64;
+
 	private final SpringDataAccountRepository accountRepository;
 	private final ActivityRepository activityRepository;
+	private final BalanceSnapshotRepository balanceSnapshotRepository;
 	private final AccountMapper accountMapper;
 
 	@Override
 	public Account loadAccount(
 					AccountId accountId,
 					LocalDateTime baselineDate) {
+		return loadAccounts(List.of(accountId), baselineDate).get(0);
+	}
 
-		AccountJpaEntity account =
-				accountRepository.findById(accountId.getValue())
-						.orElseThrow(EntityNotFoundException::new);
+	@Override
+	public List<Account> loadAccounts(
+					List<AccountId> accountIds,
+					LocalDateTime baselineDate) {
+		List<Account> accounts = new ArrayList<>(accountIds.size());
+		for (VersionedAccount versionedAccount : loadVersionedAccounts(accountIds, baselineDate)) {
+			accounts.add(versionedAccount.getAccount());
+		}
+		return accounts;
+	}
 
-		List<ActivityJpaEntity> activities =
-				activityRepository.findByOwnerSince(
-						accountId.getValue(),
-						baselineDate);
+	/**
+	 * Loads accounts like {@link #loadAccounts(List, LocalDateTime)}, together with their versions.
+	 * The versions are remembered for the current transaction, see {@link AccountVersions}.
+	 */
+	List<VersionedAccount> loadVersionedAccounts(
+					List<AccountId> accountIds,
+					LocalDateTime baselineDate) {
 
-		Long withdrawalBalance = orZero(activityRepository
-				.getWithdrawalBalanceUntil(
-						accountId.getValue(),
-						baselineDate));
+		Set<Long> ids = accountIds.stream()
+				.map(AccountId::getValue)
+				.collect(Collectors.toSet());
 
-		Long depositBalance = orZero(activityRepository
-				.getDepositBalanceUntil(
-						accountId.getValue(),
-						baselineDate));
+		Map<Long, AccountLoadingRow> baselines = new HashMap<>();
+		Map<Long, List<ActivityJpaEntity>> activities = new HashMap<>();
+		for (Object[] columns : accountRepository.loadAccountsWithActivitiesSince(ids, baselineDate)) {
+			AccountLoadingRow row = new AccountLoadingRow(columns);
+			if (row.isBaseline()) {
+				baselines.put(row.getAccountId(), row);
+			} else {
+				activities.computeIfAbsent(row.getAccountId(), id -> new ArrayList<>())
+						.add(new ActivityJpaEntity(
+								row.getActivityId(),
+								row.getTimestamp(),
+								row.getAccountId(),
+								row.getSourceAccountId(),
+								row.getTargetAccountId(),
+								row.getAmount()));
+			}
+		}
 
-		return accountMapper.mapToDomainEntity(
-				account,
-				activities,
-				withdrawalBalance,
-				depositBalance);
+		List<VersionedAccount> accounts = new ArrayList<>(accountIds.size());
+		for (AccountId accountId : accountIds) {
+			AccountLoadingRow baseline = baselines.get(accountId.getValue());
+			if (baseline == null) {
+				throw new EntityNotFoundException();
+			}
+			AccountVersions.loaded(accountId, baseline.getVersion());
+			accounts.add(new VersionedAccount(
+					accountMapper.mapToDomainEntity(
+							new AccountJpaEntity(accountId.getValue(), baseline.getVersion()),
+							activities.getOrDefault(accountId.getValue(), List.of()),
+							baseline.getWithdrawalBalance(),
+							baseline.getAmount()),
+					baseline.getVersion()));
+		}
+		return accounts;
+	}
 
+	@Override
+	public Set<AccountId> loadExistingAccountIds(Collection<AccountId> accountIds) {
+		Set<Long> ids = accountIds.stream()
+				.map(AccountId::getValue)
+				.collect(Collectors.toSet());
+		return accountRepository.findExistingIds(ids).stream()
+				.map(AccountId::new)
+				.collect(Collectors.toSet());
+	}
+
+	@Override
+	public Money loadBalance(AccountId accountId) {
+		return accountRepository.loadBalance(accountId.getValue())
+				.map(Money::of)
+				.orElseThrow(EntityNotFoundException::new);
+	}
+
+	/**
+	 * Starts at the latest balance snapshot before the {@code maxActivities}-th latest activity, so that the
+	 * baseline balance is read from that snapshot instead of summed up over the history before the window.
+	 * <br>
+	 * That activity is looked for among the activities since the latest snapshot, then since ever older ones,
+	 * skipping twice as many snapshots each time. A busy account finds it after reading about one snapshot
+	 * interval of activities, however long its history is. Only the latest {@value #SEARCHED_SNAPSHOTS} snapshots
+	 * are searched; an account with fewer activities since the oldest of them reads its whole history, which is
+	 * then short or old enough to not matter.
+	 */
+	@Override
+	public Optional<LocalDateTime> loadWindowStart(AccountId accountId, int maxActivities) {
+		PageRequest nthLatest = PageRequest.of(maxActivities - 1, 1);
+		List<LocalDateTime> snapshots = balanceSnapshotRepository.findTimestampsLatestFirst(
+				accountId.getValue(), PageRequest.of(0, SEARCHED_SNAPSHOTS));
+		for (int skipped = 1; !snapshots.isEmpty(); skipped *= 2) {
+			int i = Math.min(skipped - 1, snapshots.size() - 1);
+			Optional<LocalDateTime> oldestInWindow = activityRepository
+					.findTimestampsSinceLatestFirst(accountId.getValue(), snapshots.get(i), nthLatest)
+					.stream()
+					.findFirst();
+			if (oldestInWindow.isPresent()) {
+				return oldestInWindow.map(oldest -> latestSnapshotUntil(snapshots, oldest).orElse(oldest));
+			}
+			if (i == snapshots.size() - 1) {
+				break;
+			}
+		}
+		return activityRepository.findTimestampsLatestFirst(accountId.getValue(), nthLatest)
+				.stream()
+				.findFirst();
 	}
 
-	private Long orZero(Long value){
-		return value == null ? 0L : value;
+	private static Optional<LocalDateTime> latestSnapshotUntil(
+			List<LocalDateTime> snapshotsLatestFirst,
+			LocalDateTime until) {
+		return snapshotsLatestFirst.stream()
+				.filter(snapshot -> !snapshot.isAfter(until))
+				.findFirst();
 	}
 
+	/**
+	 * Reads the activities with a forward-only cursor and hands each one on before reading the next, so memory
+	 * use does not depend on the length of the history. Must be called within a transaction.
+	 */
+	@Override
+	public void streamActivities(
+					AccountId accountId,
+					ActivityCursor after,
+					long limit,
+					Consumer<Activity> consumer) {
+		if (!accountRepository.existsById(accountId.getValue())) {
+			throw new EntityNotFoundException();
+		}
+		try (Stream<ActivityJpaEntity> activities = after == null
+				? activityRepository.streamByOwner(accountId.getValue())
+				: activityRepository.streamByOwnerAfter(
+						accountId.getValue(),
+						after.getTimestamp(),
+						after.getActivityId().getValue())) {
+			activities.limit(limit)
+					.map(accountMapper::mapToDomainEntity)
+					.forEach(consumer);
+		}
+	}
 
+	/**
+	 * New activities are only queued here. Hibernate writes them as one JDBC batch when the surrounding
+	 * transaction flushes, so all activities of a use case end up in the same batch.
+	 * <br>
+	 * The version of the account is incremented right away. If the account was loaded in this transaction and
+	 * its version changed since, an {@link OptimisticLockingFailureException} is thrown and nothing is written.
+	 * The same happens if a new activity is older than the latest balance snapshot of the account.
+	 */
 	@Override
 	public void updateActivities(Account account) {
+		insertNewActivities(account);
+	}
+
+	/**
+	 * Queues the new activities of the given account for insertion, like {@link #updateActivities(Account)}.
+	 * @return the new activities with the IDs they were assigned
+	 */
+	List<Activity> insertNewActivities(Account account) {
+		List<ActivityJpaEntity> newActivities = new ArrayList<>();
 		for (Activity activity : account.getActivityWindow().getActivities()) {
 			if (activity.getId() == null) {
-				activityRepository.save(accountMapper.mapToJpaEntity(activity));
+				newActivities.add(accountMapper.mapToJpaEntity(activity));
 			}
 		}
+		if (newActivities.isEmpty()) {
+			return List.of();
+		}
+		account.getId().ifPresent(accountId -> {
+			incrementVersion(accountId);
+			rejectActivitiesBeforeLatestSnapshot(accountId, newActivities);
+		});
+		List<Activity> insertedActivities = new ArrayList<>(newActivities.size());
+		for (ActivityJpaEntity activity : activityRepository.saveAll(newActivities)) {
+			insertedActivities.add(accountMapper.mapToDomainEntity(activity));
+		}
+		return insertedActivities;
+	}
+
+	/**
+	 * An activity older than the latest balance snapshot of its account would not be counted by that snapshot.
+	 * The account row is locked by the version increment at this point, so no snapshot of the account can be taken
+	 * until this transaction ends, see {@link BalanceSnapshotter}.
+	 */
+	private void rejectActivitiesBeforeLatestSnapshot(AccountId accountId, List<ActivityJpaEntity> newActivities) {
+		Optional<LocalDateTime> latestSnapshot = balanceSnapshotRepository.findLatestTimestamp(accountId.getValue());
+		if (latestSnapshot.isEmpty()) {
+			return;
+		}
+		for (ActivityJpaEntity activity : newActivities) {
+			if (activity.getTimestamp().isBefore(latestSnapshot.get())) {
+				throw new OptimisticLockingFailureException(String.format(
+						"activity of account %d at %s is older than its latest balance snapshot at %s",
+						accountId.getValue(), activity.getTimestamp(), latestSnapshot.get()));
+			}
+		}
+	}
+
+	private void incrementVersion(AccountId accountId) {
+		Long expectedVersion = AccountVersions.expected(accountId);
+		if (expectedVersion == null) {
+			accountRepository.incrementVersion(accountId.getValue());
+			return;
+		}
+		if (accountRepository.incrementVersion(accountId.getValue(), expectedVersion) == 0) {
+			throw new OptimisticLockingFailureException(String.format(
+					"account %d was changed concurrently, expected version %d",
+					accountId.getValue(), expectedVersion));
+		}
+		AccountVersions.updated(accountId, expectedVersion + 1);
 	}
 
 }
@@ -0,0 +1,71 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Remembers, for the current transaction, which version each account had when it was first loaded.
+ * {@link AccountPersistenceAdapter#updateActivities} only writes if the account still has that version, so that
+ * a transfer never commits on top of a balance that was changed after it was read.
+ * <br>
+ * Outside of a transaction nothing is remembered and no versions are checked.
+ */
+final class AccountVersions {
+
+	private static final Object RESOURCE_KEY = AccountVersions.class;
+
+	private AccountVersions() {
+	}
+
+	/**
+	 * Remembers the version an account was loaded with, unless it was loaded before in this transaction.
+	 */
+	static void loaded(AccountId accountId, long version) {
+		Map<AccountId, Long> versions = current();
+		if (versions != null) {
+			versions.putIfAbsent(accountId, version);
+		}
+	}
+
+	/**
+	 * Remembers the version an account was updated to in this transaction.
+	 */
+	static void updated(AccountId accountId, long version) {
+		Map<AccountId, Long> versions = current();
+		if (versions != null) {
+			versions.put(accountId, version);
+		}
+	}
+
+	/**
+	 * @return the version the account is expected to have in the database, or {@code null} if it is unknown
+	 */
+	static Long expected(AccountId accountId) {
+		Map<AccountId, Long> versions = current();
+		return versions == null ? null : versions.get(accountId);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<AccountId, Long> current() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+		Map<AccountId, Long> versions = (Map<AccountId, Long>) TransactionSynchronizationManager.getResource(RESOURCE_KEY);
+		if (versions == null) {
+			versions = new HashMap<>();
+			TransactionSynchronizationManager.bindResource(RESOURCE_KEY, versions);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(RESOURCE_KEY);
+				}
+			});
+		}
+		return versions;
+	}
+
+}
@@ -3,7 +3,9 @@ package io.reflectoring.buckpal.account.adapter.out.persistence;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 import java.time.LocalDateTime;
@@ -19,8 +21,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 class ActivityJpaEntity {
 
+	/**
+	 * Drawn from a pooled sequence so that Hibernate can hand out IDs without a round trip per insert
+	 * and batch the inserts of new activities.
+	 */
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_sequence")
+	@SequenceGenerator(name = "activity_sequence", sequenceName = "activity_sequence", allocationSize = 50)
 	private Long id;
 
 	@Column
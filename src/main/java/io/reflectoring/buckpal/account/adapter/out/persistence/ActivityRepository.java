@@ -1,14 +1,52 @@
 package io.reflectoring.buckpal.account.adapter.out.persistence;
 
+import javax.persistence.QueryHint;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 interface ActivityRepository extends JpaRepository<ActivityJpaEntity, Long> {
 
+	/**
+	 * Streams all activities of the owner, ordered by timestamp and ID, through a forward-only cursor.
+	 * The activities are created by a constructor expression and not managed by the persistence context,
+	 * so that the stream does not fill it up. Must be read within a transaction.
+	 */
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	@Query("select new io.reflectoring.buckpal.account.adapter.out.persistence.ActivityJpaEntity(" +
+			"a.id, a.timestamp, a.ownerAccountId, a.sourceAccountId, a.targetAccountId, a.amount) " +
+			"from ActivityJpaEntity a " +
+			"where a.ownerAccountId = :ownerAccountId " +
+			"order by a.timestamp, a.id")
+	Stream<ActivityJpaEntity> streamByOwner(
+			@Param("ownerAccountId") Long ownerAccountId);
+
+	/**
+	 * Streams the activities of the owner after the given timestamp and ID, like {@link #streamByOwner(Long)}.
+	 * The redundant lower bound on the timestamp lets the database seek the owner and timestamp index to the
+	 * cursor; the {@code or} alone would make it read the whole history of the owner for every page.
+	 */
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	@Query("select new io.reflectoring.buckpal.account.adapter.out.persistence.ActivityJpaEntity(" +
+			"a.id, a.timestamp, a.ownerAccountId, a.sourceAccountId, a.targetAccountId, a.amount) " +
+			"from ActivityJpaEntity a " +
+			"where a.ownerAccountId = :ownerAccountId " +
+			"and a.timestamp >= :afterTimestamp " +
+			"and (a.timestamp > :afterTimestamp " +
+			"or (a.timestamp = :afterTimestamp and a.id > :afterId)) " +
+			"order by a.timestamp, a.id")
+	Stream<ActivityJpaEntity> streamByOwnerAfter(
+			@Param("ownerAccountId") Long ownerAccountId,
+			@Param("afterTimestamp") LocalDateTime afterTimestamp,
+			@Param("afterId") Long afterId);
+
 	@Query("select a from ActivityJpaEntity a " +
 			"where a.ownerAccountId = :ownerAccountId " +
 			"and a.timestamp >= :since")
@@ -16,6 +54,30 @@ interface ActivityRepository extends JpaRepository<ActivityJpaEntity, Long> {
 			@Param("ownerAccountId") Long ownerAccountId,
 			@Param("since") LocalDateTime since);
 
+	/**
+	 * The timestamps of the activities of the owner since the given time, latest first. The database reads all
+	 * activities in that range before it can skip to the n-th latest, so the range should be kept short.
+	 */
+	@Query("select a.timestamp from ActivityJpaEntity a " +
+			"where a.ownerAccountId = :ownerAccountId " +
+			"and a.timestamp >= :since " +
+			"order by a.timestamp desc")
+	List<LocalDateTime> findTimestampsSinceLatestFirst(
+			@Param("ownerAccountId") Long ownerAccountId,
+			@Param("since") LocalDateTime since,
+			Pageable pageable);
+
+	/**
+	 * The timestamps of all activities of the owner, latest first. Reads the whole history of the owner, see
+	 * {@link #findTimestampsSinceLatestFirst(Long, LocalDateTime, Pageable)}.
+	 */
+	@Query("select a.timestamp from ActivityJpaEntity a " +
+			"where a.ownerAccountId = :ownerAccountId " +
+			"order by a.timestamp desc")
+	List<LocalDateTime> findTimestampsLatestFirst(
+			@Param("ownerAccountId") Long ownerAccountId,
+			Pageable pageable);
+
 	@Query("select sum(a.amount) from ActivityJpaEntity a " +
 			"where a.targetAccountId = :accountId " +
 			"and a.ownerAccountId = :accountId " +
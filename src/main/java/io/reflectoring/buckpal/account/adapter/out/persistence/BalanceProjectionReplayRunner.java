@@ -0,0 +1,29 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds all balance projections from the activities when the application is started in ledger mode with
+ * {@code --replay-balance-projections}.
+ */
+@Component
+@Profile("ledger")
+@RequiredArgsConstructor
+class BalanceProjectionReplayRunner implements ApplicationRunner {
+
+	static final String OPTION = "replay-balance-projections";
+
+	private final BalanceProjectionReplayer balanceProjectionReplayer;
+
+	@Override
+	public void run(ApplicationArguments args) throws InterruptedException {
+		if (args.containsOption(OPTION)) {
+			balanceProjectionReplayer.replay();
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rebuilds the balance projections of the ledger mode from the activities. The projections are seeded by the
+ * migration and for new accounts, so the replay only repairs drift, e.g. from activities added while running
+ * without the {@code ledger} profile.
+ * <br>
+ * The accounts are split into {@link LedgerProperties#getReplayPartitions()} partitions by account ID, which are
+ * replayed in parallel. Each partition deletes and rebuilds its projections in its own transaction, so a failed
+ * replay leaves every partition either rebuilt or untouched, and can simply be run again.
+ * <br>
+ * A transfer committing while its partition is replayed could be counted twice or not at all. The replay is
+ * meant to run while no transfers are processed, e.g. right after switching the {@code ledger} profile back on.
+ */
+@Slf4j
+@Component
+@Profile("ledger")
+class BalanceProjectionReplayer {
+
+	private final AccountBalanceRepository accountBalanceRepository;
+	private final LedgerProperties ledgerProperties;
+	private final TransactionTemplate transactionTemplate;
+
+	BalanceProjectionReplayer(
+			AccountBalanceRepository accountBalanceRepository,
+			LedgerProperties ledgerProperties,
+			PlatformTransactionManager transactionManager) {
+		this.accountBalanceRepository = accountBalanceRepository;
+		this.ledgerProperties = ledgerProperties;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * @return the number of projections rebuilt
+	 */
+	public int replay() throws InterruptedException {
+		int partitions = ledgerProperties.getReplayPartitions();
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(partitions, runnable ->
+				new Thread(runnable, "projection-replay-" + threadNumber.incrementAndGet()));
+		try {
+			List<Callable<Integer>> replays = new ArrayList<>(partitions);
+			for (int i = 0; i < partitions; i++) {
+				int partition = i;
+				replays.add(() -> replayPartition(partitions, partition));
+			}
+			int rebuilt = 0;
+			for (Future<Integer> replayed : executor.invokeAll(replays)) {
+				rebuilt += replayed.get();
+			}
+			log.info("Replayed {} balance projections in {} partitions", rebuilt, partitions);
+			return rebuilt;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("failed to replay balance projections", e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private int replayPartition(int partitions, int partition) {
+		return transactionTemplate.execute(status -> {
+			accountBalanceRepository.deletePartition(partitions, partition);
+			return accountBalanceRepository.insertPartition(partitions, partition);
+		});
+	}
+
+}
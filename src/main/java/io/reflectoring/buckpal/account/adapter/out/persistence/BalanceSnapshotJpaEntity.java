@@ -0,0 +1,52 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The deposit and withdrawal sums of all activities of an account that happened before {@link #timestamp}.
+ */
+@Entity
+@Table(name = "balance_snapshot")
+@IdClass(BalanceSnapshotJpaEntity.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class BalanceSnapshotJpaEntity {
+
+	@Id
+	private Long accountId;
+
+	@Id
+	private LocalDateTime timestamp;
+
+	@Column
+	private Long depositBalance;
+
+	@Column
+	private Long withdrawalBalance;
+
+	@Data
+	@AllArgsConstructor
+	@NoArgsConstructor
+	static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Long accountId;
+
+		private LocalDateTime timestamp;
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the balance snapshots taken by the persistence adapter.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceSnapshotProperties {
+
+	/**
+	 * How often the snapshots are rolled forward.
+	 */
+	private Duration interval = Duration.ofHours(1);
+
+	/**
+	 * How far in the past snapshots are taken. Activities older than an account's latest snapshot are rejected,
+	 * so the lag should exceed the time between timestamping and committing an activity.
+	 */
+	private Duration lag = Duration.ofMinutes(10);
+
+	/**
+	 * How long superseded snapshots are kept for loading accounts with an older baseline date.
+	 */
+	private Duration retention = Duration.ofDays(30);
+
+	/**
+	 * How many accounts are locked and snapshotted together in one transaction.
+	 */
+	private int chunkSize = 1000;
+
+}
@@ -0,0 +1,27 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds all balance snapshots from scratch when the application is started with
+ * {@code --rebuild-balance-snapshots}.
+ */
+@Component
+@RequiredArgsConstructor
+class BalanceSnapshotRebuildRunner implements ApplicationRunner {
+
+	static final String OPTION = "rebuild-balance-snapshots";
+
+	private final BalanceSnapshotter balanceSnapshotter;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (args.containsOption(OPTION)) {
+			balanceSnapshotter.rebuild();
+		}
+	}
+
+}
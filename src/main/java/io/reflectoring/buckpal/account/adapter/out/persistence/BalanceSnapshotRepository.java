@@ -0,0 +1,96 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshotJpaEntity, BalanceSnapshotJpaEntity.Key> {
+
+	/**
+	 * Locks the rows of up to {@code limit} accounts with an ID of at least {@code fromId}. Adding activities to an
+	 * account locks its row as well (by incrementing its version), so while the lock is held, no activity of these
+	 * accounts can be added or be pending uncommitted.
+	 * @return the IDs of the locked accounts in ascending order
+	 */
+	@Query(value = "select id from account " +
+			"where id >= :fromId " +
+			"order by id " +
+			"limit :limit " +
+			"for update",
+			nativeQuery = true)
+	List<Long> lockAccountsFrom(
+			@Param("fromId") Long fromId,
+			@Param("limit") int limit);
+
+	/**
+	 * Adds a snapshot at {@code until} for every account with an ID between {@code fromId} and {@code toId} by
+	 * adding the activities since the account's latest snapshot (or since the beginning, if there is none) to
+	 * that snapshot. An account without activities since then keeps its latest snapshot, which still holds its
+	 * balance; the inner join on the activities leaves it out. The accounts should be locked, see
+	 * {@link #lockAccountsFrom(Long, int)}.
+	 * @return the number of snapshots taken
+	 */
+	@Modifying
+	@Query(value = "insert into balance_snapshot (account_id, timestamp, deposit_balance, withdrawal_balance) " +
+			"select acc.id, :until, " +
+			"coalesce(max(snap.deposit_balance), 0) " +
+			"+ coalesce(sum(case when act.target_account_id = acc.id then act.amount end), 0), " +
+			"coalesce(max(snap.withdrawal_balance), 0) " +
+			"+ coalesce(sum(case when act.source_account_id = acc.id then act.amount end), 0) " +
+			"from account acc " +
+			"left join balance_snapshot snap " +
+			"on snap.account_id = acc.id " +
+			"and snap.timestamp = (select max(s.timestamp) from balance_snapshot s " +
+			"where s.account_id = acc.id and s.timestamp < :until) " +
+			"join activity act " +
+			"on act.owner_account_id = acc.id " +
+			"and act.timestamp < :until " +
+			"and act.timestamp >= coalesce(snap.timestamp, timestamp '0001-01-01 00:00:00') " +
+			"where acc.id between :fromId and :toId " +
+			"and not exists (select 1 from balance_snapshot e " +
+			"where e.account_id = acc.id and e.timestamp >= :until) " +
+			"group by acc.id",
+			nativeQuery = true)
+	int rollForwardTo(
+			@Param("until") LocalDateTime until,
+			@Param("fromId") Long fromId,
+			@Param("toId") Long toId);
+
+	/**
+	 * Deletes all snapshots taken before {@code before}, except each account's latest one.
+	 */
+	@Modifying
+	@Query(value = "delete from balance_snapshot snap " +
+			"where snap.timestamp < :before " +
+			"and snap.timestamp < (select max(s.timestamp) from balance_snapshot s " +
+			"where s.account_id = snap.account_id)",
+			nativeQuery = true)
+	int deleteOlderThan(@Param("before") LocalDateTime before);
+
+	/**
+	 * The times of the snapshots of the account, latest first. An account gets a snapshot per interval with
+	 * activities, up to the retention period, so a busy account has hundreds; page through them.
+	 */
+	@Query("select s.timestamp from BalanceSnapshotJpaEntity s " +
+			"where s.accountId = :accountId " +
+			"order by s.timestamp desc")
+	List<LocalDateTime> findTimestampsLatestFirst(@Param("accountId") Long accountId, Pageable pageable);
+
+	/**
+	 * @return the time of the latest snapshot of the account, if there is one
+	 */
+	@Query("select max(s.timestamp) from BalanceSnapshotJpaEntity s " +
+			"where s.accountId = :accountId")
+	Optional<LocalDateTime> findLatestTimestamp(@Param("accountId") Long accountId);
+
+	@Modifying
+	@Query(value = "delete from balance_snapshot", nativeQuery = true)
+	void deleteAllSnapshots();
+
+}
@@ -0,0 +1,86 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the {@code balance_snapshot} table rolled forward, so that loading an account only has to sum up
+ * the activities since its latest snapshot instead of its whole history.
+ * <br>
+ * An activity is timestamped before its transaction commits, so it could commit with a timestamp before a snapshot
+ * that was taken in the meantime, and would never be counted. Two things prevent that: the accounts are
+ * snapshotted in chunks of {@link BalanceSnapshotProperties#getChunkSize()}, each one with the account rows locked,
+ * so that a snapshot waits for the pending activities of its accounts; and the persistence adapter rejects an
+ * activity older than the latest snapshot of its account, so that the transfer is retried with a new timestamp.
+ * Snapshots are only taken up to {@link BalanceSnapshotProperties#getLag()} in the past to keep such retries rare.
+ */
+@Slf4j
+@Component
+class BalanceSnapshotter {
+
+	private final BalanceSnapshotRepository balanceSnapshotRepository;
+	private final BalanceSnapshotProperties balanceSnapshotProperties;
+	private final TransactionTemplate transactionTemplate;
+
+	BalanceSnapshotter(
+			BalanceSnapshotRepository balanceSnapshotRepository,
+			BalanceSnapshotProperties balanceSnapshotProperties,
+			PlatformTransactionManager transactionManager) {
+		this.balanceSnapshotRepository = balanceSnapshotRepository;
+		this.balanceSnapshotProperties = balanceSnapshotProperties;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Scheduled(
+			initialDelayString = "#{@balanceSnapshotProperties.interval.toMillis()}",
+			fixedDelayString = "#{@balanceSnapshotProperties.interval.toMillis()}")
+	public void rollForward() {
+		LocalDateTime until = LocalDateTime.now().minus(balanceSnapshotProperties.getLag());
+		int taken = rollForwardTo(until);
+		int deleted = transactionTemplate.execute(status -> balanceSnapshotRepository.deleteOlderThan(
+				until.minus(balanceSnapshotProperties.getRetention())));
+		log.info("Took {} balance snapshots at {}, deleted {} outdated ones", taken, until, deleted);
+	}
+
+	/**
+	 * Throws away all snapshots and takes new ones from the full activity history.
+	 */
+	public void rebuild() {
+		transactionTemplate.executeWithoutResult(status -> balanceSnapshotRepository.deleteAllSnapshots());
+		LocalDateTime until = LocalDateTime.now().minus(balanceSnapshotProperties.getLag());
+		int taken = rollForwardTo(until);
+		log.info("Rebuilt {} balance snapshots at {}", taken, until);
+	}
+
+	private int rollForwardTo(LocalDateTime until) {
+		int taken = 0;
+		long fromId = Long.MIN_VALUE;
+		while (true) {
+			long chunkStart = fromId;
+			long[] chunk = transactionTemplate.execute(status -> {
+				List<Long> locked = balanceSnapshotRepository.lockAccountsFrom(
+						chunkStart, balanceSnapshotProperties.getChunkSize());
+				if (locked.isEmpty()) {
+					return null;
+				}
+				long chunkEnd = locked.get(locked.size() - 1);
+				return new long[]{chunkEnd, balanceSnapshotRepository.rollForwardTo(until, chunkStart, chunkEnd)};
+			});
+			if (chunk == null) {
+				return taken;
+			}
+			taken += chunk[1];
+			if (chunk[0] == Long.MAX_VALUE) {
+				return taken;
+			}
+			fromId = chunk[0] + 1;
+		}
+	}
+
+}
@@ -0,0 +1,317 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountBalancePort;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.UpdateAccountStatePort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.PersistenceAdapter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps recently used accounts in memory in front of the {@link AccountPersistenceAdapter}.
+ * <br>
+ * The cache is bounded in size (W-TinyLFU eviction) and every account expires a fixed time after it was loaded.
+ * Instead of evicting an account on {@link #updateActivities(Account)}, its new activities are appended to the
+ * cached activities once the transaction committed. A cached account can serve every baseline date that is not
+ * older than the one it was loaded with: activities before the requested baseline date are folded into the
+ * baseline balance. The current balance of a cached account is kept up to date as well, for
+ * {@link #loadBalance(AccountId)}. Cached accounts keep the version they were loaded with, so that
+ * {@link AccountVersions} can check it when the account is updated.
+ * <br>
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics with {@code cache=accounts}.
+ * <br>
+ * Not used in ledger mode, where {@link LedgerAccountPersistenceAdapter} loads an account from a single row.
+ */
+@PersistenceAdapter
+@Primary
+@Profile("!journal & !ledger")
+@ConditionalOnProperty(name = "buckpal.account-cache.enabled", havingValue = "true", matchIfMissing = true)
+class CachingAccountPersistenceAdapter implements
+		LoadAccountPort,
+		LoadAccountBalancePort,
+		UpdateAccountStatePort {
+
+	private static final int GENERATION_STRIPES = 1024;
+
+	private final AccountPersistenceAdapter delegate;
+
+	private final Cache<AccountId, CachedAccount> cache;
+
+	/**
+	 * Counts the writes per stripe of accounts. An account loaded from the database is only put into the cache if
+	 * no write happened to its stripe in the meantime, otherwise a load racing with a commit could cache stale data.
+	 */
+	private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+	CachingAccountPersistenceAdapter(
+			AccountPersistenceAdapter delegate,
+			AccountCacheProperties properties,
+			MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		long timeToLive = properties.getTimeToLive().toNanos();
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumSize())
+				.expireAfter(new Expiry<AccountId, CachedAccount>() {
+					@Override
+					public long expireAfterCreate(AccountId key, CachedAccount value, long currentTime) {
+						return timeToLive;
+					}
+
+					@Override
+					public long expireAfterUpdate(AccountId key, CachedAccount value, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+
+					@Override
+					public long expireAfterRead(AccountId key, CachedAccount value, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts");
+	}
+
+	@Override
+	public Account loadAccount(
+					AccountId accountId,
+					LocalDateTime baselineDate) {
+		return loadAccounts(List.of(accountId), baselineDate).get(0);
+	}
+
+	@Override
+	public List<Account> loadAccounts(
+					List<AccountId> accountIds,
+					LocalDateTime baselineDate) {
+
+		Map<AccountId, CachedAccount> snapshots = new HashMap<>();
+		List<AccountId> misses = new ArrayList<>();
+		for (AccountId accountId : accountIds) {
+			if (snapshots.containsKey(accountId) || misses.contains(accountId)) {
+				continue;
+			}
+			CachedAccount cached = cache.getIfPresent(accountId);
+			if (cached != null && !cached.baselineDate.isAfter(baselineDate)) {
+				snapshots.put(accountId, cached);
+			} else {
+				misses.add(accountId);
+			}
+		}
+
+		if (!misses.isEmpty()) {
+			long[] generationsBeforeLoad = new long[misses.size()];
+			for (int i = 0; i < misses.size(); i++) {
+				generationsBeforeLoad[i] = generations.get(stripeOf(misses.get(i)));
+			}
+			List<VersionedAccount> loaded = delegate.loadVersionedAccounts(misses, baselineDate);
+			for (int i = 0; i < misses.size(); i++) {
+				CachedAccount fresh = new CachedAccount(baselineDate, loaded.get(i));
+				long generationBeforeLoad = generationsBeforeLoad[i];
+				cache.asMap().compute(misses.get(i), (id, existing) ->
+						generations.get(stripeOf(id)) == generationBeforeLoad ? fresh : existing);
+				snapshots.put(misses.get(i), fresh);
+			}
+		}
+
+		// every returned Account must be independent, even if the same ID was requested twice
+		List<Account> accounts = new ArrayList<>(accountIds.size());
+		for (AccountId accountId : accountIds) {
+			AccountVersions.loaded(accountId, snapshots.get(accountId).version);
+			accounts.add(rebase(accountId, snapshots.get(accountId), baselineDate));
+		}
+		return accounts;
+	}
+
+	/**
+	 * Answers from the cache if the account is cached. Otherwise asks the database, but does not cache the
+	 * account, since that would need loading its activities.
+	 */
+	@Override
+	public Money loadBalance(AccountId accountId) {
+		CachedAccount cached = cache.getIfPresent(accountId);
+		if (cached != null) {
+			return cached.balance;
+		}
+		return delegate.loadBalance(accountId);
+	}
+
+	/**
+	 * If the account was changed concurrently, it is evicted, so that a retry reads the current state from the
+	 * database.
+	 */
+	@Override
+	public void updateActivities(Account account) {
+		AccountId accountId = account.getId().orElseThrow(IllegalStateException::new);
+		List<Activity> insertedActivities;
+		try {
+			insertedActivities = delegate.insertNewActivities(account);
+		} catch (ConcurrencyFailureException e) {
+			invalidate(accountId);
+			throw e;
+		}
+		if (insertedActivities.isEmpty()) {
+			return;
+		}
+		Long version = AccountVersions.expected(accountId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					append(accountId, insertedActivities, version);
+				}
+			});
+		} else {
+			append(accountId, insertedActivities, version);
+		}
+	}
+
+	/**
+	 * Appends the activities to the cached account, or evicts it if its new version is not known because it was
+	 * updated outside of a transaction.
+	 */
+	private void append(AccountId accountId, List<Activity> activities, Long version) {
+		cache.asMap().compute(accountId, (id, cached) -> {
+			generations.incrementAndGet(stripeOf(id));
+			return cached == null || version == null ? null : cached.append(id, activities, version);
+		});
+	}
+
+	private void invalidate(AccountId accountId) {
+		cache.asMap().compute(accountId, (id, cached) -> {
+			generations.incrementAndGet(stripeOf(id));
+			return null;
+		});
+	}
+
+	/**
+	 * Creates an independent {@link Account} for the given baseline date from a cached account, and compacts the
+	 * cached account to that baseline date.
+	 */
+	private Account rebase(AccountId accountId, CachedAccount cached, LocalDateTime baselineDate) {
+		CachedAccount rebased = cached.rebase(accountId, baselineDate);
+		if (rebased != cached) {
+			cache.asMap().replace(accountId, cached, rebased);
+		}
+		return Account.withId(
+				accountId,
+				rebased.baselineBalance,
+				new ActivityWindow(new ArrayList<>(rebased.activities)));
+	}
+
+	private static int stripeOf(AccountId accountId) {
+		return Math.floorMod(accountId.hashCode(), GENERATION_STRIPES);
+	}
+
+	/**
+	 * An immutable copy of an account. The activities are sorted by timestamp.
+	 */
+	private static class CachedAccount {
+
+		private final LocalDateTime baselineDate;
+
+		private final Money baselineBalance;
+
+		private final List<Activity> activities;
+
+		private final Money balance;
+
+		private final long version;
+
+		CachedAccount(LocalDateTime baselineDate, VersionedAccount versionedAccount) {
+			Account account = versionedAccount.getAccount();
+			List<Activity> activities = new ArrayList<>(account.getActivityWindow().getActivities());
+			activities.sort((a, b) -> a.getTimestamp().compareTo(b.getTimestamp()));
+			this.baselineDate = baselineDate;
+			this.baselineBalance = account.getBaselineBalance();
+			this.activities = Collections.unmodifiableList(activities);
+			this.balance = account.calculateBalance();
+			this.version = versionedAccount.getVersion();
+		}
+
+		private CachedAccount(
+				LocalDateTime baselineDate,
+				Money baselineBalance,
+				List<Activity> activities,
+				Money balance,
+				long version) {
+			this.baselineDate = baselineDate;
+			this.baselineBalance = baselineBalance;
+			this.activities = Collections.unmodifiableList(activities);
+			this.balance = balance;
+			this.version = version;
+		}
+
+		CachedAccount rebase(AccountId accountId, LocalDateTime newBaselineDate) {
+			int firstKept = 0;
+			while (firstKept < activities.size() && activities.get(firstKept).getTimestamp().isBefore(newBaselineDate)) {
+				firstKept++;
+			}
+			if (firstKept == 0) {
+				return this;
+			}
+			Money folded = new ActivityWindow(new ArrayList<>(activities.subList(0, firstKept)))
+					.calculateBalance(accountId);
+			return new CachedAccount(
+					newBaselineDate,
+					Money.add(baselineBalance, folded),
+					new ArrayList<>(activities.subList(firstKept, activities.size())),
+					balance,
+					version);
+		}
+
+		/**
+		 * Adds the given activities in timestamp order, skipping those that are already cached because the account
+		 * was loaded after they were committed.
+		 */
+		CachedAccount append(AccountId accountId, List<Activity> newActivities, long newVersion) {
+			List<Activity> appended = new ArrayList<>(activities.size() + newActivities.size());
+			appended.addAll(activities);
+			ActivityWindow added = new ActivityWindow();
+			for (Activity activity : newActivities) {
+				int position = appended.size();
+				boolean cached = false;
+				while (position > 0 && !appended.get(position - 1).getTimestamp().isBefore(activity.getTimestamp())) {
+					if (appended.get(position - 1).getId().equals(activity.getId())) {
+						cached = true;
+						break;
+					}
+					position--;
+				}
+				if (!cached) {
+					appended.add(position, activity);
+					added.addActivity(activity);
+				}
+			}
+			return new CachedAccount(
+					baselineDate,
+					baselineBalance,
+					appended,
+					Money.add(balance, added.calculateBalance(accountId)),
+					Math.max(version, newVersion));
+		}
+
+	}
+
+}
@@ -0,0 +1,217 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded hash table of the recently recorded idempotency keys and their outcomes, kept outside of the heap in a
+ * direct {@link ByteBuffer}, so that it neither adds objects per key nor grows the old generation.
+ * <br>
+ * A key is not stored itself but as a 128-bit fingerprint: two 64-bit hashes of its characters with different seeds
+ * and multipliers.
+ * Each slot holds the fingerprint, the time the key was recorded (epoch milliseconds) and the code of its outcome.
+ * A fingerprint maps to a bucket of {@link #BUCKET_SLOTS} adjacent slots. If all slots of the bucket hold keys that
+ * have not expired, the oldest of them is overwritten, and the index is no longer complete for the time to live
+ * of that key: see {@link #isComplete(long)}.
+ */
+class IdempotencyKeyIndex {
+
+	/**
+	 * Returned by {@link #lookup(String, long)} if the key is not in the index.
+	 */
+	static final int MISSING = -1;
+
+	/**
+	 * The outcome of a key that is known to be recorded, but not with which outcome: it has to be read from the
+	 * database.
+	 */
+	static final int UNKNOWN = -2;
+
+	private static final int SLOT_SIZE = 32;
+
+	private static final int FINGERPRINT_LOW = 0;
+
+	private static final int FINGERPRINT_HIGH = 8;
+
+	private static final int RECORDED_AT = 16;
+
+	private static final int OUTCOME = 24;
+
+	private static final int BUCKET_SLOTS = 8;
+
+	private static final int LOCK_STRIPES = 64;
+
+	private static final int MAX_CAPACITY = 1 << 25;
+
+	private final ByteBuffer slots;
+
+	private final int bucketMask;
+
+	private final long timeToLive;
+
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private final List<String> outcomes = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Every key recorded at or after this time (epoch milliseconds) is in the index. An empty index is complete;
+	 * whoever fills it with keys recorded before declares from when on it is complete with {@link #completeSince(long)}.
+	 */
+	private final AtomicLong completeSince = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * @param capacity the number of keys, rounded up to a power of two and to at least one bucket
+	 * @param timeToLive how long a key is kept, in milliseconds
+	 */
+	IdempotencyKeyIndex(int capacity, long timeToLive) {
+		if (capacity < 1 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("expected a capacity between 1 and " + MAX_CAPACITY + " but got " + capacity);
+		}
+		int buckets = 1;
+		while (buckets * BUCKET_SLOTS < capacity) {
+			buckets <<= 1;
+		}
+		this.slots = ByteBuffer.allocateDirect(buckets * BUCKET_SLOTS * SLOT_SIZE);
+		this.bucketMask = buckets - 1;
+		this.timeToLive = timeToLive;
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	int capacity() {
+		return (bucketMask + 1) * BUCKET_SLOTS;
+	}
+
+	/**
+	 * @return the code of the key's outcome (see {@link #outcomeOf(int)}), {@link #UNKNOWN} or {@link #MISSING}
+	 */
+	int lookup(String key, long now) {
+		long low = hash(key, 0xcbf29ce484222325L, 0x100000001b3L);
+		long high = hash(key, 0x9e3779b97f4a7c15L, 0xff51afd7ed558ccdL);
+		int bucket = (int) low & bucketMask;
+		synchronized (locks[bucket & (LOCK_STRIPES - 1)]) {
+			int slot = find(bucket, low, high);
+			if (slot < 0 || isExpired(slots.getLong(slot + RECORDED_AT), now)) {
+				return MISSING;
+			}
+			return slots.getInt(slot + OUTCOME);
+		}
+	}
+
+	/**
+	 * Adds the key, or replaces its outcome if it is in the index already.
+	 * @param outcome the code of the outcome from {@link #codeOf(String)}, or {@link #UNKNOWN}
+	 */
+	void put(String key, long recordedAt, int outcome, long now) {
+		long low = hash(key, 0xcbf29ce484222325L, 0x100000001b3L);
+		long high = hash(key, 0x9e3779b97f4a7c15L, 0xff51afd7ed558ccdL);
+		int bucket = (int) low & bucketMask;
+		synchronized (locks[bucket & (LOCK_STRIPES - 1)]) {
+			int slot = find(bucket, low, high);
+			if (slot < 0) {
+				slot = victim(bucket, now);
+				long evicted = slots.getLong(slot + RECORDED_AT);
+				if (!isExpired(evicted, now)) {
+					completeSince.accumulateAndGet(evicted + 1, Math::max);
+				}
+				slots.putLong(slot + FINGERPRINT_LOW, low);
+				slots.putLong(slot + FINGERPRINT_HIGH, high);
+			}
+			slots.putLong(slot + RECORDED_AT, recordedAt);
+			slots.putInt(slot + OUTCOME, outcome);
+		}
+	}
+
+	/**
+	 * Tells whether a key that is not in the index can not have been recorded within the time to live either,
+	 * so that it need not be looked up in the database.
+	 */
+	boolean isComplete(long now) {
+		return completeSince.get() <= now - timeToLive;
+	}
+
+	/**
+	 * Declares that every key recorded at or after {@code since} has been put into the index.
+	 */
+	void completeSince(long since) {
+		completeSince.accumulateAndGet(since, Math::max);
+	}
+
+	/**
+	 * Outcomes are few distinct strings, so the index stores a small code per outcome instead.
+	 */
+	int codeOf(String outcome) {
+		int code = outcomes.indexOf(outcome);
+		if (code >= 0) {
+			return code;
+		}
+		synchronized (outcomes) {
+			code = outcomes.indexOf(outcome);
+			if (code < 0) {
+				outcomes.add(outcome);
+				code = outcomes.size() - 1;
+			}
+			return code;
+		}
+	}
+
+	String outcomeOf(int code) {
+		return outcomes.get(code);
+	}
+
+	private int find(int bucket, long low, long high) {
+		int first = bucket * BUCKET_SLOTS * SLOT_SIZE;
+		for (int slot = first; slot < first + BUCKET_SLOTS * SLOT_SIZE; slot += SLOT_SIZE) {
+			if (slots.getLong(slot + FINGERPRINT_LOW) == low
+					&& slots.getLong(slot + FINGERPRINT_HIGH) == high
+					&& slots.getLong(slot + RECORDED_AT) != 0L) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the first empty or expired slot of the bucket, or else the one with the oldest key
+	 */
+	private int victim(int bucket, long now) {
+		int first = bucket * BUCKET_SLOTS * SLOT_SIZE;
+		int oldest = first;
+		for (int slot = first; slot < first + BUCKET_SLOTS * SLOT_SIZE; slot += SLOT_SIZE) {
+			long recordedAt = slots.getLong(slot + RECORDED_AT);
+			if (isExpired(recordedAt, now)) {
+				return slot;
+			}
+			if (recordedAt < slots.getLong(oldest + RECORDED_AT)) {
+				oldest = slot;
+			}
+		}
+		return oldest;
+	}
+
+	private boolean isExpired(long recordedAt, long now) {
+		return recordedAt == 0L || recordedAt <= now - timeToLive;
+	}
+
+	/**
+	 * A multiplicative string hash followed by the finalizer of MurmurHash3, so that the low bits that pick the
+	 * bucket depend on all characters.
+	 */
+	private static long hash(String key, long seed, long multiplier) {
+		long hash = seed;
+		for (int i = 0; i < key.length(); i++) {
+			hash = (hash ^ key.charAt(i)) * multiplier;
+		}
+		hash ^= key.length();
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
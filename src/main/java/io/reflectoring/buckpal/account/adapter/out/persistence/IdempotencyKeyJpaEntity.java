@@ -0,0 +1,33 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a transfer, recorded under the idempotency key the client sent it with.
+ */
+@Entity
+@Table(name = "idempotency_key")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class IdempotencyKeyJpaEntity {
+
+	@Id
+	private String idempotencyKey;
+
+	@Column
+	private LocalDateTime recordedAt;
+
+	@Column
+	private String outcome;
+
+}
@@ -0,0 +1,146 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import io.reflectoring.buckpal.account.application.port.out.LoadTransferOutcomePort;
+import io.reflectoring.buckpal.account.application.port.out.RecordTransferOutcomePort;
+import io.reflectoring.buckpal.common.PersistenceAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records the outcomes of transfers under their idempotency keys in the {@code idempotency_key} table, with an
+ * {@link IdempotencyKeyIndex} in front of it.
+ * <br>
+ * On startup the keys recorded within the time to live are loaded into the index, the latest first. From then on
+ * a key is put into the index once the transaction that recorded it committed. As long as the index holds all keys
+ * of the time to live, looking up a key does not read the database, not even for a new key. The database is only
+ * asked for keys missing from an index that had to drop unexpired keys, and for keys found to be recorded
+ * concurrently: if another transaction, or another instance of this application, recorded the same key, the
+ * primary key rejects the second one and its transfer is rolled back and retried.
+ * <br>
+ * Expired keys are deleted from the database every {@link IdempotencyKeyProperties#getPurgeInterval()}.
+ */
+@Slf4j
+@PersistenceAdapter
+class IdempotencyKeyPersistenceAdapter implements
+		LoadTransferOutcomePort,
+		RecordTransferOutcomePort {
+
+	private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+	private final Duration timeToLive;
+
+	private final IdempotencyKeyIndex index;
+
+	IdempotencyKeyPersistenceAdapter(
+			IdempotencyKeyRepository idempotencyKeyRepository,
+			IdempotencyKeyProperties properties) {
+		this.idempotencyKeyRepository = idempotencyKeyRepository;
+		this.timeToLive = properties.getTimeToLive();
+		this.index = new IdempotencyKeyIndex(properties.getIndexCapacity(), timeToLive.toMillis());
+		loadRecentKeys();
+	}
+
+	@Override
+	public Optional<String> loadTransferOutcome(String idempotencyKey) {
+		LocalDateTime now = LocalDateTime.now();
+		int outcome = index.lookup(idempotencyKey, toEpochMillis(now));
+		if (outcome >= 0) {
+			return Optional.of(index.outcomeOf(outcome));
+		}
+		if (outcome == IdempotencyKeyIndex.MISSING && index.isComplete(toEpochMillis(now))) {
+			return Optional.empty();
+		}
+
+		Optional<IdempotencyKeyJpaEntity> recorded = idempotencyKeyRepository.findById(idempotencyKey);
+		if (recorded.isEmpty()) {
+			return Optional.empty();
+		}
+		if (!recorded.get().getRecordedAt().isAfter(now.minus(timeToLive))) {
+			// not purged yet, but it must not keep the key from being recorded again
+			idempotencyKeyRepository.delete(recorded.get());
+			return Optional.empty();
+		}
+		index.put(
+				idempotencyKey,
+				toEpochMillis(recorded.get().getRecordedAt()),
+				index.codeOf(recorded.get().getOutcome()),
+				toEpochMillis(now));
+		return Optional.of(recorded.get().getOutcome());
+	}
+
+	/**
+	 * If the key was recorded concurrently, it is marked in the index to be read from the database, so that the
+	 * retried transfer finds its outcome.
+	 */
+	@Override
+	public void recordTransferOutcome(String idempotencyKey, String outcome) {
+		LocalDateTime recordedAt = LocalDateTime.now();
+		try {
+			idempotencyKeyRepository.insert(idempotencyKey, recordedAt, outcome);
+		} catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+			index.put(idempotencyKey, toEpochMillis(recordedAt), IdempotencyKeyIndex.UNKNOWN, toEpochMillis(recordedAt));
+			throw new ConcurrencyFailureException(
+					"an outcome for idempotency key " + idempotencyKey + " was recorded concurrently", e);
+		}
+
+		int code = index.codeOf(outcome);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					index.put(idempotencyKey, toEpochMillis(recordedAt), code, toEpochMillis(LocalDateTime.now()));
+				}
+			});
+		} else {
+			index.put(idempotencyKey, toEpochMillis(recordedAt), code, toEpochMillis(LocalDateTime.now()));
+		}
+	}
+
+	@Scheduled(
+			initialDelayString = "#{@idempotencyKeyProperties.purgeInterval.toMillis()}",
+			fixedDelayString = "#{@idempotencyKeyProperties.purgeInterval.toMillis()}")
+	@Transactional
+	public void deleteExpiredKeys() {
+		int deleted = idempotencyKeyRepository.deleteRecordedBefore(LocalDateTime.now().minus(timeToLive));
+		log.info("Deleted {} expired idempotency keys", deleted);
+	}
+
+	/**
+	 * If there are more recent keys than fit into the index, only the latest ones are loaded, and the index is
+	 * complete only from the oldest loaded key on.
+	 */
+	private void loadRecentKeys() {
+		LocalDateTime now = LocalDateTime.now();
+		List<IdempotencyKeyJpaEntity> recent = idempotencyKeyRepository.findRecordedSince(
+				now.minus(timeToLive),
+				PageRequest.of(0, index.capacity()));
+		for (IdempotencyKeyJpaEntity key : recent) {
+			index.put(
+					key.getIdempotencyKey(),
+					toEpochMillis(key.getRecordedAt()),
+					index.codeOf(key.getOutcome()),
+					toEpochMillis(now));
+		}
+		if (recent.size() == index.capacity()) {
+			index.completeSince(toEpochMillis(recent.get(recent.size() - 1).getRecordedAt()) + 1);
+		}
+		log.info("Loaded {} recent idempotency keys", recent.size());
+	}
+
+	private static long toEpochMillis(LocalDateTime timestamp) {
+		return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+}
@@ -0,0 +1,34 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the idempotency keys recorded by the persistence adapter.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyKeyProperties {
+
+	/**
+	 * How long the outcome of a transfer is returned for retries with the same key.
+	 */
+	private Duration timeToLive = Duration.ofHours(24);
+
+	/**
+	 * How many keys the in-memory index holds at most, rounded up to a power of two. Each key takes 32 bytes
+	 * outside of the heap. If more keys are recorded within {@link #timeToLive}, the oldest ones are looked up in
+	 * the database.
+	 */
+	private int indexCapacity = 1 << 18;
+
+	/**
+	 * How often expired keys are deleted from the database.
+	 */
+	private Duration purgeInterval = Duration.ofHours(1);
+
+}
@@ -0,0 +1,41 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyJpaEntity, String> {
+
+	/**
+	 * Inserts the key right away instead of merging it like {@link #save(Object)}, so that a key that was
+	 * recorded concurrently fails on the primary key.
+	 */
+	@Modifying
+	@Query(value = "insert into idempotency_key (idempotency_key, recorded_at, outcome) " +
+			"values (:idempotencyKey, :recordedAt, :outcome)",
+			nativeQuery = true)
+	int insert(
+			@Param("idempotencyKey") String idempotencyKey,
+			@Param("recordedAt") LocalDateTime recordedAt,
+			@Param("outcome") String outcome);
+
+	/**
+	 * @return the keys recorded since {@code since}, the latest first
+	 */
+	@Query("select k from IdempotencyKeyJpaEntity k " +
+			"where k.recordedAt >= :since " +
+			"order by k.recordedAt desc")
+	List<IdempotencyKeyJpaEntity> findRecordedSince(
+			@Param("since") LocalDateTime since,
+			Pageable pageable);
+
+	@Modifying
+	@Query("delete from IdempotencyKeyJpaEntity k where k.recordedAt < :before")
+	int deleteRecordedBefore(@Param("before") LocalDateTime before);
+
+}
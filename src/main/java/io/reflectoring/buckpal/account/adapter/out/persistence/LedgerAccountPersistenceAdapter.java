@@ -0,0 +1,165 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import javax.persistence.EntityNotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountBalancePort;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.UpdateAccountStatePort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.PersistenceAdapter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The ledger mode: the activities are the single source of truth, and every account has a balance projection in
+ * the {@code account_balance} table that is updated in the same transaction as the activities are appended.
+ * Loading an account or its balance reads one projection row instead of adding up activities.
+ * <br>
+ * A loaded account has an empty activity window whatever the baseline date: its whole history is in the baseline
+ * balance. The activity history and the window start are still read from the activities by the
+ * {@link AccountPersistenceAdapter}, which also appends the activities and checks the account versions.
+ * <br>
+ * The projections of the accounts that exist when the schema is migrated are seeded by the migration. An account
+ * created later, which happens outside of this application, gets its projection when it is first loaded for a
+ * transfer; until then its balance is added up from the activities.
+ * <br>
+ * Activities written past this adapter, e.g. while running without the {@code ledger} profile, are not projected.
+ * Before switching the profile on again, the projections have to be rebuilt with {@link BalanceProjectionReplayer}.
+ * The reactive transfers write past it as well, so the {@link LedgerProfileGuard} refuses to start both profiles.
+ */
+@RequiredArgsConstructor
+@PersistenceAdapter
+@Primary
+@Profile("ledger")
+class LedgerAccountPersistenceAdapter implements
+		LoadAccountPort,
+		LoadAccountBalancePort,
+		UpdateAccountStatePort {
+
+	private final AccountPersistenceAdapter delegate;
+	private final AccountBalanceRepository accountBalanceRepository;
+
+	@Override
+	public Account loadAccount(
+					AccountId accountId,
+					LocalDateTime baselineDate) {
+		return loadAccounts(List.of(accountId), baselineDate).get(0);
+	}
+
+	/**
+	 * Seeds the projections of accounts that have none yet, so must be called within a transaction.
+	 */
+	@Override
+	public List<Account> loadAccounts(
+					List<AccountId> accountIds,
+					LocalDateTime baselineDate) {
+
+		Set<Long> ids = accountIds.stream()
+				.map(AccountId::getValue)
+				.collect(Collectors.toSet());
+
+		Map<Long, Object[]> rows = loadProjectedAccounts(ids);
+		List<Long> unprojected = rows.values().stream()
+				.filter(row -> row[2] == null)
+				.map(row -> ((Number) row[0]).longValue())
+				.collect(Collectors.toList());
+		if (!unprojected.isEmpty()) {
+			accountBalanceRepository.insertMissing(unprojected);
+			rows.putAll(loadProjectedAccounts(unprojected));
+		}
+
+		// every returned Account must be independent, even if the same ID was requested twice
+		List<Account> accounts = new ArrayList<>(accountIds.size());
+		for (AccountId accountId : accountIds) {
+			Object[] row = projectionOf(accountId, rows.get(accountId.getValue()));
+			AccountVersions.loaded(accountId, ((Number) row[1]).longValue());
+			accounts.add(Account.withId(
+					accountId,
+					Money.subtract(Money.of(((Number) row[2]).longValue()), Money.of(((Number) row[3]).longValue())),
+					new ActivityWindow()));
+		}
+		return accounts;
+	}
+
+	/**
+	 * Adds up the balance from the activities if the account has no projection yet, without seeding one: this may
+	 * run outside of a transaction.
+	 */
+	@Override
+	public Money loadBalance(AccountId accountId) {
+		Object[] row = loadProjectedAccounts(List.of(accountId.getValue())).get(accountId.getValue());
+		if (row == null) {
+			throw new EntityNotFoundException();
+		}
+		if (row[2] == null) {
+			return delegate.loadBalance(accountId);
+		}
+		return Money.subtract(Money.of(((Number) row[2]).longValue()), Money.of(((Number) row[3]).longValue()));
+	}
+
+	/**
+	 * Appends the new activities and adds them to the projection of the account. Must be called within a
+	 * transaction, so that both are committed together.
+	 */
+	@Override
+	public void updateActivities(Account account) {
+		List<Activity> insertedActivities = delegate.insertNewActivities(account);
+		if (insertedActivities.isEmpty()) {
+			return;
+		}
+		AccountId accountId = account.getId().orElseThrow(IllegalStateException::new);
+		long deposits = 0;
+		long withdrawals = 0;
+		for (Activity activity : insertedActivities) {
+			long amount = activity.getMoney().getAmount().longValueExact();
+			if (activity.getTargetAccountId().equals(accountId)) {
+				deposits += amount;
+			}
+			if (activity.getSourceAccountId().equals(accountId)) {
+				withdrawals += amount;
+			}
+		}
+		if (accountBalanceRepository.addToBalance(accountId.getValue(), deposits, withdrawals) == 0) {
+			throw missingProjection(accountId);
+		}
+	}
+
+	private Map<Long, Object[]> loadProjectedAccounts(Collection<Long> ids) {
+		Map<Long, Object[]> rows = new HashMap<>();
+		for (Object[] columns : accountBalanceRepository.loadProjectedAccounts(ids)) {
+			rows.put(((Number) columns[0]).longValue(), columns);
+		}
+		return rows;
+	}
+
+	private static Object[] projectionOf(AccountId accountId, Object[] row) {
+		if (row == null) {
+			throw new EntityNotFoundException();
+		}
+		if (row[2] == null) {
+			throw missingProjection(accountId);
+		}
+		return row;
+	}
+
+	private static IllegalStateException missingProjection(AccountId accountId) {
+		return new IllegalStateException(String.format(
+				"account %d has no balance projection, rebuild the projections with --%s",
+				accountId.getValue(), BalanceProjectionReplayRunner.OPTION));
+	}
+
+}
@@ -0,0 +1,25 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refuses to start the ledger mode together with the {@code reactive} profile. Reactive transfers append their
+ * activities with the {@code R2dbcAccountPersistenceAdapter}, past the {@link LedgerAccountPersistenceAdapter},
+ * so the balance projections would silently fall behind the activities.
+ * <br>
+ * As a bean factory post processor, it fails before any other bean is created.
+ */
+@Component
+@Profile("ledger & reactive")
+class LedgerProfileGuard implements BeanFactoryPostProcessor {
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+		throw new IllegalStateException("the ledger profile cannot be combined with the reactive profile: "
+				+ "reactive transfers do not update the balance projections");
+	}
+
+}
@@ -0,0 +1,21 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the balance projections of the ledger mode.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerProperties {
+
+	/**
+	 * Into how many partitions by account ID a replay splits the accounts. The partitions are replayed in
+	 * parallel, each in its own transaction.
+	 */
+	private int replayPartitions = 4;
+
+}
@@ -1,6 +1,102 @@
 package io.reflectoring.buckpal.account.adapter.out.persistence;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 interface SpringDataAccountRepository extends JpaRepository<AccountJpaEntity, Long> {
+
+	@Query("select a.id from AccountJpaEntity a where a.id in (:accountIds)")
+	List<Long> findExistingIds(@Param("accountIds") Collection<Long> accountIds);
+
+	/**
+	 * Loads the account rows, the baseline balances and the activities since the baseline date
+	 * of the given accounts in a single round trip.
+	 * The baseline balances start from the latest balance snapshot before the baseline date and only
+	 * add up the activities since that snapshot.
+	 * Both parts seek the owner and timestamp index per account with an exact timestamp range: an {@code or} in the
+	 * lower bound, or an {@code in} list on the owner, would make the database scan the whole history instead.
+	 * The columns are described by {@link AccountLoadingRow}.
+	 */
+	@Query(value = "select acc.id as accountId, " +
+			"cast(null as bigint) as activityId, " +
+			"cast(null as timestamp) as timestamp, " +
+			"cast(null as bigint) as sourceAccountId, " +
+			"cast(null as bigint) as targetAccountId, " +
+			"coalesce(max(snap.deposit_balance), 0) " +
+			"+ coalesce(sum(case when act.target_account_id = acc.id then act.amount end), 0) as amount, " +
+			"coalesce(max(snap.withdrawal_balance), 0) " +
+			"+ coalesce(sum(case when act.source_account_id = acc.id then act.amount end), 0) as withdrawalBalance, " +
+			"acc.version as version " +
+			"from account acc " +
+			"left join balance_snapshot snap " +
+			"on snap.account_id = acc.id " +
+			"and snap.timestamp = (select max(s.timestamp) from balance_snapshot s " +
+			"where s.account_id = acc.id and s.timestamp <= :baselineDate) " +
+			"left join activity act " +
+			"on act.owner_account_id = acc.id " +
+			"and act.timestamp < :baselineDate " +
+			"and act.timestamp >= coalesce(snap.timestamp, timestamp '0001-01-01 00:00:00') " +
+			"where acc.id in (:accountIds) " +
+			"group by acc.id, acc.version " +
+			"union all " +
+			"select act.owner_account_id, act.id, act.timestamp, act.source_account_id, " +
+			"act.target_account_id, act.amount, cast(null as bigint), cast(null as bigint) " +
+			"from account acc " +
+			"join activity act " +
+			"on act.owner_account_id = acc.id " +
+			"and act.timestamp >= :baselineDate " +
+			"where acc.id in (:accountIds)",
+			nativeQuery = true)
+	List<Object[]> loadAccountsWithActivitiesSince(
+			@Param("accountIds") Collection<Long> accountIds,
+			@Param("baselineDate") LocalDateTime baselineDate);
+
+	/**
+	 * Adds up the current balance of the given account in the database: the latest balance snapshot plus
+	 * the activities since that snapshot.
+	 * @return the balance, or nothing if there is no such account
+	 */
+	@Query(value = "select coalesce(max(snap.deposit_balance), 0) " +
+			"+ coalesce(sum(case when act.target_account_id = acc.id then act.amount end), 0) " +
+			"- coalesce(max(snap.withdrawal_balance), 0) " +
+			"- coalesce(sum(case when act.source_account_id = acc.id then act.amount end), 0) " +
+			"from account acc " +
+			"left join balance_snapshot snap " +
+			"on snap.account_id = acc.id " +
+			"and snap.timestamp = (select max(s.timestamp) from balance_snapshot s " +
+			"where s.account_id = acc.id) " +
+			"left join activity act " +
+			"on act.owner_account_id = acc.id " +
+			"and act.timestamp >= coalesce(snap.timestamp, timestamp '0001-01-01 00:00:00') " +
+			"where acc.id = :accountId " +
+			"group by acc.id",
+			nativeQuery = true)
+	Optional<Long> loadBalance(@Param("accountId") Long accountId);
+
+	/**
+	 * Increments the version of the account, if it still has the expected version.
+	 * @return 1 if the version was incremented, 0 if the account was changed concurrently (or does not exist)
+	 */
+	@Modifying
+	@Query("update AccountJpaEntity a set a.version = a.version + 1 " +
+			"where a.id = :accountId and a.version = :expectedVersion")
+	int incrementVersion(
+			@Param("accountId") Long accountId,
+			@Param("expectedVersion") Long expectedVersion);
+
+	/**
+	 * Increments the version of the account, whatever it is.
+	 * @return 1 if the account exists, 0 otherwise
+	 */
+	@Modifying
+	@Query("update AccountJpaEntity a set a.version = a.version + 1 where a.id = :accountId")
+	int incrementVersion(@Param("accountId") Long accountId);
+
 }
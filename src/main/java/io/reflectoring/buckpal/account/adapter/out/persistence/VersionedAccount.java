@@ -0,0 +1,16 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import io.reflectoring.buckpal.account.domain.Account;
+import lombok.Value;
+
+/**
+ * An account together with the version of its database row at the time it was loaded.
+ */
+@Value
+class VersionedAccount {
+
+	Account account;
+
+	long version;
+
+}
@@ -0,0 +1,233 @@
+package io.reflectoring.buckpal.account.adapter.out.r2dbc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import io.r2dbc.spi.Row;
+import io.reflectoring.buckpal.account.application.port.out.ReactiveLoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.ReactiveUpdateAccountStatePort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.Activity.ActivityId;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.PersistenceAdapter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Loads and updates accounts over R2DBC, on the same tables as the JPA adapter: both can be used side by side.
+ * <br>
+ * An account is loaded with the same single query as in the JPA adapter: one baseline row with the balance before
+ * the baseline date and the version of the account, and one row per activity since. New activities take their IDs
+ * from {@code activity_sequence}, which hands out blocks of 50 IDs to Hibernate: each activity inserted here takes
+ * the last ID of its own block, so the IDs never collide.
+ * <br>
+ * Like the JPA adapter, it rejects activities older than the latest balance snapshot of their account.
+ * <br>
+ * With {@code r2dbc-h2}, the embedded database still executes each statement on the subscribing thread; a
+ * networked driver does not.
+ */
+@RequiredArgsConstructor
+@PersistenceAdapter
+@Profile("reactive")
+class R2dbcAccountPersistenceAdapter implements
+		ReactiveLoadAccountPort,
+		ReactiveUpdateAccountStatePort {
+
+	private static final String LOAD_ACCOUNT = "select acc.id, " +
+			"cast(null as bigint) as activity_id, " +
+			"cast(null as timestamp) as timestamp, " +
+			"cast(null as bigint) as source_account_id, " +
+			"cast(null as bigint) as target_account_id, " +
+			"coalesce(max(snap.deposit_balance), 0) " +
+			"+ coalesce(sum(case when act.target_account_id = acc.id then act.amount end), 0) as amount, " +
+			"coalesce(max(snap.withdrawal_balance), 0) " +
+			"+ coalesce(sum(case when act.source_account_id = acc.id then act.amount end), 0) as withdrawal_balance, " +
+			"acc.version " +
+			"from account acc " +
+			"left join balance_snapshot snap " +
+			"on snap.account_id = acc.id " +
+			"and snap.timestamp = (select max(s.timestamp) from balance_snapshot s " +
+			"where s.account_id = acc.id and s.timestamp <= :baselineDate) " +
+			"left join activity act " +
+			"on act.owner_account_id = acc.id " +
+			"and act.timestamp < :baselineDate " +
+			"and act.timestamp >= coalesce(snap.timestamp, timestamp '0001-01-01 00:00:00') " +
+			"where acc.id = :accountId " +
+			"group by acc.id, acc.version " +
+			"union all " +
+			"select act.owner_account_id, act.id, act.timestamp, act.source_account_id, " +
+			"act.target_account_id, act.amount, cast(null as bigint), cast(null as bigint) " +
+			"from activity act " +
+			"where act.owner_account_id = :accountId " +
+			"and act.timestamp >= :baselineDate";
+
+	private static final String NEXT_ACTIVITY_ID = "select next value for activity_sequence";
+
+	private static final String LATEST_SNAPSHOT =
+			"select max(timestamp) from balance_snapshot where account_id = :id";
+
+	private static final String INSERT_ACTIVITY = "insert into activity " +
+			"(id, timestamp, owner_account_id, source_account_id, target_account_id, amount) " +
+			"values (:id, :timestamp, :ownerAccountId, :sourceAccountId, :targetAccountId, :amount)";
+
+	private static final String INCREMENT_VERSION = "update account set version = version + 1 where id = :id";
+
+	private static final String INCREMENT_EXPECTED_VERSION =
+			"update account set version = version + 1 where id = :id and version = :version";
+
+	private final DatabaseClient databaseClient;
+
+	@Override
+	public Mono<Account> loadAccount(AccountId accountId, LocalDateTime baselineDate) {
+		return databaseClient.sql(LOAD_ACCOUNT)
+				.bind("accountId", accountId.getValue())
+				.bind("baselineDate", baselineDate)
+				.map(R2dbcAccountPersistenceAdapter::toRow)
+				.all()
+				.collectList()
+				.flatMap(rows -> toAccount(accountId, rows));
+	}
+
+	/**
+	 * The version of the account is incremented first. If the account was loaded in this transaction and its
+	 * version changed since, an {@link OptimisticLockingFailureException} is signalled and nothing is written.
+	 */
+	@Override
+	public Mono<Void> updateActivities(Account account) {
+		return Mono.defer(() -> {
+			List<Activity> newActivities = new ArrayList<>();
+			for (Activity activity : account.getActivityWindow().getActivities()) {
+				if (activity.getId() == null) {
+					newActivities.add(activity);
+				}
+			}
+			if (newActivities.isEmpty()) {
+				return Mono.empty();
+			}
+			return Mono.justOrEmpty(account.getId())
+					.flatMap(accountId -> incrementVersion(accountId)
+							.then(rejectActivitiesBeforeLatestSnapshot(accountId, newActivities)))
+					.thenMany(Flux.fromIterable(newActivities).concatMap(this::insertActivity))
+					.then();
+		});
+	}
+
+	private Mono<Void> incrementVersion(AccountId accountId) {
+		return ReactiveAccountVersions.expected(accountId)
+				.map(Optional::of)
+				.defaultIfEmpty(Optional.empty())
+				.flatMap(expectedVersion -> expectedVersion.isEmpty()
+						? databaseClient.sql(INCREMENT_VERSION)
+								.bind("id", accountId.getValue())
+								.fetch()
+								.rowsUpdated()
+								.then()
+						: databaseClient.sql(INCREMENT_EXPECTED_VERSION)
+								.bind("id", accountId.getValue())
+								.bind("version", expectedVersion.get())
+								.fetch()
+								.rowsUpdated()
+								.flatMap(updated -> updated == 0
+										? Mono.error(new OptimisticLockingFailureException(String.format(
+												"account %d was changed concurrently, expected version %d",
+												accountId.getValue(), expectedVersion.get())))
+										: ReactiveAccountVersions.updated(accountId, expectedVersion.get() + 1)));
+	}
+
+	/**
+	 * Like the JPA adapter, rejects activities that the latest balance snapshot of the account would not count. The
+	 * account row is locked by the version increment, so no snapshot of it can be taken until the transaction ends.
+	 */
+	private Mono<Void> rejectActivitiesBeforeLatestSnapshot(AccountId accountId, List<Activity> newActivities) {
+		return databaseClient.sql(LATEST_SNAPSHOT)
+				.bind("id", accountId.getValue())
+				.map(row -> Optional.ofNullable(row.get(0, LocalDateTime.class)))
+				.one()
+				.flatMap(latestSnapshot -> {
+					for (Activity activity : newActivities) {
+						if (latestSnapshot.isPresent() && activity.getTimestamp().isBefore(latestSnapshot.get())) {
+							return Mono.error(new OptimisticLockingFailureException(String.format(
+									"activity of account %d at %s is older than its latest balance snapshot at %s",
+									accountId.getValue(), activity.getTimestamp(), latestSnapshot.get())));
+						}
+					}
+					return Mono.empty();
+				});
+	}
+
+	private Mono<Void> insertActivity(Activity activity) {
+		return databaseClient.sql(NEXT_ACTIVITY_ID)
+				.map(row -> row.get(0, Long.class))
+				.one()
+				.flatMap(id -> databaseClient.sql(INSERT_ACTIVITY)
+						.bind("id", id)
+						.bind("timestamp", activity.getTimestamp())
+						.bind("ownerAccountId", activity.getOwnerAccountId().getValue())
+						.bind("sourceAccountId", activity.getSourceAccountId().getValue())
+						.bind("targetAccountId", activity.getTargetAccountId().getValue())
+						.bind("amount", activity.getMoney().getAmount().longValue())
+						.fetch()
+						.rowsUpdated())
+				.then();
+	}
+
+	/**
+	 * The columns of a row of {@link #LOAD_ACCOUNT}: account ID, activity ID, timestamp, source and target account
+	 * ID, amount (or the deposit balance), withdrawal balance and version. The baseline row has no activity ID.
+	 */
+	private static Object[] toRow(Row row) {
+		return new Object[]{
+				toLong(row.get(0)),
+				toLong(row.get(1)),
+				row.get(2, LocalDateTime.class),
+				toLong(row.get(3)),
+				toLong(row.get(4)),
+				toLong(row.get(5)),
+				toLong(row.get(6)),
+				toLong(row.get(7))};
+	}
+
+	/**
+	 * Sums come back as {@code BigDecimal} and the other numbers as {@code Long}.
+	 */
+	private static Long toLong(Object value) {
+		return value == null ? null : ((Number) value).longValue();
+	}
+
+	private static Mono<Account> toAccount(AccountId accountId, List<Object[]> rows) {
+		Object[] baseline = null;
+		List<Activity> activities = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			if (row[1] == null) {
+				baseline = row;
+			} else {
+				activities.add(new Activity(
+						new ActivityId((Long) row[1]),
+						accountId,
+						new AccountId((Long) row[3]),
+						new AccountId((Long) row[4]),
+						(LocalDateTime) row[2],
+						Money.of((Long) row[5])));
+			}
+		}
+		if (baseline == null) {
+			return Mono.error(new EmptyResultDataAccessException("no account " + accountId.getValue(), 1));
+		}
+		Account account = Account.withId(
+				accountId,
+				Money.subtract(Money.of((Long) baseline[5]), Money.of((Long) baseline[6])),
+				new ActivityWindow(activities));
+		return ReactiveAccountVersions.loaded(accountId, (Long) baseline[7]).thenReturn(account);
+	}
+
+}
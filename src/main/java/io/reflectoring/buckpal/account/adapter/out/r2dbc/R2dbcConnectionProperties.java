@@ -0,0 +1,32 @@
+package io.reflectoring.buckpal.account.adapter.out.r2dbc;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the R2DBC connections of the reactive persistence adapter, used with the
+ * {@code reactive} profile.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class R2dbcConnectionProperties {
+
+	/**
+	 * Must point to the same database as {@code spring.datasource.url}, which Flyway migrates and the blocking
+	 * adapters use.
+	 */
+	private String url = "r2dbc:h2:mem:///buckpal?options=DB_CLOSE_DELAY=-1";
+
+	private String username = "sa";
+
+	private String password = "";
+
+	/**
+	 * How many transactions run at the same time. Further transactions wait for a connection without holding a
+	 * thread.
+	 */
+	private int maxPoolSize = 10;
+
+}
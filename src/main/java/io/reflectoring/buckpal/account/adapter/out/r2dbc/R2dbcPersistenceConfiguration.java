@@ -0,0 +1,57 @@
+package io.reflectoring.buckpal.account.adapter.out.r2dbc;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Opens the R2DBC connection pool of the {@code reactive} profile.
+ * <br>
+ * Neither the pool nor its transaction manager are beans: Spring Boot does not configure a {@code DataSource} next
+ * to an R2DBC {@code ConnectionFactory} bean, and would not know which transaction manager {@code @Transactional}
+ * means. So the blocking adapters keep their JDBC data source and JPA transactions, and reactive use cases demarcate
+ * their transactions with the {@link TransactionalOperator} from here.
+ */
+@Configuration
+@Profile("reactive")
+class R2dbcPersistenceConfiguration implements DisposableBean {
+
+	private final ConnectionPool connectionPool;
+
+	R2dbcPersistenceConfiguration(R2dbcConnectionProperties properties) {
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getUrl())
+				.mutate()
+				.option(ConnectionFactoryOptions.USER, properties.getUsername())
+				.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+				.build();
+		this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+				.builder(ConnectionFactories.get(options))
+				.initialSize(properties.getMaxPoolSize())
+				.maxSize(properties.getMaxPoolSize())
+				.build());
+	}
+
+	@Bean
+	DatabaseClient r2dbcDatabaseClient() {
+		return DatabaseClient.create(connectionPool);
+	}
+
+	@Bean
+	TransactionalOperator r2dbcTransactionalOperator() {
+		return TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+	}
+
+	@Override
+	public void destroy() {
+		connectionPool.dispose();
+	}
+
+}
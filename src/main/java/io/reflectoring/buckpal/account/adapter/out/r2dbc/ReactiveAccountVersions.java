@@ -0,0 +1,63 @@
+package io.reflectoring.buckpal.account.adapter.out.r2dbc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Remembers, for the current reactive transaction, which version each account had when it was first loaded, like
+ * the {@code AccountVersions} of the JPA adapter do for a thread-bound transaction. The versions are kept in the
+ * transaction's context, so they end with it.
+ * <br>
+ * Outside of a transaction nothing is remembered and no versions are checked.
+ */
+final class ReactiveAccountVersions {
+
+	private static final Object RESOURCE_KEY = ReactiveAccountVersions.class;
+
+	private ReactiveAccountVersions() {
+	}
+
+	static Mono<Void> loaded(AccountId accountId, long version) {
+		return current()
+				.doOnNext(versions -> versions.putIfAbsent(accountId, version))
+				.then();
+	}
+
+	static Mono<Void> updated(AccountId accountId, long version) {
+		return current()
+				.doOnNext(versions -> versions.put(accountId, version))
+				.then();
+	}
+
+	/**
+	 * @return the version the account is expected to have in the database, or nothing if it is unknown
+	 */
+	static Mono<Long> expected(AccountId accountId) {
+		return current().flatMap(versions -> Mono.justOrEmpty(versions.get(accountId)));
+	}
+
+	/**
+	 * The operators of one transaction run one after the other, so the map needs no synchronization.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Mono<Map<AccountId, Long>> current() {
+		return TransactionSynchronizationManager.forCurrentTransaction()
+				.filter(TransactionSynchronizationManager::isActualTransactionActive)
+				.map(synchronizationManager -> {
+					Map<AccountId, Long> versions =
+							(Map<AccountId, Long>) synchronizationManager.getResource(RESOURCE_KEY);
+					if (versions == null) {
+						versions = new HashMap<>();
+						synchronizationManager.bindResource(RESOURCE_KEY, versions);
+					}
+					return versions;
+				})
+				.onErrorResume(NoTransactionException.class, e -> Mono.empty());
+	}
+
+}
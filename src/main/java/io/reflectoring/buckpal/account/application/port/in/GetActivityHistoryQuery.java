@@ -0,0 +1,18 @@
+package io.reflectoring.buckpal.account.application.port.in;
+
+import java.util.function.Consumer;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
+
+public interface GetActivityHistoryQuery {
+
+	/**
+	 * Passes the activities of the given account to the consumer one by one, ordered by timestamp and ID.
+	 * @param after the position to continue after, or {@code null} to start with the first activity
+	 * @param limit the maximum number of activities
+	 */
+	void streamActivities(AccountId accountId, ActivityCursor after, long limit, Consumer<Activity> consumer);
+
+}
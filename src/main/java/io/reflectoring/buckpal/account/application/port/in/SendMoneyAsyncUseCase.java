@@ -0,0 +1,17 @@
+package io.reflectoring.buckpal.account.application.port.in;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Like {@link SendMoneyUseCase}, but returns before the transfer is executed, so that the caller's thread is not
+ * blocked while the transfer waits for locks and the database.
+ */
+public interface SendMoneyAsyncUseCase {
+
+	/**
+	 * @return a future that completes with the result once the transfer is done, or fails with a
+	 * {@link TransferRejectedException} if the transfer could not be accepted
+	 */
+	CompletableFuture<TransferResult> sendMoney(SendMoneyCommand command);
+
+}
@@ -0,0 +1,14 @@
+package io.reflectoring.buckpal.account.application.port.in;
+
+import java.util.List;
+
+public interface SendMoneyBatchUseCase {
+
+	/**
+	 * Applies the given transfers in order, within one transaction.
+	 * A transfer that fails does not affect the others.
+	 * @return one result per command, in the same order
+	 */
+	List<TransferResult> sendMoney(List<SendMoneyCommand> commands);
+
+}
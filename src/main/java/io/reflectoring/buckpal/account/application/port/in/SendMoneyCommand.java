@@ -7,6 +7,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Value;
 
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 
 /**
  * 잘못된 입력을 호출자에게 돌려주는 유스케이스 보호막 역할의 커맨드 객체
@@ -27,13 +28,29 @@ class SendMoneyCommand extends SelfValidating<SendMoneyCommand> {
     @NotNull
     private final Money money;
 
+    /**
+     * 클라이언트가 정한 송금의 식별자, 없으면 {@code null}
+     * 같은 키로 다시 보낸 송금은 다시 실행되지 않고 처음 송금의 결과를 돌려받는다
+     */
+    @Size(min = 1, max = 255)
+    private final String idempotencyKey;
+
     public SendMoneyCommand(
             AccountId sourceAccountId,
             AccountId targetAccountId,
             Money money) {
+        this(sourceAccountId, targetAccountId, money, null);
+    }
+
+    public SendMoneyCommand(
+            AccountId sourceAccountId,
+            AccountId targetAccountId,
+            Money money,
+            String idempotencyKey) {
         this.sourceAccountId = sourceAccountId;
         this.targetAccountId = targetAccountId;
         this.money = money;
+        this.idempotencyKey = idempotencyKey;
         this.validateSelf(); // Java Bean Validation API
     }
 
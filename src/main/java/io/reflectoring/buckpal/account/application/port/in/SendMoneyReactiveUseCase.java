@@ -0,0 +1,27 @@
+package io.reflectoring.buckpal.account.application.port.in;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Like {@link SendMoneyUseCase}, but the transfer is a publisher that runs when it is subscribed to, and waits for
+ * the database without holding a thread.
+ * <br>
+ * Transfers sent with an idempotency key are rejected: their outcomes are recorded by blocking adapters.
+ */
+public interface SendMoneyReactiveUseCase {
+
+	/**
+	 * @return the result of the transfer; a transfer above the threshold fails with
+	 * {@link TransferResult.Status#THRESHOLD_EXCEEDED} like in a batch
+	 */
+	Mono<TransferResult> sendMoney(SendMoneyCommand command);
+
+	/**
+	 * Sends a stream of transfers, a bounded number of them at once. Commands are only requested from the stream
+	 * as transfers complete, so a slow database slows down the producer of the commands instead of piling them up.
+	 * @return the results in the order of the commands
+	 */
+	Flux<TransferResult> sendMoney(Flux<SendMoneyCommand> commands);
+
+}
@@ -0,0 +1,15 @@
+package io.reflectoring.buckpal.account.application.port.in;
+
+/**
+ * A transfer was not executed because too many transfers are pending, or because the service
+ * executing transfers is shutting down. It may be sent again later.
+ */
+public class TransferRejectedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public TransferRejectedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
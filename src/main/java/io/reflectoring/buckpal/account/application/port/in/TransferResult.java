@@ -0,0 +1,47 @@
+package io.reflectoring.buckpal.account.application.port.in;
+
+import lombok.Value;
+
+/**
+ * 송금 한 건의 처리 결과
+ */
+@Value
+public class TransferResult {
+
+	public enum Status {
+
+		SUCCEEDED,
+
+		/**
+		 * The amount exceeds the maximum transfer threshold.
+		 */
+		THRESHOLD_EXCEEDED,
+
+		/**
+		 * The source account does not have enough money.
+		 */
+		INSUFFICIENT_BALANCE,
+
+		/**
+		 * The target account did not accept the deposit.
+		 */
+		DEPOSIT_REJECTED,
+
+		/**
+		 * The source or the target account does not exist.
+		 */
+		ACCOUNT_NOT_FOUND
+
+	}
+
+	private final Status status;
+
+	public static TransferResult of(Status status) {
+		return new TransferResult(status);
+	}
+
+	public boolean isSuccess() {
+		return status == Status.SUCCEEDED;
+	}
+
+}
@@ -1,11 +1,33 @@
 package io.reflectoring.buckpal.account.application.port.out;
 
+import java.util.Collection;
+
 import io.reflectoring.buckpal.account.domain.Account;
 
+/**
+ * Locks accounts for the duration of a transfer. Transfers may run on virtual threads, so implementations must not
+ * wait for a lock inside a {@code synchronized} block or {@link Object#wait()}: that pins the carrier thread, and a
+ * few contended accounts would stall every virtual thread.
+ */
 public interface AccountLock {
 
 	void lockAccount(Account.AccountId accountId);
 
 	void releaseAccount(Account.AccountId accountId);
 
+	/**
+	 * Locks both accounts of a transfer. Implementations acquire them in a canonical order, so that opposing
+	 * transfers (A to B and B to A) cannot deadlock.
+	 */
+	void lockAccounts(Account.AccountId first, Account.AccountId second);
+
+	void releaseAccounts(Account.AccountId first, Account.AccountId second);
+
+	/**
+	 * Locks all given accounts, in the same canonical order as {@link #lockAccounts(Account.AccountId, Account.AccountId)}.
+	 */
+	void lockAccounts(Collection<Account.AccountId> accountIds);
+
+	void releaseAccounts(Collection<Account.AccountId> accountIds);
+
 }
@@ -0,0 +1,13 @@
+package io.reflectoring.buckpal.account.application.port.out;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+
+/**
+ * Reads only the current balance of an account, without loading its activities.
+ */
+public interface LoadAccountBalancePort {
+
+	Money loadBalance(AccountId accountId);
+
+}
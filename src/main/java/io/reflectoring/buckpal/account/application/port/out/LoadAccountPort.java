@@ -1,6 +1,7 @@
 package io.reflectoring.buckpal.account.application.port.out;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import io.reflectoring.buckpal.account.domain.Account;
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
@@ -8,4 +9,11 @@ import io.reflectoring.buckpal.account.domain.Account.AccountId;
 public interface LoadAccountPort {
 
 	Account loadAccount(AccountId accountId, LocalDateTime baselineDate);
+
+	/**
+	 * Loads several accounts with the same baseline date at once.
+	 * @return one independent {@link Account} per given ID, in the same order
+	 */
+	List<Account> loadAccounts(List<AccountId> accountIds, LocalDateTime baselineDate);
+
 }
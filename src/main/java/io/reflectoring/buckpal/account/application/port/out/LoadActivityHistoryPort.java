@@ -0,0 +1,22 @@
+package io.reflectoring.buckpal.account.application.port.out;
+
+import java.util.function.Consumer;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
+
+/**
+ * Reads the whole activity history of an account, without holding it in memory.
+ */
+public interface LoadActivityHistoryPort {
+
+	/**
+	 * Passes the activities of the given account to the consumer one by one, ordered by timestamp and ID.
+	 * Fails before passing any activity if there is no such account.
+	 * @param after the position to continue after, or {@code null} to start with the first activity
+	 * @param limit the maximum number of activities
+	 */
+	void streamActivities(AccountId accountId, ActivityCursor after, long limit, Consumer<Activity> consumer);
+
+}
@@ -0,0 +1,21 @@
+package io.reflectoring.buckpal.account.application.port.out;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+
+/**
+ * Tells where the activity window of a busy account should start, without loading its activities.
+ */
+public interface LoadActivityWindowStartPort {
+
+	/**
+	 * Suggests a baseline date that leaves about the {@code maxActivities} latest activities of the account in
+	 * its window. An adapter may move the date back to where the balance is already known, for example to a
+	 * balance snapshot, so that the baseline balance stays cheap; the window then holds a few more activities.
+	 * @return the baseline date, or nothing if the account has fewer than {@code maxActivities} activities
+	 */
+	Optional<LocalDateTime> loadWindowStart(AccountId accountId, int maxActivities);
+
+}
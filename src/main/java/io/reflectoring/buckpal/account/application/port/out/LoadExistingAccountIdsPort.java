@@ -0,0 +1,18 @@
+package io.reflectoring.buckpal.account.application.port.out;
+
+import java.util.Collection;
+import java.util.Set;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+
+/**
+ * Tells which accounts exist, without loading them.
+ */
+public interface LoadExistingAccountIdsPort {
+
+	/**
+	 * @return the given IDs whose accounts exist
+	 */
+	Set<AccountId> loadExistingAccountIds(Collection<AccountId> accountIds);
+
+}
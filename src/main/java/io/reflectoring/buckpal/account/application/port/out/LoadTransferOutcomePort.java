@@ -0,0 +1,16 @@
+package io.reflectoring.buckpal.account.application.port.out;
+
+import java.util.Optional;
+
+/**
+ * Looks up the outcome of a transfer that was already executed with the same idempotency key.
+ */
+public interface LoadTransferOutcomePort {
+
+	/**
+	 * @return the outcome recorded with {@link RecordTransferOutcomePort}, or nothing if the key is unknown or
+	 * its outcome has expired
+	 */
+	Optional<String> loadTransferOutcome(String idempotencyKey);
+
+}
@@ -0,0 +1,19 @@
+package io.reflectoring.buckpal.account.application.port.out;
+
+import java.time.LocalDateTime;
+
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link LoadAccountPort}.
+ */
+public interface ReactiveLoadAccountPort {
+
+	/**
+	 * @return the account, or an error if there is no such account
+	 */
+	Mono<Account> loadAccount(AccountId accountId, LocalDateTime baselineDate);
+
+}
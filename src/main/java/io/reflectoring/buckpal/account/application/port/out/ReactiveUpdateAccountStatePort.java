@@ -0,0 +1,17 @@
+package io.reflectoring.buckpal.account.application.port.out;
+
+import io.reflectoring.buckpal.account.domain.Account;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link UpdateAccountStatePort}.
+ */
+public interface ReactiveUpdateAccountStatePort {
+
+	/**
+	 * Fails with a {@link org.springframework.dao.ConcurrencyFailureException} if the account was changed since it
+	 * was loaded in the same transaction.
+	 */
+	Mono<Void> updateActivities(Account account);
+
+}
@@ -0,0 +1,16 @@
+package io.reflectoring.buckpal.account.application.port.out;
+
+import org.springframework.dao.ConcurrencyFailureException;
+
+/**
+ * Remembers the outcome of a transfer under its idempotency key, within the transaction of the transfer.
+ */
+public interface RecordTransferOutcomePort {
+
+	/**
+	 * @throws ConcurrencyFailureException if an outcome was recorded for the same key concurrently, so that the
+	 * transfer is rolled back and, when retried, finds that outcome
+	 */
+	void recordTransferOutcome(String idempotencyKey, String outcome);
+
+}
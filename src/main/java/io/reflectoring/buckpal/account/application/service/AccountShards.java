@@ -0,0 +1,127 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs work on a fixed number of single-threaded shards. Each account maps to one shard, so all work on an
+ * account is serialized on that shard's thread without taking any lock.
+ * <br>
+ * Work that spans several shards runs on the lowest of them, after it handed off the others in ascending order:
+ * each of them is parked until the work is done. As with {@link StripedAccountLock}, always claiming shards in
+ * ascending order rules out deadlocks between opposing transfers.
+ */
+@Component
+@ConditionalOnProperty(name = "buckpal.account-lock.type", havingValue = "sharded")
+class AccountShards implements AutoCloseable {
+
+	private final ExecutorService[] shards;
+
+	AccountShards(@Value("${buckpal.account-lock.shards:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int shards) {
+		if (shards < 1) {
+			throw new IllegalArgumentException("expected at least one shard but got " + shards);
+		}
+		this.shards = new ExecutorService[shards];
+		for (int i = 0; i < shards; i++) {
+			String name = "account-shard-" + i;
+			this.shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, name);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Runs the given work on the shards of the given accounts and waits for its result. Exceptions thrown by the
+	 * work are rethrown to the caller.
+	 */
+	<T> T execute(Collection<AccountId> accountIds, Supplier<T> work) {
+		int[] orderedShards = orderedShardsOf(accountIds);
+		Future<T> result = shards[orderedShards[0]].submit(() -> handOffAndRun(orderedShards, work));
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for shard " + orderedShards[0], e);
+		}
+	}
+
+	/**
+	 * Runs on the lowest shard: parks every other shard, one after the other, then runs the work and finally lets
+	 * the parked shards go on.
+	 */
+	private <T> T handOffAndRun(int[] orderedShards, Supplier<T> work) throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(1);
+		try {
+			for (int i = 1; i < orderedShards.length; i++) {
+				CountDownLatch parked = new CountDownLatch(1);
+				shards[orderedShards[i]].execute(() -> {
+					parked.countDown();
+					awaitUninterruptibly(done);
+				});
+				parked.await();
+			}
+			return work.get();
+		} finally {
+			done.countDown();
+		}
+	}
+
+	/**
+	 * The distinct shards of the given accounts in ascending order, which is the order they are claimed in.
+	 */
+	private int[] orderedShardsOf(Collection<AccountId> accountIds) {
+		return accountIds.stream()
+				.mapToInt(this::shardOf)
+				.distinct()
+				.sorted()
+				.toArray();
+	}
+
+	int shardOf(AccountId accountId) {
+		int hash = Long.hashCode(accountId.getValue());
+		return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+	}
+
+	@Override
+	public void close() {
+		for (ExecutorService shard : shards) {
+			shard.shutdownNow();
+		}
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				latch.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
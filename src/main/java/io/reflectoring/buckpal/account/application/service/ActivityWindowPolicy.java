@@ -0,0 +1,44 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityWindowStartPort;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses the baseline date up to which the activities of accounts are folded into their baseline balance, and
+ * after which they are loaded one by one.
+ * <br>
+ * The baseline only decides how much is loaded, not the balance, so accounts loaded together can share the
+ * latest of their baselines: a busy account caps the window for all of them, and a dormant account loses
+ * nothing by it.
+ */
+@Component
+@RequiredArgsConstructor
+class ActivityWindowPolicy {
+
+	private final LoadActivityWindowStartPort loadActivityWindowStartPort;
+
+	private final ActivityWindowProperties activityWindowProperties;
+
+	LocalDateTime baselineDate(Collection<AccountId> accountIds) {
+		LocalDateTime baselineDate = LocalDateTime.now().minus(activityWindowProperties.getMaxAge());
+		int maxActivities = activityWindowProperties.getMaxActivities();
+		if (maxActivities <= 0) {
+			return baselineDate;
+		}
+		for (AccountId accountId : accountIds) {
+			Optional<LocalDateTime> windowStart =
+					loadActivityWindowStartPort.loadWindowStart(accountId, maxActivities);
+			if (windowStart.isPresent() && windowStart.get().isAfter(baselineDate)) {
+				baselineDate = windowStart.get();
+			}
+		}
+		return baselineDate;
+	}
+
+}
@@ -0,0 +1,23 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the activity window that transfers load with an account. The window reaches back
+ * {@link #maxAge} at most. If {@link #maxActivities} is positive, it is also cut to the latest that many
+ * activities of the busiest account involved.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityWindowProperties {
+
+  private Duration maxAge = Duration.ofDays(10);
+
+  private int maxActivities = 0;
+
+}
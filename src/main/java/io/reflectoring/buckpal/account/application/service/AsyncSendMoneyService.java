@@ -0,0 +1,114 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyAsyncUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyBatchUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferRejectedException;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.common.UseCase;
+import io.reflectoring.buckpal.common.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 송금을 전용 스레드 풀에서 실행하고 결과를 {@link CompletableFuture}로 돌려준다
+ * 호출한 스레드(서블릿 요청 스레드 등)는 잠금 대기와 JDBC 왕복 동안 묶이지 않는다
+ * <p>
+ * 스레드 수와 대기열 크기는 제한되어 있다 : {@link AsyncTransferProperties}
+ * 대기열이 가득 차면 송금을 실행하지 않고 바로 {@link TransferRejectedException}으로 실패시킨다
+ * 풀의 상태(대기열 깊이, 실행 중인 송금 수, 대기 시간)는 {@code executor.*} 지표에 {@code name=transfers} 태그로,
+ * 거절된 송금 수는 {@value #REJECTED} 지표로 볼 수 있다
+ * <p>
+ * 송금은 한 건짜리 배치로 {@link SendMoneyBatchUseCase}에 맡기므로 샤드 모드와 멱등 키가 그대로 적용되고,
+ * 실패한 송금도 그 이유를 상태로 알 수 있다
+ * <p>
+ * {@link AsyncTransferProperties#isVirtualThreads()}이면 풀의 스레드가 가상 스레드다 (JDK 21 이상)
+ * 동시에 실행되는 송금 수는 여전히 스레드 수로 제한되지만, 놀고 있는 스레드는 정리되므로 스레드 수를 크게 잡아도 된다
+ */
+@Slf4j
+@UseCase
+class AsyncSendMoneyService implements SendMoneyAsyncUseCase, DisposableBean {
+
+    static final String REJECTED = "buckpal.transfers.rejected";
+
+    private final SendMoneyBatchUseCase sendMoneyBatchUseCase;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Counter rejected;
+
+    AsyncSendMoneyService(
+            SendMoneyBatchUseCase sendMoneyBatchUseCase,
+            AsyncTransferProperties asyncTransferProperties,
+            MeterRegistry meterRegistry) {
+        this.sendMoneyBatchUseCase = sendMoneyBatchUseCase;
+        this.pool = new ThreadPoolExecutor(
+                asyncTransferProperties.getThreads(),
+                asyncTransferProperties.getThreads(),
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(asyncTransferProperties.getQueueCapacity()),
+                asyncTransferProperties.isVirtualThreads()
+                        ? VirtualThreads.factory("async-transfer-")
+                        : platformThreads("async-transfer-"));
+        this.pool.allowCoreThreadTimeOut(asyncTransferProperties.isVirtualThreads());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "transfers");
+        this.rejected = Counter.builder(REJECTED)
+                .description("Transfers rejected because the queue of pending transfers was full")
+                .tags(Tags.of("name", "transfers"))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<TransferResult> sendMoney(SendMoneyCommand command) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> sendMoneyBatchUseCase.sendMoney(List.of(command)).get(0),
+                    executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new TransferRejectedException(
+                    "too many pending transfers, " + pool.getQueue().size() + " are waiting", e));
+        }
+    }
+
+    private static ThreadFactory platformThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 이미 받아들인 송금은 끝까지 실행한다
+     * 10초 안에 끝나지 않은 송금은 기다리지 않고 경고만 남긴다
+     */
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("{} transfers were still pending or running on shutdown",
+                        pool.getQueue().size() + pool.getActiveCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
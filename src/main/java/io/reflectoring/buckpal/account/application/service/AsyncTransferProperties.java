@@ -0,0 +1,26 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for executing money transfers asynchronously. At most {@link #threads} transfers run
+ * at the same time and at most {@link #queueCapacity} more wait for a thread; further transfers are rejected.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AsyncTransferProperties {
+
+  private int threads = 16;
+
+  private int queueCapacity = 1000;
+
+  /**
+   * Runs transfers on virtual threads (JDK 21 or later), so that a transfer waiting for an account lock or a
+   * database connection does not hold a platform thread, and {@link #threads} can be in the thousands.
+   */
+  private boolean virtualThreads = false;
+
+}
@@ -1,21 +1,20 @@
 package io.reflectoring.buckpal.account.application.service;
 
-import java.time.LocalDateTime;
-
 import io.reflectoring.buckpal.account.application.port.in.GetAccountBalanceQuery;
-import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountBalancePort;
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
 import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.UseCase;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
+@UseCase
 class GetAccountBalanceService implements GetAccountBalanceQuery {
 
-	private final LoadAccountPort loadAccountPort;
+	private final LoadAccountBalancePort loadAccountBalancePort;
 
 	@Override
 	public Money getAccountBalance(AccountId accountId) {
-		return loadAccountPort.loadAccount(accountId, LocalDateTime.now())
-				.calculateBalance();
+		return loadAccountBalancePort.loadBalance(accountId);
 	}
 }
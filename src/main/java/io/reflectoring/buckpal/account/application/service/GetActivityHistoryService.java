@@ -0,0 +1,31 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.util.function.Consumer;
+
+import io.reflectoring.buckpal.account.application.port.in.GetActivityHistoryQuery;
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityHistoryPort;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
+import io.reflectoring.buckpal.common.UseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+@UseCase
+class GetActivityHistoryService implements GetActivityHistoryQuery {
+
+	private final LoadActivityHistoryPort loadActivityHistoryPort;
+
+	/**
+	 * The activities are read with a database cursor, which stays open until the last one was passed on.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void streamActivities(AccountId accountId, ActivityCursor after, long limit, Consumer<Activity> consumer) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("expected a limit of at least one but got " + limit);
+		}
+		loadActivityHistoryPort.streamActivities(accountId, after, limit, consumer);
+	}
+}
@@ -0,0 +1,25 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for committing concurrent money transfers together. A batch is committed once it
+ * holds {@link #maxBatchSize} transfers, or {@link #maxWait} after its first transfer arrived. A caller waits at
+ * most {@link #resultTimeout} for the commit of its transfer.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GroupCommitProperties {
+
+  private int maxBatchSize = 64;
+
+  private Duration maxWait = Duration.ofMillis(2);
+
+  private Duration resultTimeout = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,211 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyBatchUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.application.port.in.TransferRejectedException;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.common.UseCase;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 동시에 들어온 송금들을 잠깐 모아서 {@link SendMoneyBatchUseCase}로 한 트랜잭션에 커밋한다 (group commit)
+ * 각 호출자는 자기 송금이 들어간 배치가 커밋된 뒤에 결과를 받는다
+ * <p>
+ * 배치 전체가 실패하면 그 배치의 송금들을 하나씩 다시 실행해서, 실패의 원인이 된 송금만 실패로 알린다
+ * 샤드 모드에서는 배치가 {@link ShardedSendMoneyBatchService}를 거치므로 계좌별 직렬화가 그대로 유지된다
+ * <p>
+ * 호출자는 {@link GroupCommitProperties#getResultTimeout()} 까지만 결과를 기다린다
+ * {@link #close()} 뒤에 들어온 송금은 실행하지 않고 {@link TransferRejectedException}으로 거절한다
+ * <p>
+ * {@code buckpal.group-commit.enabled=true} 일 때만 사용된다 : {@link GroupCommitProperties}
+ */
+@UseCase
+@Primary
+@ConditionalOnProperty(name = "buckpal.group-commit.enabled", havingValue = "true")
+class GroupCommitSendMoneyService implements SendMoneyUseCase, AutoCloseable {
+
+    private final SendMoneyBatchUseCase sendMoneyBatchUseCase;
+    private final MoneyTransferProperties moneyTransferProperties;
+    private final GroupCommitProperties groupCommitProperties;
+
+    private final BlockingQueue<PendingTransfer> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService committer;
+    private volatile boolean stopped;
+
+    GroupCommitSendMoneyService(
+            SendMoneyBatchUseCase sendMoneyBatchUseCase,
+            MoneyTransferProperties moneyTransferProperties,
+            GroupCommitProperties groupCommitProperties) {
+        if (groupCommitProperties.getMaxBatchSize() < 1) {
+            throw new IllegalArgumentException(
+                    "expected a batch size of at least one but got " + groupCommitProperties.getMaxBatchSize());
+        }
+        this.sendMoneyBatchUseCase = sendMoneyBatchUseCase;
+        this.moneyTransferProperties = moneyTransferProperties;
+        this.groupCommitProperties = groupCommitProperties;
+        this.committer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "group-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.execute(this::commitBatches);
+    }
+
+    @Override
+    public boolean sendMoney(SendMoneyCommand command) {
+        PendingTransfer transfer = new PendingTransfer(command);
+        rejectIfStopped();
+        queue.add(transfer);
+        // close()와 동시에 들어와서 커미터가 더 이상 꺼내지 않을 송금은 직접 거두어 간다
+        if (stopped && queue.remove(transfer)) {
+            rejectIfStopped();
+        }
+
+        TransferResult result = await(transfer);
+        switch (result.getStatus()) {
+            case SUCCEEDED:
+                return true;
+            case THRESHOLD_EXCEEDED:
+                throw new ThresholdExceededException(moneyTransferProperties.getMaximumTransferThreshold(), command.getMoney());
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        stopped = true;
+        committer.shutdownNow();
+    }
+
+    private void rejectIfStopped() {
+        if (stopped) {
+            throw new TransferRejectedException("group commit was stopped", null);
+        }
+    }
+
+    private TransferResult await(PendingTransfer transfer) {
+        Duration timeout = groupCommitProperties.getResultTimeout();
+        try {
+            return transfer.result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 아직 대기열에 있으면 실행되지 않은 것이 확실하다. 이미 배치에 들어갔다면 결과를 알 수 없다
+            if (queue.remove(transfer)) {
+                throw new TransferRejectedException("transfer was not committed within " + timeout, e);
+            }
+            throw new IllegalStateException("no result of group commit within " + timeout, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for group commit", e);
+        }
+    }
+
+    /**
+     * 첫 송금이 오면 배치가 가득 차거나 최대 대기 시간이 지날 때까지 뒤따르는 송금을 모은 뒤 커밋한다
+     * 커밋하는 동안 도착한 송금들은 다음 배치가 된다
+     */
+    private void commitBatches() {
+        int maxBatchSize = groupCommitProperties.getMaxBatchSize();
+        long maxWait = groupCommitProperties.getMaxWait().toNanos();
+        List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+        try {
+            // 커밋 중에 인터럽트가 소비될 수 있으므로 멈췄는지는 플래그로도 확인한다
+            while (!stopped) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWait;
+                while (batch.size() < maxBatchSize) {
+                    PendingTransfer next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                try {
+                    commit(batch);
+                } catch (Throwable e) {
+                    // 커미터는 다음 배치를 계속 처리하고, 결과를 못 받은 송금들만 실패시킨다
+                    failPending(batch, e);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // 멈춘 뒤에 남은 송금들은 아래에서 거절한다
+        }
+        queue.drainTo(batch);
+        failPending(batch, new TransferRejectedException("group commit was stopped", null));
+    }
+
+    private static void failPending(List<PendingTransfer> batch, Throwable cause) {
+        for (PendingTransfer transfer : batch) {
+            transfer.result.completeExceptionally(cause);
+        }
+    }
+
+    private void commit(List<PendingTransfer> batch) {
+        List<SendMoneyCommand> commands = new ArrayList<>(batch.size());
+        for (PendingTransfer transfer : batch) {
+            commands.add(transfer.command);
+        }
+
+        List<TransferResult> results;
+        try {
+            results = sendMoneyBatchUseCase.sendMoney(commands);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            // 한 송금 때문에 배치 전체가 실패했을 수 있으므로 송금마다 따로 커밋해서 각자의 결과를 알려준다
+            for (PendingTransfer transfer : batch) {
+                commitAlone(transfer);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(results.get(i));
+        }
+    }
+
+    private void commitAlone(PendingTransfer transfer) {
+        try {
+            transfer.result.complete(sendMoneyBatchUseCase.sendMoney(List.of(transfer.command)).get(0));
+        } catch (RuntimeException e) {
+            transfer.result.completeExceptionally(e);
+        }
+    }
+
+    private static class PendingTransfer {
+
+        private final SendMoneyCommand command;
+        private final CompletableFuture<TransferResult> result = new CompletableFuture<>();
+
+        PendingTransfer(SendMoneyCommand command) {
+            this.command = command;
+        }
+
+    }
+
+}
@@ -1,10 +1,21 @@
 package io.reflectoring.buckpal.account.application.service;
 
+import java.util.Collection;
+
 import io.reflectoring.buckpal.account.application.port.out.AccountLock;
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
 
+/**
+ * Does not lock at all. With {@code buckpal.account-lock.type=optimistic}, concurrent transfers are detected by the
+ * account versions when they are written, and retried by the use cases. With {@code buckpal.account-lock.type=sharded},
+ * transfers are already serialized per account by {@link AccountShards}.
+ */
 @Component
+@ConditionalOnExpression("'${buckpal.account-lock.type:striped}' == 'none'"
+		+ " or '${buckpal.account-lock.type:striped}' == 'optimistic'"
+		+ " or '${buckpal.account-lock.type:striped}' == 'sharded'")
 class NoOpAccountLock implements AccountLock {
 
 	@Override
@@ -17,4 +28,24 @@ class NoOpAccountLock implements AccountLock {
 		// do nothing
 	}
 
+	@Override
+	public void lockAccounts(AccountId first, AccountId second) {
+		// do nothing
+	}
+
+	@Override
+	public void releaseAccounts(AccountId first, AccountId second) {
+		// do nothing
+	}
+
+	@Override
+	public void lockAccounts(Collection<AccountId> accountIds) {
+		// do nothing
+	}
+
+	@Override
+	public void releaseAccounts(Collection<AccountId> accountIds) {
+		// do nothing
+	}
+
 }
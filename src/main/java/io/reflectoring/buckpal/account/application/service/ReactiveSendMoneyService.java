@@ -0,0 +1,111 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyReactiveUseCase;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.application.port.out.ReactiveLoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.ReactiveUpdateAccountStatePort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.common.UseCase;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link SendMoneyService}의 논블로킹 버전
+ * 계좌 잠금 대신 낙관적 잠금만 쓴다 : 잠금을 기다리면 스레드가 묶이기 때문이다
+ * 다른 송금이 그 사이에 같은 계좌를 바꿨으면 트랜잭션을 롤백하고 새 트랜잭션에서 처음부터 다시 시도한다
+ * <p>
+ * 활동 창은 {@link ActivityWindowProperties#getMaxAge()}로만 정한다 (활동 수로 정하는 정책은 블로킹 포트를 쓴다)
+ * <p>
+ * 어댑터 계층 : {@code SendMoneyReactiveController}, {@code R2dbcAccountPersistenceAdapter}
+ */
+@UseCase
+@Profile("reactive")
+class ReactiveSendMoneyService implements SendMoneyReactiveUseCase {
+
+    private final ReactiveLoadAccountPort loadAccountPort;
+    private final ReactiveUpdateAccountStatePort updateAccountStatePort;
+    private final TransactionalOperator transactionalOperator;
+    private final MoneyTransferProperties moneyTransferProperties;
+    private final ActivityWindowProperties activityWindowProperties;
+    private final ReactiveTransferProperties reactiveTransferProperties;
+    private final Retry retry;
+
+    ReactiveSendMoneyService(
+            ReactiveLoadAccountPort loadAccountPort,
+            ReactiveUpdateAccountStatePort updateAccountStatePort,
+            TransactionalOperator transactionalOperator,
+            MoneyTransferProperties moneyTransferProperties,
+            ActivityWindowProperties activityWindowProperties,
+            ReactiveTransferProperties reactiveTransferProperties,
+            TransferRetryProperties transferRetryProperties) {
+        this.loadAccountPort = loadAccountPort;
+        this.updateAccountStatePort = updateAccountStatePort;
+        this.transactionalOperator = transactionalOperator;
+        this.moneyTransferProperties = moneyTransferProperties;
+        this.activityWindowProperties = activityWindowProperties;
+        this.reactiveTransferProperties = reactiveTransferProperties;
+        this.retry = Retry.backoff(
+                        transferRetryProperties.getMaxAttempts() - 1,
+                        transferRetryProperties.getInitialBackoff())
+                .maxBackoff(transferRetryProperties.getMaxBackoff())
+                .filter(ConcurrencyFailureException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    @Override
+    public Mono<TransferResult> sendMoney(SendMoneyCommand command) {
+        if (command.getIdempotencyKey() != null) {
+            return Mono.error(new IllegalArgumentException(
+                    "reactive transfers do not support idempotency keys"));
+        }
+        if (command.getMoney().isGreaterThan(moneyTransferProperties.getMaximumTransferThreshold())) {
+            return Mono.just(TransferResult.of(Status.THRESHOLD_EXCEEDED));
+        }
+        return Mono.defer(() -> transfer(command))
+                .as(transactionalOperator::transactional)
+                .retryWhen(retry);
+    }
+
+    @Override
+    public Flux<TransferResult> sendMoney(Flux<SendMoneyCommand> commands) {
+        return commands.flatMapSequential(this::sendMoney, reactiveTransferProperties.getMaxConcurrency());
+    }
+
+    private Mono<TransferResult> transfer(SendMoneyCommand command) {
+        LocalDateTime baselineDate = LocalDateTime.now().minus(activityWindowProperties.getMaxAge());
+
+        // 한 트랜잭션의 쿼리는 한 커넥션에서 차례로 실행되므로 두 계좌도 차례로 읽는다
+        return loadAccountPort.loadAccount(command.getSourceAccountId(), baselineDate)
+                .flatMap(sourceAccount -> loadAccountPort.loadAccount(command.getTargetAccountId(), baselineDate)
+                        .flatMap(targetAccount -> transfer(command, sourceAccount, targetAccount)));
+    }
+
+    private Mono<TransferResult> transfer(SendMoneyCommand command, Account sourceAccount, Account targetAccount) {
+        AccountId sourceAccountId = sourceAccount.getId()
+                .orElseThrow(() -> new IllegalStateException("expected source account ID not to be empty"));
+        AccountId targetAccountId = targetAccount.getId()
+                .orElseThrow(() -> new IllegalStateException("expected target account ID not to be empty"));
+
+        if (!sourceAccount.withdraw(command.getMoney(), targetAccountId)) {
+            return Mono.just(TransferResult.of(Status.INSUFFICIENT_BALANCE));
+        }
+
+        if (!targetAccount.deposit(command.getMoney(), sourceAccountId)) {
+            return Mono.just(TransferResult.of(Status.DEPOSIT_REJECTED));
+        }
+
+        return updateAccountStatePort.updateActivities(sourceAccount)
+                .then(updateAccountStatePort.updateActivities(targetAccount))
+                .thenReturn(TransferResult.of(Status.SUCCEEDED));
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for streams of reactive money transfers. At most {@link #maxConcurrency} transfers of a
+ * stream run at the same time; it should not exceed the connections of the reactive persistence adapter, or the
+ * transfers only wait for a connection there.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReactiveTransferProperties {
+
+  private int maxConcurrency = 10;
+
+}
@@ -0,0 +1,174 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyBatchUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.application.port.out.AccountLock;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadExistingAccountIdsPort;
+import io.reflectoring.buckpal.account.application.port.out.UpdateAccountStatePort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.common.UseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 여러 송금을 한 번에 처리한다
+ * 송금에 관련된 계좌들을 한 번씩만 불러와서 메모리에서 모든 송금을 적용한 뒤, 하나의 트랜잭션으로 저장한다
+ * 없는 계좌가 관련된 송금은 {@link Status#ACCOUNT_NOT_FOUND}가 되고, 나머지 송금은 그대로 처리된다
+ */
+@RequiredArgsConstructor
+@UseCase
+@Transactional
+public class SendMoneyBatchService implements SendMoneyBatchUseCase {
+
+    private final LoadAccountPort loadAccountPort;
+    private final LoadExistingAccountIdsPort loadExistingAccountIdsPort;
+    private final AccountLock accountLock;
+    private final UpdateAccountStatePort updateAccountStatePort;
+    private final MoneyTransferProperties moneyTransferProperties;
+    private final ActivityWindowPolicy activityWindowPolicy;
+    private final TransferOutcomes transferOutcomes;
+
+    @Override
+    @Retryable(
+            include = ConcurrencyFailureException.class,
+            maxAttemptsExpression = "#{@transferRetryProperties.maxAttempts}",
+            backoff = @Backoff(
+                    delayExpression = "#{@transferRetryProperties.initialBackoff.toMillis()}",
+                    maxDelayExpression = "#{@transferRetryProperties.maxBackoff.toMillis()}",
+                    multiplier = 2,
+                    random = true))
+    public List<TransferResult> sendMoney(List<SendMoneyCommand> commands) {
+
+        if (commands.isEmpty()) {
+            return List.of();
+        }
+
+        // 계좌는 지워지지 않으므로 잠그기 전에 확인해도 된다
+        List<AccountId> accountIds = new ArrayList<>(distinctAccountIds(commands));
+        Set<AccountId> existingAccountIds = loadExistingAccountIdsPort.loadExistingAccountIds(accountIds);
+        accountIds.retainAll(existingAccountIds);
+
+        LocalDateTime baselineDate = activityWindowPolicy.baselineDate(accountIds);
+
+        accountLock.lockAccounts(accountIds);
+        try {
+            // 같은 멱등 키로 이미 처리된 송금은 다시 실행하지 않고 그때의 결과를 돌려준다
+            // 잠근 뒤에 트랜잭션 안에서 조회해야 같은 키로 동시에 들어온 송금이 앞선 송금의 커밋을 보고 실행되지 않는다
+            Status[] statuses = new Status[commands.size()];
+            List<SendMoneyCommand> pending = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                // 없는 계좌에 대한 송금은 결과를 기록하지 않는다, 계좌가 생긴 뒤에 같은 키로 다시 보낼 수 있다
+                if (!existingAccountIds.contains(commands.get(i).getSourceAccountId())
+                        || !existingAccountIds.contains(commands.get(i).getTargetAccountId())) {
+                    statuses[i] = Status.ACCOUNT_NOT_FOUND;
+                    continue;
+                }
+                Optional<Status> recorded = transferOutcomes.recorded(commands.get(i));
+                if (recorded.isPresent()) {
+                    statuses[i] = recorded.get();
+                } else {
+                    pending.add(commands.get(i));
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                List<Status> pendingStatuses = sendPending(pending, baselineDate);
+                for (int i = 0, p = 0; i < commands.size(); i++) {
+                    if (statuses[i] == null) {
+                        statuses[i] = pendingStatuses.get(p++);
+                    }
+                }
+            }
+
+            List<TransferResult> results = new ArrayList<>(commands.size());
+            for (Status status : statuses) {
+                results.add(TransferResult.of(status));
+            }
+            return results;
+        } finally {
+            accountLock.releaseAccounts(accountIds);
+        }
+    }
+
+    /**
+     * 배치의 계좌들이 잠긴 채로 호출된다
+     */
+    private List<Status> sendPending(List<SendMoneyCommand> commands, LocalDateTime baselineDate) {
+        List<AccountId> accountIds = new ArrayList<>(distinctAccountIds(commands));
+
+        Map<AccountId, Account> accounts = new HashMap<>();
+        List<Account> loadedAccounts = loadAccountPort.loadAccounts(accountIds, baselineDate);
+        for (int i = 0; i < accountIds.size(); i++) {
+            accounts.put(accountIds.get(i), loadedAccounts.get(i));
+        }
+
+        // 한 배치 안에서 같은 키가 반복되면 처음 송금만 실행한다
+        Map<String, Status> statusesByKey = new HashMap<>();
+        List<Status> statuses = new ArrayList<>(commands.size());
+        for (SendMoneyCommand command : commands) {
+            String idempotencyKey = command.getIdempotencyKey();
+            if (idempotencyKey != null && statusesByKey.containsKey(idempotencyKey)) {
+                statuses.add(statusesByKey.get(idempotencyKey));
+                continue;
+            }
+            Status status = transfer(
+                    command,
+                    accounts.get(command.getSourceAccountId()),
+                    accounts.get(command.getTargetAccountId()));
+            if (idempotencyKey != null) {
+                statusesByKey.put(idempotencyKey, status);
+            }
+            transferOutcomes.record(command, status);
+            statuses.add(status);
+        }
+
+        for (Account account : accounts.values()) {
+            updateAccountStatePort.updateActivities(account);
+        }
+        return statuses;
+    }
+
+    private Status transfer(SendMoneyCommand command, Account sourceAccount, Account targetAccount) {
+        if (command.getMoney().isGreaterThan(moneyTransferProperties.getMaximumTransferThreshold())) {
+            return Status.THRESHOLD_EXCEEDED;
+        }
+
+        if (!sourceAccount.withdraw(command.getMoney(), command.getTargetAccountId())) {
+            return Status.INSUFFICIENT_BALANCE;
+        }
+
+        // 입금은 거절되지 않는다, 거절된다면 출금이 이미 창에 기록되었으므로 배치 전체를 되돌린다
+        if (!targetAccount.deposit(command.getMoney(), command.getSourceAccountId())) {
+            throw new IllegalStateException(
+                    "account " + command.getTargetAccountId().getValue() + " rejected a deposit");
+        }
+
+        return Status.SUCCEEDED;
+    }
+
+    private Set<AccountId> distinctAccountIds(List<SendMoneyCommand> commands) {
+        Set<AccountId> accountIds = new LinkedHashSet<>();
+        for (SendMoneyCommand command : commands) {
+            accountIds.add(command.getSourceAccountId());
+            accountIds.add(command.getTargetAccountId());
+        }
+        return accountIds;
+    }
+
+}
@@ -2,6 +2,7 @@ package io.reflectoring.buckpal.account.application.service;
 
 import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
 import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
 import io.reflectoring.buckpal.account.application.port.out.AccountLock;
 import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
 import io.reflectoring.buckpal.account.application.port.out.UpdateAccountStatePort;
@@ -9,9 +10,14 @@ import io.reflectoring.buckpal.account.domain.Account;
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
 import io.reflectoring.buckpal.common.UseCase;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * 애플리케이션 계층은 HTTP에 대한 상세 정보를 노출시키지 않도록 HTTP와 관련된 작업을 하면 안된다
@@ -28,46 +34,65 @@ public class SendMoneyService implements SendMoneyUseCase {
     private final AccountLock accountLock;
     private final UpdateAccountStatePort updateAccountStatePort;
     private final MoneyTransferProperties moneyTransferProperties;
+    private final ActivityWindowPolicy activityWindowPolicy;
+    private final TransferOutcomes transferOutcomes;
 
+    // 다른 송금이 그 사이에 같은 계좌를 바꿨으면 (낙관적 잠금 충돌) 새 트랜잭션에서 처음부터 다시 시도한다
     @Override
+    @Retryable(
+            include = ConcurrencyFailureException.class,
+            maxAttemptsExpression = "#{@transferRetryProperties.maxAttempts}",
+            backoff = @Backoff(
+                    delayExpression = "#{@transferRetryProperties.initialBackoff.toMillis()}",
+                    maxDelayExpression = "#{@transferRetryProperties.maxBackoff.toMillis()}",
+                    multiplier = 2,
+                    random = true))
     public boolean sendMoney(SendMoneyCommand command) {
 
         checkThreshold(command);
 
-        LocalDateTime baselineDate = LocalDateTime.now().minusDays(10);
-
-        Account sourceAccount = loadAccountPort.loadAccount(
-                command.getSourceAccountId(),
-                baselineDate);
-
-        Account targetAccount = loadAccountPort.loadAccount(
-                command.getTargetAccountId(),
-                baselineDate);
-
-        AccountId sourceAccountId = sourceAccount.getId()
-                .orElseThrow(() -> new IllegalStateException("expected source account ID not to be empty"));
-        AccountId targetAccountId = targetAccount.getId()
-                .orElseThrow(() -> new IllegalStateException("expected target account ID not to be empty"));
-
-        accountLock.lockAccount(sourceAccountId);
-        if (!sourceAccount.withdraw(command.getMoney(), targetAccountId)) {
-            accountLock.releaseAccount(sourceAccountId);
-            return false;
+        LocalDateTime baselineDate = activityWindowPolicy.baselineDate(
+                List.of(command.getSourceAccountId(), command.getTargetAccountId()));
+
+        // 잔고를 읽기 전에 두 계좌를 함께 잠가야 다른 송금이 그 사이에 잔고를 바꾸지 못한다
+        accountLock.lockAccounts(command.getSourceAccountId(), command.getTargetAccountId());
+        try {
+            // 같은 멱등 키로 이미 처리된 송금이면 다시 실행하지 않고 그때의 결과를 돌려준다
+            // 잠근 뒤에 트랜잭션 안에서 조회해야 같은 키로 동시에 들어온 송금이 앞선 송금의 커밋을 보고 실행되지 않는다
+            Optional<Status> recorded = transferOutcomes.recorded(command);
+            if (recorded.isPresent()) {
+                return recorded.get() == Status.SUCCEEDED;
+            }
+
+            List<Account> accounts = loadAccountPort.loadAccounts(
+                    List.of(command.getSourceAccountId(), command.getTargetAccountId()),
+                    baselineDate);
+
+            Account sourceAccount = accounts.get(0);
+            Account targetAccount = accounts.get(1);
+
+            AccountId sourceAccountId = sourceAccount.getId()
+                    .orElseThrow(() -> new IllegalStateException("expected source account ID not to be empty"));
+            AccountId targetAccountId = targetAccount.getId()
+                    .orElseThrow(() -> new IllegalStateException("expected target account ID not to be empty"));
+
+            if (!sourceAccount.withdraw(command.getMoney(), targetAccountId)) {
+                transferOutcomes.record(command, Status.INSUFFICIENT_BALANCE);
+                return false;
+            }
+
+            if (!targetAccount.deposit(command.getMoney(), sourceAccountId)) {
+                transferOutcomes.record(command, Status.DEPOSIT_REJECTED);
+                return false;
+            }
+
+            updateAccountStatePort.updateActivities(sourceAccount);
+            updateAccountStatePort.updateActivities(targetAccount);
+            transferOutcomes.record(command, Status.SUCCEEDED);
+            return true;
+        } finally {
+            accountLock.releaseAccounts(command.getSourceAccountId(), command.getTargetAccountId());
         }
-
-        accountLock.lockAccount(targetAccountId);
-        if (!targetAccount.deposit(command.getMoney(), sourceAccountId)) {
-            accountLock.releaseAccount(sourceAccountId);
-            accountLock.releaseAccount(targetAccountId);
-            return false;
-        }
-
-        updateAccountStatePort.updateActivities(sourceAccount);
-        updateAccountStatePort.updateActivities(targetAccount);
-
-        accountLock.releaseAccount(sourceAccountId);
-        accountLock.releaseAccount(targetAccountId);
-        return true;
     }
 
     private void checkThreshold(SendMoneyCommand command) {
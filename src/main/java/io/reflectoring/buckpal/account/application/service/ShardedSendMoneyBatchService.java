@@ -0,0 +1,43 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyBatchUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.common.UseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 배치에 관련된 모든 계좌의 샤드에서 {@link SendMoneyBatchService}를 실행한다
+ * 배치가 끝날 때까지 그 샤드들의 다른 송금은 기다린다
+ * <p>
+ * {@code buckpal.account-lock.type=sharded} 일 때만 사용된다 : {@link AccountShards}
+ */
+@RequiredArgsConstructor
+@UseCase
+@Primary
+@ConditionalOnProperty(name = "buckpal.account-lock.type", havingValue = "sharded")
+class ShardedSendMoneyBatchService implements SendMoneyBatchUseCase {
+
+    private final SendMoneyBatchService sendMoneyBatchService;
+    private final AccountShards accountShards;
+
+    @Override
+    public List<TransferResult> sendMoney(List<SendMoneyCommand> commands) {
+        if (commands.isEmpty()) {
+            return List.of();
+        }
+        List<AccountId> accountIds = new ArrayList<>(commands.size() * 2);
+        for (SendMoneyCommand command : commands) {
+            accountIds.add(command.getSourceAccountId());
+            accountIds.add(command.getTargetAccountId());
+        }
+        return accountShards.execute(accountIds, () -> sendMoneyBatchService.sendMoney(commands));
+    }
+
+}
@@ -0,0 +1,36 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.common.UseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+
+/**
+ * 계좌 잠금 대신 두 계좌의 샤드에서 {@link SendMoneyService}를 실행한다
+ * 한 계좌는 항상 같은 샤드 스레드에서만 바뀌므로 송금끼리 잠금 없이 직렬화된다
+ * <p>
+ * {@code buckpal.account-lock.type=sharded} 일 때만 사용된다 : {@link AccountShards}
+ * group commit 이 켜져 있으면 {@link GroupCommitSendMoneyService}가 배치를 통해 샤드에서 실행하므로 사용되지 않는다
+ */
+@RequiredArgsConstructor
+@UseCase
+@Primary
+@ConditionalOnExpression("'${buckpal.account-lock.type:striped}' == 'sharded'"
+        + " and '${buckpal.group-commit.enabled:false}' != 'true'")
+class ShardedSendMoneyService implements SendMoneyUseCase {
+
+    private final SendMoneyService sendMoneyService;
+    private final AccountShards accountShards;
+
+    @Override
+    public boolean sendMoney(SendMoneyCommand command) {
+        return accountShards.execute(
+                List.of(command.getSourceAccountId(), command.getTargetAccountId()),
+                () -> sendMoneyService.sendMoney(command));
+    }
+
+}
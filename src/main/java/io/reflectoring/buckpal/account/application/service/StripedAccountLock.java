@@ -0,0 +1,118 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.reflectoring.buckpal.account.application.port.out.AccountLock;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-JVM {@link AccountLock} backed by a fixed number of {@link ReentrantLock} stripes.
+ * Each account maps to one stripe, so the memory used does not grow with the number of accounts.
+ * Accounts are always locked in ascending stripe order, which rules out deadlocks between opposing transfers.
+ * A virtual thread waiting for a {@link ReentrantLock} unmounts from its carrier, unlike one waiting for a monitor.
+ * <br>
+ * If a transaction is active, locks are only released after it completed. Otherwise the next holder could
+ * load the account before the activities written under the lock are committed.
+ */
+@Component
+@ConditionalOnProperty(name = "buckpal.account-lock.type", havingValue = "striped", matchIfMissing = true)
+class StripedAccountLock implements AccountLock {
+
+	private final ReentrantLock[] stripes;
+
+	StripedAccountLock(@Value("${buckpal.account-lock.stripes:1024}") int stripes) {
+		if (stripes < 1) {
+			throw new IllegalArgumentException("expected at least one lock stripe but got " + stripes);
+		}
+		this.stripes = new ReentrantLock[stripes];
+		for (int i = 0; i < stripes; i++) {
+			this.stripes[i] = new ReentrantLock();
+		}
+	}
+
+	@Override
+	public void lockAccount(AccountId accountId) {
+		stripes[stripeOf(accountId)].lock();
+	}
+
+	@Override
+	public void releaseAccount(AccountId accountId) {
+		int stripe = stripeOf(accountId);
+		afterTransaction(() -> stripes[stripe].unlock());
+	}
+
+	@Override
+	public void lockAccounts(AccountId first, AccountId second) {
+		int firstStripe = stripeOf(first);
+		int secondStripe = stripeOf(second);
+		stripes[Math.min(firstStripe, secondStripe)].lock();
+		if (firstStripe != secondStripe) {
+			stripes[Math.max(firstStripe, secondStripe)].lock();
+		}
+	}
+
+	@Override
+	public void releaseAccounts(AccountId first, AccountId second) {
+		int firstStripe = stripeOf(first);
+		int secondStripe = stripeOf(second);
+		afterTransaction(() -> {
+			if (firstStripe != secondStripe) {
+				stripes[Math.max(firstStripe, secondStripe)].unlock();
+			}
+			stripes[Math.min(firstStripe, secondStripe)].unlock();
+		});
+	}
+
+	@Override
+	public void lockAccounts(Collection<AccountId> accountIds) {
+		for (int stripe : orderedStripesOf(accountIds)) {
+			stripes[stripe].lock();
+		}
+	}
+
+	@Override
+	public void releaseAccounts(Collection<AccountId> accountIds) {
+		int[] orderedStripes = orderedStripesOf(accountIds);
+		afterTransaction(() -> {
+			for (int i = orderedStripes.length - 1; i >= 0; i--) {
+				stripes[orderedStripes[i]].unlock();
+			}
+		});
+	}
+
+	/**
+	 * The distinct stripes of the given accounts in ascending order, which is the canonical locking order.
+	 */
+	private int[] orderedStripesOf(Collection<AccountId> accountIds) {
+		return accountIds.stream()
+				.mapToInt(this::stripeOf)
+				.distinct()
+				.sorted()
+				.toArray();
+	}
+
+	int stripeOf(AccountId accountId) {
+		int hash = Long.hashCode(accountId.getValue());
+		return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+	}
+
+	private void afterTransaction(Runnable release) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			release.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				release.run();
+			}
+		});
+	}
+
+}
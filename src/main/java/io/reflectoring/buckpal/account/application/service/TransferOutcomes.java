@@ -0,0 +1,41 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.util.Optional;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.application.port.out.LoadTransferOutcomePort;
+import io.reflectoring.buckpal.account.application.port.out.RecordTransferOutcomePort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the outcomes of transfers that carry an idempotency key, so that a retried request gets the outcome of
+ * the first one instead of moving the money again. Transfers without a key are neither looked up nor recorded.
+ * <br>
+ * The outcome is recorded in the transaction of the transfer: it is remembered if and only if the transfer
+ * committed.
+ */
+@Component
+@RequiredArgsConstructor
+class TransferOutcomes {
+
+	private final LoadTransferOutcomePort loadTransferOutcomePort;
+
+	private final RecordTransferOutcomePort recordTransferOutcomePort;
+
+	Optional<Status> recorded(SendMoneyCommand command) {
+		if (command.getIdempotencyKey() == null) {
+			return Optional.empty();
+		}
+		return loadTransferOutcomePort.loadTransferOutcome(command.getIdempotencyKey())
+				.map(Status::valueOf);
+	}
+
+	void record(SendMoneyCommand command, Status status) {
+		if (command.getIdempotencyKey() != null) {
+			recordTransferOutcomePort.recordTransferOutcome(command.getIdempotencyKey(), status.name());
+		}
+	}
+
+}
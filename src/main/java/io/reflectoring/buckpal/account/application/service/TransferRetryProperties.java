@@ -0,0 +1,25 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for retrying money transfers that failed because an account was changed concurrently.
+ * The backoff starts at {@link #initialBackoff}, doubles with every attempt up to {@link #maxBackoff}, and is
+ * randomized so that conflicting transfers do not retry in lockstep.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferRetryProperties {
+
+  private int maxAttempts = 5;
+
+  private Duration initialBackoff = Duration.ofMillis(5);
+
+  private Duration maxBackoff = Duration.ofMillis(100);
+
+}
@@ -0,0 +1,37 @@
+package io.reflectoring.buckpal.account.domain;
+
+import java.time.LocalDateTime;
+
+import io.reflectoring.buckpal.account.domain.Activity.ActivityId;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * 계좌 활동 이력 안의 위치 (keyset).
+ * 활동 이력은 시각 순서로, 시각이 같으면 ID 순서로 정렬되므로 두 값으로 한 활동의 바로 뒤를 가리킬 수 있습니다.
+ */
+@Value
+public class ActivityCursor {
+
+	@NonNull
+	private final LocalDateTime timestamp;
+
+	@NonNull
+	private final ActivityId activityId;
+
+	/**
+	 * The position right after the given activity.
+	 */
+	public static ActivityCursor after(@NonNull Activity activity) {
+		return new ActivityCursor(activity.getTimestamp(), activity.getId());
+	}
+
+	/**
+	 * Whether the given activity comes after this position.
+	 */
+	public boolean isBefore(@NonNull Activity activity) {
+		int comparison = timestamp.compareTo(activity.getTimestamp());
+		return comparison < 0 || (comparison == 0 && activityId.getValue() < activity.getId().getValue());
+	}
+
+}
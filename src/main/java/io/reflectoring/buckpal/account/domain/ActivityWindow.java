@@ -1,33 +1,83 @@
 package io.reflectoring.buckpal.account.domain;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity.ActivityId;
 import lombok.NonNull;
 
 /**
  * 계좌 활동(입,출금)들의 값 객체
+ * <br>
+ * 활동마다 객체를 두는 대신 필드별 원시 배열(열)에 보관합니다. 활동 하나가 차지하는 메모리는 약 50 byte이고,
+ * {@link Activity} 객체는 {@link #getActivities()}로 읽을 때만 만들어집니다.
  */
 public class ActivityWindow {
 
+	private static final long NO_ID = Long.MIN_VALUE;
+
+	private static final long NO_ACCOUNT = Long.MIN_VALUE;
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private int size;
+
+	/**
+	 * 활동 ID, 아직 저장되지 않은 활동은 {@link #NO_ID}
+	 */
+	private long[] ids;
+
+	private long[] ownerAccountIds;
+
+	private long[] sourceAccountIds;
+
+	private long[] targetAccountIds;
+
+	/**
+	 * 활동 시각 (UTC 기준 epoch 초와 나노초)
+	 */
+	private long[] epochSeconds;
+
+	private int[] nanos;
+
 	/**
-	 * 계좌 활동 목록
+	 * 금액, {@code long} 범위를 벗어나는 금액은 {@link #bigAmounts}에 보관합니다.
 	 */
-	private List<Activity> activities;
+	private long[] amounts;
+
+	/**
+	 * {@code long} 범위를 벗어나는 금액, 그런 금액이 없으면 {@code null}
+	 */
+	private Money[] bigAmounts;
+
+	/**
+	 * 계좌별 활동 합계 (입금 - 출금), 앞에서부터 {@link #totalsSize}개의 활동을 더한 값
+	 * 잔고를 계산할 때 그 뒤에 추가된 활동만 모든 계좌의 합계에 더하므로, 여러 계좌의 잔고를 번갈아 계산해도 O(1)입니다.
+	 * 합계가 {@code long} 범위를 벗어나면 {@code null}이 되고, 그 뒤로는 {@link #sumOfMoney(long)}로 계산합니다.
+	 */
+	private AccountTotals totals = new AccountTotals();
+
+	private int totalsSize;
 
 	/**
 	 * The timestamp of the first activity within this window.
 	 */
 	public LocalDateTime getStartTimestamp() {
-		return activities.stream()
-				.min(Comparator.comparing(Activity::getTimestamp))
-				.orElseThrow(IllegalStateException::new)
-				.getTimestamp();
+		if (size == 0) {
+			throw new IllegalStateException();
+		}
+		int first = 0;
+		for (int i = 1; i < size; i++) {
+			if (epochSeconds[i] < epochSeconds[first]
+					|| (epochSeconds[i] == epochSeconds[first] && nanos[i] < nanos[first])) {
+				first = i;
+			}
+		}
+		return timestampAt(first);
 	}
 
 	/**
@@ -35,42 +85,228 @@ public class ActivityWindow {
 	 * @return
 	 */
 	public LocalDateTime getEndTimestamp() {
-		return activities.stream()
-				.max(Comparator.comparing(Activity::getTimestamp))
-				.orElseThrow(IllegalStateException::new)
-				.getTimestamp();
+		if (size == 0) {
+			throw new IllegalStateException();
+		}
+		int last = 0;
+		for (int i = 1; i < size; i++) {
+			if (epochSeconds[i] > epochSeconds[last]
+					|| (epochSeconds[i] == epochSeconds[last] && nanos[i] > nanos[last])) {
+				last = i;
+			}
+		}
+		return timestampAt(last);
 	}
 
 	/**
 	 * Calculates the balance by summing up the values of all activities within this window.
 	 */
 	public Money calculateBalance(AccountId accountId) {
-		Money depositBalance = activities.stream()
-				.filter(a -> a.getTargetAccountId().equals(accountId))
-				.map(Activity::getMoney)
-				.reduce(Money.ZERO, Money::add);
-
-		Money withdrawalBalance = activities.stream()
-				.filter(a -> a.getSourceAccountId().equals(accountId))
-				.map(Activity::getMoney)
-				.reduce(Money.ZERO, Money::add);
-
-		return Money.add(depositBalance, withdrawalBalance.negate());
+		if (accountId == null || accountId.getValue() == null) {
+			return Money.ZERO;
+		}
+		long account = accountId.getValue();
+		if (bigAmounts != null || totals == null) {
+			return sumOfMoney(account);
+		}
+		try {
+			for (; totalsSize < size; totalsSize++) {
+				totals.add(targetAccountIds[totalsSize], amounts[totalsSize]);
+				totals.subtract(sourceAccountIds[totalsSize], amounts[totalsSize]);
+			}
+		} catch (ArithmeticException overflow) {
+			totals = null;
+			return sumOfMoney(account);
+		}
+		return Money.of(totals.get(account));
 	}
 
 	public ActivityWindow(@NonNull List<Activity> activities) {
-		this.activities = activities;
+		allocate(Math.max(activities.size(), INITIAL_CAPACITY));
+		for (Activity activity : activities) {
+			addActivity(activity);
+		}
 	}
 
 	public ActivityWindow(@NonNull Activity... activities) {
-		this.activities = new ArrayList<>(Arrays.asList(activities));
+		this(Arrays.asList(activities));
 	}
 
+	/**
+	 * Read-only view of the activities. Every call of {@link List#get(int)} creates a new {@link Activity}.
+	 */
 	public List<Activity> getActivities() {
-		return Collections.unmodifiableList(this.activities);
+		return new AbstractList<Activity>() {
+			@Override
+			public Activity get(int index) {
+				if (index < 0 || index >= size) {
+					throw new IndexOutOfBoundsException("index " + index + " is out of bounds for size " + size);
+				}
+				return activityAt(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
 	}
 
 	public void addActivity(Activity activity) {
-		this.activities.add(activity);
+		if (size == ids.length) {
+			grow();
+		}
+		ids[size] = activity.getId() == null ? NO_ID : activity.getId().getValue();
+		ownerAccountIds[size] = activity.getOwnerAccountId().getValue();
+		sourceAccountIds[size] = activity.getSourceAccountId().getValue();
+		targetAccountIds[size] = activity.getTargetAccountId().getValue();
+		epochSeconds[size] = activity.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+		nanos[size] = activity.getTimestamp().getNano();
+		setAmount(size, activity.getMoney());
+		size++;
+	}
+
+	private void setAmount(int index, Money money) {
+		if (money.hasLongValue()) {
+			amounts[index] = money.longValue();
+			return;
+		}
+		if (bigAmounts == null) {
+			bigAmounts = new Money[ids.length];
+		}
+		bigAmounts[index] = money;
+	}
+
+	private Money amountAt(int index) {
+		if (bigAmounts != null && bigAmounts[index] != null) {
+			return bigAmounts[index];
+		}
+		return Money.of(amounts[index]);
+	}
+
+	private Money sumOfMoney(long account) {
+		Money sum = Money.ZERO;
+		for (int i = 0; i < size; i++) {
+			if (targetAccountIds[i] == account) {
+				sum = Money.add(sum, amountAt(i));
+			}
+			if (sourceAccountIds[i] == account) {
+				sum = Money.subtract(sum, amountAt(i));
+			}
+		}
+		return sum;
+	}
+
+	private LocalDateTime timestampAt(int index) {
+		return LocalDateTime.ofEpochSecond(epochSeconds[index], nanos[index], ZoneOffset.UTC);
+	}
+
+	private Activity activityAt(int index) {
+		return new Activity(
+				ids[index] == NO_ID ? null : new ActivityId(ids[index]),
+				new AccountId(ownerAccountIds[index]),
+				new AccountId(sourceAccountIds[index]),
+				new AccountId(targetAccountIds[index]),
+				timestampAt(index),
+				amountAt(index));
+	}
+
+	private void allocate(int capacity) {
+		ids = new long[capacity];
+		ownerAccountIds = new long[capacity];
+		sourceAccountIds = new long[capacity];
+		targetAccountIds = new long[capacity];
+		epochSeconds = new long[capacity];
+		nanos = new int[capacity];
+		amounts = new long[capacity];
+	}
+
+	private void grow() {
+		int capacity = ids.length * 2;
+		ids = Arrays.copyOf(ids, capacity);
+		ownerAccountIds = Arrays.copyOf(ownerAccountIds, capacity);
+		sourceAccountIds = Arrays.copyOf(sourceAccountIds, capacity);
+		targetAccountIds = Arrays.copyOf(targetAccountIds, capacity);
+		epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+		nanos = Arrays.copyOf(nanos, capacity);
+		amounts = Arrays.copyOf(amounts, capacity);
+		if (bigAmounts != null) {
+			bigAmounts = Arrays.copyOf(bigAmounts, capacity);
+		}
+	}
+
+	/**
+	 * 계좌 ID에서 합계로의 작은 해시 맵 (open addressing), 값을 박싱하지 않습니다.
+	 * 한 창에는 보통 몇 개의 계좌만 나오므로 작게 시작합니다.
+	 */
+	private static class AccountTotals {
+
+		private long[] accountIds = emptySlots(4);
+
+		private long[] sums = new long[4];
+
+		private int count;
+
+		long get(long accountId) {
+			int slot = slotOf(accountId);
+			return accountIds[slot] == accountId ? sums[slot] : 0L;
+		}
+
+		void add(long accountId, long amount) {
+			int slot = claimSlot(accountId);
+			sums[slot] = Math.addExact(sums[slot], amount);
+		}
+
+		void subtract(long accountId, long amount) {
+			int slot = claimSlot(accountId);
+			sums[slot] = Math.subtractExact(sums[slot], amount);
+		}
+
+		private int claimSlot(long accountId) {
+			int slot = slotOf(accountId);
+			if (accountIds[slot] == accountId) {
+				return slot;
+			}
+			if (2 * (count + 1) > accountIds.length) {
+				rehash();
+				slot = slotOf(accountId);
+			}
+			accountIds[slot] = accountId;
+			count++;
+			return slot;
+		}
+
+		/**
+		 * @return the slot holding the account, or the empty slot where it belongs
+		 */
+		private int slotOf(long accountId) {
+			int mask = accountIds.length - 1;
+			int slot = Long.hashCode(accountId * 0x9E3779B97F4A7C15L) & mask;
+			while (accountIds[slot] != NO_ACCOUNT && accountIds[slot] != accountId) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		private void rehash() {
+			long[] oldAccountIds = accountIds;
+			long[] oldSums = sums;
+			accountIds = emptySlots(oldAccountIds.length * 2);
+			sums = new long[oldAccountIds.length * 2];
+			for (int i = 0; i < oldAccountIds.length; i++) {
+				if (oldAccountIds[i] != NO_ACCOUNT) {
+					int slot = slotOf(oldAccountIds[i]);
+					accountIds[slot] = oldAccountIds[i];
+					sums[slot] = oldSums[i];
+				}
+			}
+		}
+
+		private static long[] emptySlots(int capacity) {
+			long[] slots = new long[capacity];
+			Arrays.fill(slots, NO_ACCOUNT);
+			return slots;
+		}
+
 	}
 }
@@ -2,59 +2,160 @@ package io.reflectoring.buckpal.account.domain;
 
 import java.math.BigInteger;
 
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
-import lombok.Value;
 
-@Value
-public class Money {
+/**
+ * 금액 값 객체.
+ * 대부분의 금액은 {@code long} 범위 안에 있으므로 원시 {@code long}으로 보관하고 overflow가 검사되는 연산을 사용합니다.
+ * {@code long} 범위를 벗어나는 경우에만 {@link BigInteger}로 대체합니다.
+ * <br>
+ * 항상 정규화된 형태(범위 안이면 {@code big == null})를 유지하므로 같은 금액은 표현도 같습니다.
+ */
+@EqualsAndHashCode
+public final class Money {
+
+	private static final int CACHE_LOW = -128;
+
+	private static final int CACHE_HIGH = 1024;
+
+	private static final Money[] CACHE = new Money[CACHE_HIGH - CACHE_LOW + 1];
+
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new Money(i + CACHE_LOW, null);
+		}
+	}
+
+	private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+
+	private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
 
 	public static Money ZERO = Money.of(0L);
 
-	@NonNull
-	private final BigInteger amount;
+	/**
+	 * The amount, if it fits into a {@code long}. Only meaningful when {@link #big} is {@code null}.
+	 */
+	private final long value;
+
+	/**
+	 * The amount, if it does not fit into a {@code long}; {@code null} otherwise.
+	 */
+	private final BigInteger big;
+
+	public Money(@NonNull BigInteger amount) {
+		if (fitsInLong(amount)) {
+			this.value = amount.longValue();
+			this.big = null;
+		} else {
+			this.value = 0L;
+			this.big = amount;
+		}
+	}
+
+	private Money(long value, BigInteger big) {
+		this.value = value;
+		this.big = big;
+	}
+
+	public BigInteger getAmount() {
+		return big == null ? BigInteger.valueOf(value) : big;
+	}
+
+	/**
+	 * Whether the amount fits into a {@code long}, so that {@link #longValue()} is exact.
+	 */
+	boolean hasLongValue() {
+		return big == null;
+	}
+
+	long longValue() {
+		return value;
+	}
 
 	public boolean isPositiveOrZero(){
-		return this.amount.compareTo(BigInteger.ZERO) >= 0;
+		return signum() >= 0;
 	}
 
 	public boolean isNegative(){
-		return this.amount.compareTo(BigInteger.ZERO) < 0;
+		return signum() < 0;
 	}
 
 	public boolean isPositive(){
-		return this.amount.compareTo(BigInteger.ZERO) > 0;
+		return signum() > 0;
 	}
 
 	public boolean isGreaterThanOrEqualTo(Money money){
-		return this.amount.compareTo(money.amount) >= 0;
+		return compareTo(money) >= 0;
 	}
 
 	public boolean isGreaterThan(Money money){
-		return this.amount.compareTo(money.amount) >= 1;
+		return compareTo(money) > 0;
 	}
 
 	public static Money of(long value) {
-		return new Money(BigInteger.valueOf(value));
+		if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+			return CACHE[(int) value - CACHE_LOW];
+		}
+		return new Money(value, null);
 	}
 
 	public static Money add(Money a, Money b) {
-		return new Money(a.amount.add(b.amount));
+		if (a.big == null && b.big == null) {
+			try {
+				return of(Math.addExact(a.value, b.value));
+			} catch (ArithmeticException overflow) {
+				// fall through to BigInteger arithmetic
+			}
+		}
+		return new Money(a.getAmount().add(b.getAmount()));
 	}
 
 	public Money minus(Money money){
-		return new Money(this.amount.subtract(money.amount));
+		return subtract(this, money);
 	}
 
 	public Money plus(Money money){
-		return new Money(this.amount.add(money.amount));
+		return add(this, money);
 	}
 
 	public static Money subtract(Money a, Money b) {
-		return new Money(a.amount.subtract(b.amount));
+		if (a.big == null && b.big == null) {
+			try {
+				return of(Math.subtractExact(a.value, b.value));
+			} catch (ArithmeticException overflow) {
+				// fall through to BigInteger arithmetic
+			}
+		}
+		return new Money(a.getAmount().subtract(b.getAmount()));
 	}
 
 	public Money negate(){
-		return new Money(this.amount.negate());
+		if (big == null && value != Long.MIN_VALUE) {
+			return of(-value);
+		}
+		// -Long.MIN_VALUE does not fit into a long
+		return new Money(getAmount().negate());
+	}
+
+	@Override
+	public String toString() {
+		return "Money(amount=" + (big == null ? Long.toString(value) : big.toString()) + ")";
+	}
+
+	private int signum() {
+		return big == null ? Long.signum(value) : big.signum();
+	}
+
+	private int compareTo(Money money) {
+		if (this.big == null && money.big == null) {
+			return Long.compare(this.value, money.value);
+		}
+		return this.getAmount().compareTo(money.getAmount());
+	}
+
+	private static boolean fitsInLong(BigInteger amount) {
+		return amount.compareTo(LONG_MIN) >= 0 && amount.compareTo(LONG_MAX) <= 0;
 	}
 
 }
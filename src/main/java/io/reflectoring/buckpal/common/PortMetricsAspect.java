@@ -0,0 +1,206 @@
+package io.reflectoring.buckpal.common;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records Micrometer metrics for every call into a port.
+ * <br>
+ * Applies to all beans annotated with {@link UseCase}, {@link PersistenceAdapter} or {@link WebAdapter}, and to all
+ * other beans implementing an interface from an {@code application.port} package (e.g. the account lock).
+ * Per port method it records
+ * <ul>
+ *   <li>{@value #CALLS} - a timer with a percentile histogram, tagged with the outcome,</li>
+ *   <li>{@value #ERRORS} - a counter of failed calls, tagged with the exception type,</li>
+ *   <li>{@value #IN_FLIGHT} - a gauge of the calls currently running.</li>
+ * </ul>
+ * All meters are tagged with {@code layer}, {@code port}, {@code method}, {@code signature} and {@code class}. The
+ * {@code port} tag is the name of the implemented port interface, or the class name for web adapters. The
+ * {@code signature} tag lists the parameter types, so that overloads get meters of their own. The {@code class} tag
+ * tells apart several implementations of the same port, e.g. a cache and the adapter behind it.
+ * <br>
+ * Ports returning a Reactor {@code Mono} or {@code Flux} are recorded by {@link ReactivePortMetrics}, if Reactor is on
+ * the classpath.
+ */
+@Aspect
+@Component
+public class PortMetricsAspect {
+
+  static final String CALLS = "buckpal.port.calls";
+
+  static final String ERRORS = "buckpal.port.errors";
+
+  static final String IN_FLIGHT = "buckpal.port.in.flight";
+
+  private final MeterRegistry registry;
+
+  private final Map<Method, PortMeters> meters = new ConcurrentHashMap<>();
+
+  private final ReactivePortMetrics reactivePortMetrics;
+
+  public PortMetricsAspect(MeterRegistry registry) {
+    this.registry = registry;
+    this.reactivePortMetrics = ClassUtils.isPresent(ReactivePortMetrics.MONO_CLASS_NAME, getClass().getClassLoader())
+        ? new ReactivePortMetrics()
+        : null;
+  }
+
+  @Around("@within(io.reflectoring.buckpal.common.UseCase)"
+      + " || @within(io.reflectoring.buckpal.common.PersistenceAdapter)"
+      + " || @within(io.reflectoring.buckpal.common.WebAdapter)"
+      + " || within(io.reflectoring.buckpal..application.port..*+)")
+  public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    PortMeters portMeters = meters.computeIfAbsent(
+        method, m -> new PortMeters(tagsOf(ClassUtils.getUserClass(joinPoint.getTarget()), m)));
+
+    if (reactivePortMetrics != null && reactivePortMetrics.isReactive(method)) {
+      return reactivePortMetrics.record(joinPoint, method, portMeters);
+    }
+
+    long start = portMeters.started();
+    try {
+      Object result = joinPoint.proceed();
+      portMeters.succeeded(start);
+      return result;
+    } catch (Throwable e) {
+      portMeters.failed(start, e);
+      throw e;
+    } finally {
+      portMeters.finished();
+    }
+  }
+
+  private Tags tagsOf(Class<?> targetClass, Method method) {
+    return Tags.of(
+        "layer", layerOf(targetClass),
+        "port", portOf(targetClass, method),
+        "method", method.getName(),
+        "signature", signatureOf(method),
+        "class", targetClass.getSimpleName());
+  }
+
+  /**
+   * Returns the simple names of the parameter types, e.g. {@code AccountId,AccountId}, to tell overloads apart.
+   */
+  private static String signatureOf(Method method) {
+    StringJoiner signature = new StringJoiner(",");
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      signature.add(parameterType.getSimpleName());
+    }
+    return signature.toString();
+  }
+
+  private String layerOf(Class<?> targetClass) {
+    if (AnnotatedElementUtils.hasAnnotation(targetClass, WebAdapter.class)) {
+      return "web-adapter";
+    }
+    if (AnnotatedElementUtils.hasAnnotation(targetClass, UseCase.class)) {
+      return "use-case";
+    }
+    if (AnnotatedElementUtils.hasAnnotation(targetClass, PersistenceAdapter.class)) {
+      return "persistence-adapter";
+    }
+    return "adapter";
+  }
+
+  /**
+   * Returns the simple name of the port interface declaring the given method, or the simple name of the
+   * class if the method does not belong to a port.
+   */
+  private String portOf(Class<?> targetClass, Method method) {
+    for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+      if (candidate.getPackage().getName().contains(".application.port.")
+          && ClassUtils.hasMethod(candidate, method.getName(), method.getParameterTypes())) {
+        return candidate.getSimpleName();
+      }
+    }
+    return targetClass.getSimpleName();
+  }
+
+  /**
+   * The meters of a single port method, looked up once so that a call does not have to go through the registry.
+   */
+  class PortMeters {
+
+    private final Tags tags;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Timer succeeded;
+
+    private final Timer failed;
+
+    private final Map<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+    PortMeters(Tags tags) {
+      this.tags = tags;
+      this.succeeded = timer("success");
+      this.failed = timer("error");
+      Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get)
+          .description("Calls into a port that are currently running")
+          .tags(tags)
+          .register(registry);
+    }
+
+    /**
+     * Counts a call as in flight and returns the time it started at.
+     */
+    long started() {
+      inFlight.incrementAndGet();
+      return registry.config().clock().monotonicTime();
+    }
+
+    void succeeded(long start) {
+      succeeded.record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    void failed(long start, Throwable e) {
+      failed.record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+      errorsOf(e.getClass()).increment();
+    }
+
+    void finished() {
+      inFlight.decrementAndGet();
+    }
+
+    private Counter errorsOf(Class<?> exceptionType) {
+      return errors.computeIfAbsent(exceptionType, type -> Counter.builder(ERRORS)
+          .description("Calls into a port that ended with an exception")
+          .tags(tags)
+          .tag("exception", type.getSimpleName())
+          .register(registry));
+    }
+
+    private Timer timer(String outcome) {
+      return Timer.builder(CALLS)
+          .description("Latency of calls into a port")
+          .tags(tags)
+          .tag("outcome", outcome)
+          .publishPercentileHistogram()
+          .minimumExpectedValue(Duration.ofNanos(100_000))
+          .maximumExpectedValue(Duration.ofSeconds(10))
+          .register(registry);
+    }
+
+  }
+
+}
@@ -0,0 +1,62 @@
+package io.reflectoring.buckpal.common;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the calls of ports returning a {@link Mono} or {@link Flux} for the {@link PortMetricsAspect}.
+ * <br>
+ * Such a port only does its work once its publisher is subscribed to, so the call is recorded from the subscription
+ * until the publisher completes or fails. A cancelled call is not recorded.
+ * <br>
+ * This is the only class of the aspect referring to Reactor. It is only loaded if Reactor is on the classpath, so
+ * that the blocking application does not need it.
+ */
+class ReactivePortMetrics {
+
+  static final String MONO_CLASS_NAME = "reactor.core.publisher.Mono";
+
+  boolean isReactive(Method method) {
+    return Mono.class.isAssignableFrom(method.getReturnType())
+        || Flux.class.isAssignableFrom(method.getReturnType());
+  }
+
+  Object record(ProceedingJoinPoint joinPoint, Method method, PortMetricsAspect.PortMeters portMeters) {
+    if (Mono.class.isAssignableFrom(method.getReturnType())) {
+      return Mono.defer(() -> recordUntilTerminated(Mono.from(proceed(joinPoint)), portMeters));
+    }
+    return Flux.defer(() -> recordUntilTerminated(Flux.from(proceed(joinPoint)), portMeters));
+  }
+
+  private <T> Mono<T> recordUntilTerminated(Mono<T> mono, PortMetricsAspect.PortMeters portMeters) {
+    long start = portMeters.started();
+    return mono
+        .doOnSuccess(value -> portMeters.succeeded(start))
+        .doOnError(e -> portMeters.failed(start, e))
+        .doFinally(signal -> portMeters.finished());
+  }
+
+  private <T> Flux<T> recordUntilTerminated(Flux<T> flux, PortMetricsAspect.PortMeters portMeters) {
+    long start = portMeters.started();
+    return flux
+        .doOnComplete(() -> portMeters.succeeded(start))
+        .doOnError(e -> portMeters.failed(start, e))
+        .doFinally(signal -> portMeters.finished());
+  }
+
+  /**
+   * Calls the port method of a reactive port, turning a failure of the call itself into a failed publisher.
+   */
+  private static Publisher<?> proceed(ProceedingJoinPoint joinPoint) {
+    try {
+      return (Publisher<?>) joinPoint.proceed();
+    } catch (Throwable e) {
+      return Mono.error(e);
+    }
+  }
+
+}
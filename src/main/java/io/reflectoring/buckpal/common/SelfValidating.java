@@ -4,26 +4,30 @@ import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validation;
 import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 import java.util.Set;
 
 public abstract class SelfValidating<T> {
 
-  private Validator validator;
-
-  public SelfValidating() {
-    ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-    validator = factory.getValidator();
-  }
-
   /**
    * Evaluates all Bean Validations on the attributes of this
    * instance.
    */
   protected void validateSelf() {
-    Set<ConstraintViolation<T>> violations = validator.validate((T) this);
+    Set<ConstraintViolation<T>> violations = ValidatorHolder.VALIDATOR.validate((T) this);
     if (!violations.isEmpty()) {
       throw new ConstraintViolationException(violations);
     }
   }
+
+  /**
+   * Bootstrapping a {@link javax.validation.ValidatorFactory} is expensive, while a {@link Validator} is thread-safe
+   * and caches the constraint metadata of each class it has seen. So all self-validating objects share one
+   * validator, which is created on first use (the JVM guarantees the holder class is initialised exactly once).
+   */
+  private static class ValidatorHolder {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+  }
+
 }
@@ -0,0 +1,78 @@
+package io.reflectoring.buckpal.common;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads (JDK 21) while the application is still compiled for Java 11. The threads are created by
+ * a {@link Provider} from the {@code java21} source set, which a build with {@code -PvirtualThreads} compiles with
+ * a JDK 21 toolchain and puts on the runtime classpath. The opt-in virtual thread mode works as soon as the
+ * application runs on JDK 21 or later with that provider, and fails on startup with a clear message otherwise.
+ */
+public final class VirtualThreads {
+
+  private static final Provider PROVIDER = loadProvider();
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * @return whether virtual threads can be created, i.e. the provider is on the classpath and this is JDK 21 or
+   * later
+   */
+  public static boolean isSupported() {
+    return PROVIDER != null;
+  }
+
+  /**
+   * @return a factory of virtual threads named {@code prefix} followed by a counter starting at 1
+   * @throws IllegalStateException if virtual threads are not supported
+   */
+  public static ThreadFactory factory(String prefix) {
+    return provider().factory(prefix);
+  }
+
+  /**
+   * @return an executor that starts a new virtual thread for each task, without a limit
+   * @throws IllegalStateException if virtual threads are not supported
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+    Provider provider = provider();
+    return provider.newThreadPerTaskExecutor(provider.factory(prefix));
+  }
+
+  private static Provider provider() {
+    if (PROVIDER == null) {
+      throw new IllegalStateException("virtual threads need JDK 21 or later and a build with -PvirtualThreads, "
+          + "but this is JDK " + System.getProperty("java.version"));
+    }
+    return PROVIDER;
+  }
+
+  private static Provider loadProvider() {
+    try {
+      return ServiceLoader.load(Provider.class, VirtualThreads.class.getClassLoader())
+          .findFirst()
+          .orElse(null);
+    } catch (ServiceConfigurationError | LinkageError e) {
+      // the provider is compiled for Java 21, an older JDK refuses to load it
+      return null;
+    }
+  }
+
+  /**
+   * Creates virtual threads with the JDK 21 API. The implementation is compiled for Java 21, so it lives outside of
+   * {@code io.reflectoring.buckpal}: Spring 5.3 fails on class files newer than Java 17 while scanning for
+   * components.
+   */
+  public interface Provider {
+
+    ThreadFactory factory(String prefix);
+
+    ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory);
+
+  }
+
+}
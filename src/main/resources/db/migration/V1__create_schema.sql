@@ -0,0 +1,28 @@
+-- The schema as Hibernate used to create it from the JPA entities.
+
+create sequence hibernate_sequence start with 1 increment by 1;
+
+create sequence activity_sequence start with 1 increment by 50;
+
+create table account (
+	id bigint not null,
+	primary key (id)
+);
+
+create table activity (
+	id bigint not null,
+	timestamp timestamp,
+	owner_account_id bigint,
+	source_account_id bigint,
+	target_account_id bigint,
+	amount bigint,
+	primary key (id)
+);
+
+create table balance_snapshot (
+	account_id bigint not null,
+	timestamp timestamp not null,
+	deposit_balance bigint,
+	withdrawal_balance bigint,
+	primary key (account_id, timestamp)
+);
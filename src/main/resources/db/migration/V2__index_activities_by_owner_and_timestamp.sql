@@ -0,0 +1,6 @@
+-- All queries on activity select the activities of one owner within a timestamp range, and only read
+-- source_account_id, target_account_id and amount besides. With those columns in the index, loading
+-- an account, adding up its deposits and withdrawals and rolling balance snapshots forward never
+-- touch the table rows.
+create index activity_owner_timestamp_idx
+	on activity (owner_account_id, timestamp, source_account_id, target_account_id, amount);
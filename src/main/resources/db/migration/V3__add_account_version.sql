@@ -0,0 +1,2 @@
+-- Bumped whenever activities are added to an account, to detect concurrent transfers without locking.
+alter table account add column version bigint default 0 not null;
@@ -0,0 +1,10 @@
+-- The outcomes of transfers sent with an idempotency key. Rows expire after a fixed time and are deleted by the
+-- persistence adapter; the index on recorded_at serves that deletion and loading the recent keys on startup.
+create table idempotency_key (
+	idempotency_key varchar(255) not null,
+	recorded_at timestamp not null,
+	outcome varchar(32) not null,
+	primary key (idempotency_key)
+);
+
+create index idempotency_key_recorded_at_idx on idempotency_key (recorded_at);
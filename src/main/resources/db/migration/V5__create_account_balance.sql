@@ -0,0 +1,19 @@
+-- The balance projection of the ledger mode: per account, the sums of all its deposits and withdrawals. Kept up to
+-- date with every activity while the application runs with the ledger profile. Accounts created later get theirs
+-- when the ledger mode first loads them. The replay tool rebuilds them from the activity table, which is needed
+-- after activities were added without the ledger profile.
+create table account_balance (
+	account_id bigint not null,
+	deposit_balance bigint not null,
+	withdrawal_balance bigint not null,
+	primary key (account_id)
+);
+
+insert into account_balance (account_id, deposit_balance, withdrawal_balance)
+select acc.id,
+	coalesce(sum(case when act.target_account_id = acc.id then act.amount end), 0),
+	coalesce(sum(case when act.source_account_id = acc.id then act.amount end), 0)
+from account acc
+left join activity act
+on act.owner_account_id = acc.id
+group by acc.id;
@@ -16,6 +16,8 @@ class DependencyRuleTests {
 				.withAdaptersLayer("adapter")
 				.incoming("in.web")
 				.outgoing("out.persistence")
+				.outgoing("out.journal")
+				.outgoing("out.r2dbc")
 				.and()
 
 				.withApplicationLayer("application")
@@ -0,0 +1,73 @@
+package io.reflectoring.buckpal;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+import static org.assertj.core.api.BDDAssertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class IdempotentTransfersSystemTest {
+
+	private static final AccountId SOURCE_ACCOUNT_ID = new AccountId(11L);
+
+	private static final AccountId TARGET_ACCOUNT_ID = new AccountId(12L);
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private LoadAccountPort loadAccountPort;
+
+	@Test
+	@Sql("IdempotentTransfersSystemTest.sql")
+	void retriedTransferIsAppliedOnce() {
+
+		String idempotencyKey = UUID.randomUUID().toString();
+
+		ResponseEntity<Object> first = whenSendMoney(Money.of(300L), idempotencyKey);
+		ResponseEntity<Object> retried = whenSendMoney(Money.of(300L), idempotencyKey);
+
+		then(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+		then(retried.getStatusCode()).isEqualTo(HttpStatus.OK);
+		then(balanceOf(SOURCE_ACCOUNT_ID)).isEqualTo(Money.of(700L));
+		then(balanceOf(TARGET_ACCOUNT_ID)).isEqualTo(Money.of(-700L));
+
+		whenSendMoney(Money.of(300L), UUID.randomUUID().toString());
+
+		then(balanceOf(SOURCE_ACCOUNT_ID)).isEqualTo(Money.of(400L));
+	}
+
+	private ResponseEntity<Object> whenSendMoney(Money amount, String idempotencyKey) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("Content-Type", "application/json");
+		headers.add("Idempotency-Key", idempotencyKey);
+
+		return restTemplate.exchange(
+				"/accounts/send/{sourceAccountId}/{targetAccountId}/{amount}",
+				HttpMethod.POST,
+				new HttpEntity<Void>(null, headers),
+				Object.class,
+				SOURCE_ACCOUNT_ID.getValue(),
+				TARGET_ACCOUNT_ID.getValue(),
+				amount.getAmount());
+	}
+
+	private Money balanceOf(AccountId accountId) {
+		return loadAccountPort.loadAccount(accountId, LocalDateTime.now()).calculateBalance();
+	}
+
+}
@@ -0,0 +1,67 @@
+package io.reflectoring.buckpal;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import static org.assertj.core.api.BDDAssertions.*;
+
+@SpringBootTest(properties = {
+		"buckpal.account-lock.type=optimistic",
+		"buckpal.transfer-retry.max-attempts=20"})
+class OptimisticLockingSystemTest {
+
+	private static final AccountId SOURCE_ACCOUNT_ID = new AccountId(5L);
+
+	private static final AccountId TARGET_ACCOUNT_ID = new AccountId(6L);
+
+	@Autowired
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	@Autowired
+	private LoadAccountPort loadAccountPort;
+
+	@Test
+	@Sql("OptimisticLockingSystemTest.sql")
+	void concurrentTransfersDoNotOverdrawAccount() throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Boolean>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < 8; i++) {
+				Callable<Boolean> transfer = () -> sendMoneyUseCase.sendMoney(
+						new SendMoneyCommand(SOURCE_ACCOUNT_ID, TARGET_ACCOUNT_ID, Money.of(300L)));
+				results.add(executor.submit(transfer));
+			}
+			int succeeded = 0;
+			for (Future<Boolean> result : results) {
+				if (result.get()) {
+					succeeded++;
+				}
+			}
+
+			then(succeeded).isEqualTo(3);
+		} finally {
+			executor.shutdown();
+		}
+
+		then(loadAccountPort.loadAccount(SOURCE_ACCOUNT_ID, LocalDateTime.now()).calculateBalance())
+				.isEqualTo(Money.of(100L));
+		then(loadAccountPort.loadAccount(TARGET_ACCOUNT_ID, LocalDateTime.now()).calculateBalance())
+				.isEqualTo(Money.of(-100L));
+	}
+
+}
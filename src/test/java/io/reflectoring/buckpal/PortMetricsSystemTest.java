@@ -0,0 +1,40 @@
+package io.reflectoring.buckpal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+import static org.assertj.core.api.BDDAssertions.*;
+
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class PortMetricsSystemTest {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	@Sql("PortMetricsSystemTest.sql")
+	void exposesPortMetricsForScraping() {
+
+		restTemplate.postForEntity("/accounts/send/{sourceAccountId}/{targetAccountId}/{amount}", null, Void.class, 3L, 4L, 500L);
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+		then(response.getStatusCode())
+				.isEqualTo(HttpStatus.OK);
+
+		then(response.getBody())
+				.contains("buckpal_port_calls_seconds_bucket{application=\"buckpal\",class=\"SendMoneyService\",layer=\"use-case\",method=\"sendMoney\",outcome=\"success\",port=\"SendMoneyUseCase\",signature=\"SendMoneyCommand\"")
+				.contains("buckpal_port_calls_seconds_count{application=\"buckpal\",class=\"CachingAccountPersistenceAdapter\",layer=\"persistence-adapter\",method=\"loadAccounts\",outcome=\"success\",port=\"LoadAccountPort\",signature=\"List,LocalDateTime\",}")
+				.contains("buckpal_port_calls_seconds_count{application=\"buckpal\",class=\"StripedAccountLock\",layer=\"adapter\",method=\"lockAccounts\",outcome=\"success\",port=\"AccountLock\",signature=\"AccountId,AccountId\",}")
+				.contains("cache_gets_total{application=\"buckpal\",cache=\"accounts\",result=\"miss\",}")
+				.contains("buckpal_port_in_flight{application=\"buckpal\",class=\"SendMoneyController\",layer=\"web-adapter\",method=\"sendMoney\",port=\"SendMoneyController\",signature=\"Long,Long,Long,String\",}");
+	}
+
+}
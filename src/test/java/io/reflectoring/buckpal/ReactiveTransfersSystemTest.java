@@ -0,0 +1,81 @@
+package io.reflectoring.buckpal;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import io.reflectoring.buckpal.account.application.port.out.ReactiveLoadAccountPort;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import static org.assertj.core.api.BDDAssertions.*;
+
+@SpringBootTest(
+		webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = "buckpal.transfer-retry.max-attempts=20")
+@ActiveProfiles("reactive")
+class ReactiveTransfersSystemTest {
+
+	private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private ReactiveLoadAccountPort loadAccountPort;
+
+	@Test
+	@Sql("ReactiveTransfersSystemTest.sql")
+	void sendMoney() {
+
+		webTestClient.post()
+				.uri("/accounts/send/reactive/{sourceAccountId}/{targetAccountId}/{amount}", 21L, 22L, 300L)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.success").isEqualTo(true)
+				.jsonPath("$.status").isEqualTo("SUCCEEDED");
+
+		then(balanceOf(new AccountId(21L))).isEqualTo(Money.of(700L));
+		then(balanceOf(new AccountId(22L))).isEqualTo(Money.of(-700L));
+	}
+
+	@Test
+	@Sql("ReactiveTransfersSystemTest_stream.sql")
+	void concurrentTransfersOfStreamDoNotOverdrawAccount() {
+		StringBuilder transfers = new StringBuilder();
+		for (int i = 0; i < 5; i++) {
+			transfers.append("{\"sourceAccountId\":23,\"targetAccountId\":24,\"amount\":300}\n");
+		}
+
+		List<Map<String, Object>> responses = webTestClient.post()
+				.uri("/accounts/send/reactive/batch")
+				.contentType(APPLICATION_NDJSON)
+				.accept(APPLICATION_NDJSON)
+				.bodyValue(transfers.toString())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(new ParameterizedTypeReference<Map<String, Object>>() {
+				})
+				.returnResult()
+				.getResponseBody();
+
+		then(responses).extracting(response -> response.get("index")).containsExactly(0, 1, 2, 3, 4);
+		then(responses).filteredOn(response -> Boolean.TRUE.equals(response.get("success"))).hasSize(3);
+		then(balanceOf(new AccountId(23L))).isEqualTo(Money.of(100L));
+		then(balanceOf(new AccountId(24L))).isEqualTo(Money.of(-100L));
+	}
+
+	private Money balanceOf(AccountId accountId) {
+		return loadAccountPort.loadAccount(accountId, LocalDateTime.now()).block().calculateBalance();
+	}
+
+}
@@ -0,0 +1,70 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import javax.persistence.EntityNotFoundException;
+
+import io.reflectoring.buckpal.account.application.port.in.GetAccountBalanceQuery;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.mockito.BDDMockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = GetAccountBalanceController.class)
+class GetAccountBalanceControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private GetAccountBalanceQuery getAccountBalanceQuery;
+
+	@Test
+	void returnsBalanceWithETag() throws Exception {
+		given(getAccountBalanceQuery.getAccountBalance(new AccountId(42L)))
+				.willReturn(Money.of(500L));
+
+		mockMvc.perform(get("/accounts/{accountId}/balance", 42L))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("ETag"))
+				.andExpect(jsonPath("$.accountId").value(42))
+				.andExpect(jsonPath("$.balance").value(500));
+	}
+
+	@Test
+	void returnsNotModifiedWhileBalanceIsUnchanged() throws Exception {
+		given(getAccountBalanceQuery.getAccountBalance(new AccountId(42L)))
+				.willReturn(Money.of(500L));
+		String eTag = mockMvc.perform(get("/accounts/{accountId}/balance", 42L))
+				.andReturn()
+				.getResponse()
+				.getHeader("ETag");
+
+		mockMvc.perform(get("/accounts/{accountId}/balance", 42L)
+				.header("If-None-Match", eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+
+		given(getAccountBalanceQuery.getAccountBalance(new AccountId(42L)))
+				.willReturn(Money.of(400L));
+
+		mockMvc.perform(get("/accounts/{accountId}/balance", 42L)
+				.header("If-None-Match", eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.balance").value(400));
+	}
+
+	@Test
+	void returnsNotFoundForUnknownAccount() throws Exception {
+		given(getAccountBalanceQuery.getAccountBalance(new AccountId(42L)))
+				.willThrow(new EntityNotFoundException());
+
+		mockMvc.perform(get("/accounts/{accountId}/balance", 42L))
+				.andExpect(status().isNotFound());
+	}
+
+}
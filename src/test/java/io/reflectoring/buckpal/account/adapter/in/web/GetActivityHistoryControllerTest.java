@@ -0,0 +1,93 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import javax.persistence.EntityNotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import io.reflectoring.buckpal.account.application.port.in.GetActivityHistoryQuery;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.Activity.ActivityId;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import static io.reflectoring.buckpal.common.ActivityTestData.*;
+import static org.mockito.BDDMockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = GetActivityHistoryController.class)
+class GetActivityHistoryControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private GetActivityHistoryQuery getActivityHistoryQuery;
+
+	@Test
+	void streamsActivitiesAsNdjson() throws Exception {
+		willAnswer(invocation -> {
+			Consumer<Activity> consumer = invocation.getArgument(3);
+			consumer.accept(activity(7L, LocalDateTime.of(2019, 8, 9, 10, 0), 500L));
+			consumer.accept(activity(9L, LocalDateTime.of(2019, 8, 10, 10, 0), 300L));
+			return null;
+		}).given(getActivityHistoryQuery).streamActivities(eq(new AccountId(42L)), isNull(), eq(Long.MAX_VALUE), any());
+
+		mockMvc.perform(get("/accounts/{accountId}/activities", 42L))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(SendMoneyBatchController.APPLICATION_NDJSON_VALUE))
+				.andExpect(content().string(
+						"{\"id\":7,\"timestamp\":\"2019-08-09T10:00:00\",\"sourceAccountId\":42,\"targetAccountId\":41,\"amount\":500}\n"
+						+ "{\"id\":9,\"timestamp\":\"2019-08-10T10:00:00\",\"sourceAccountId\":42,\"targetAccountId\":41,\"amount\":300}\n"));
+	}
+
+	@Test
+	void continuesAfterCursor() throws Exception {
+		mockMvc.perform(get("/accounts/{accountId}/activities", 42L)
+				.param("afterTimestamp", "2019-08-09T10:00:00")
+				.param("afterId", "7")
+				.param("limit", "100"))
+				.andExpect(status().isOk());
+
+		then(getActivityHistoryQuery).should().streamActivities(
+				eq(new AccountId(42L)),
+				eq(new ActivityCursor(LocalDateTime.of(2019, 8, 9, 10, 0), new ActivityId(7L))),
+				eq(100L),
+				any());
+	}
+
+	@Test
+	void rejectsIncompleteCursor() throws Exception {
+		mockMvc.perform(get("/accounts/{accountId}/activities", 42L)
+				.param("afterId", "7"))
+				.andExpect(status().isBadRequest());
+
+		then(getActivityHistoryQuery).shouldHaveNoInteractions();
+	}
+
+	@Test
+	void returnsNotFoundForUnknownAccount() throws Exception {
+		willThrow(new EntityNotFoundException())
+				.given(getActivityHistoryQuery).streamActivities(any(), any(), anyLong(), any());
+
+		mockMvc.perform(get("/accounts/{accountId}/activities", 42L))
+				.andExpect(status().isNotFound());
+	}
+
+	private Activity activity(long id, LocalDateTime timestamp, long amount) {
+		return defaultActivity()
+				.withId(new ActivityId(id))
+				.withSourceAccount(new AccountId(42L))
+				.withTargetAccount(new AccountId(41L))
+				.withTimestamp(timestamp)
+				.withMoney(Money.of(amount))
+				.build();
+	}
+
+}
@@ -0,0 +1,71 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyAsyncUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferRejectedException;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.mockito.BDDMockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SendMoneyAsyncController.class)
+class SendMoneyAsyncControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private SendMoneyAsyncUseCase sendMoneyAsyncUseCase;
+
+	@Test
+	void testSendMoneyAsync() throws Exception {
+		CompletableFuture<TransferResult> result = new CompletableFuture<>();
+		given(sendMoneyAsyncUseCase.sendMoney(any(SendMoneyCommand.class))).willReturn(result);
+
+		MvcResult started = mockMvc.perform(post("/accounts/send/async/{sourceAccountId}/{targetAccountId}/{amount}",
+				41L, 42L, 500)
+				.header("Idempotency-Key", "transfer-1"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		result.complete(TransferResult.of(Status.INSUFFICIENT_BALANCE));
+
+		mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.success").value(false))
+				.andExpect(jsonPath("$.status").value("INSUFFICIENT_BALANCE"));
+
+		then(sendMoneyAsyncUseCase).should()
+				.sendMoney(eq(new SendMoneyCommand(
+						new AccountId(41L),
+						new AccountId(42L),
+						Money.of(500L),
+						"transfer-1")));
+	}
+
+	@Test
+	void testRejectedTransfer() throws Exception {
+		given(sendMoneyAsyncUseCase.sendMoney(any(SendMoneyCommand.class))).willReturn(
+				CompletableFuture.failedFuture(new TransferRejectedException("too many pending transfers", null)));
+
+		MvcResult started = mockMvc.perform(post("/accounts/send/async/{sourceAccountId}/{targetAccountId}/{amount}",
+				41L, 42L, 500))
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "1"));
+	}
+
+}
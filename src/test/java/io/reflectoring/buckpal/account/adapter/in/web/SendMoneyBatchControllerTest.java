@@ -0,0 +1,108 @@
+package io.reflectoring.buckpal.account.adapter.in.web;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyBatchUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.BDDMockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SendMoneyBatchController.class)
+@Import(SendMoneyBatchControllerTest.SmallBatches.class)
+class SendMoneyBatchControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private SendMoneyBatchUseCase sendMoneyBatchUseCase;
+
+	@Test
+	void testSendMoneyBatchAsJsonArray() throws Exception {
+		given(sendMoneyBatchUseCase.sendMoney(anyList())).willReturn(List.of(
+				TransferResult.of(Status.SUCCEEDED),
+				TransferResult.of(Status.INSUFFICIENT_BALANCE)));
+
+		mockMvc.perform(post("/accounts/send/batch")
+				.header("Content-Type", "application/json")
+				.content("[" +
+						"{\"sourceAccountId\": 41, \"targetAccountId\": 42, \"amount\": 500}," +
+						"{\"sourceAccountId\": 41}," +
+						"{\"sourceAccountId\": 42, \"targetAccountId\": 41, \"amount\": 700}" +
+						"]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status").value("SUCCEEDED"))
+				.andExpect(jsonPath("$[0].success").value(true))
+				.andExpect(jsonPath("$[1].status").value("INVALID"))
+				.andExpect(jsonPath("$[2].index").value(2))
+				.andExpect(jsonPath("$[2].status").value("INSUFFICIENT_BALANCE"));
+
+		then(sendMoneyBatchUseCase).should()
+				.sendMoney(eq(List.of(
+						new SendMoneyCommand(new AccountId(41L), new AccountId(42L), Money.of(500L)),
+						new SendMoneyCommand(new AccountId(42L), new AccountId(41L), Money.of(700L)))));
+	}
+
+	@Test
+	void testSendMoneyBatchAsNdjson() throws Exception {
+		given(sendMoneyBatchUseCase.sendMoney(anyList())).willReturn(List.of(
+				TransferResult.of(Status.SUCCEEDED),
+				TransferResult.of(Status.SUCCEEDED)));
+
+		mockMvc.perform(post("/accounts/send/batch")
+				.header("Content-Type", "application/x-ndjson")
+				.content("{\"sourceAccountId\": 41, \"targetAccountId\": 42, \"amount\": 500}\n" +
+						"{\"sourceAccountId\": 42, \"targetAccountId\": 41, \"amount\": 700}\n"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[1].status").value("SUCCEEDED"));
+
+		then(sendMoneyBatchUseCase).should()
+				.sendMoney(eq(List.of(
+						new SendMoneyCommand(new AccountId(41L), new AccountId(42L), Money.of(500L)),
+						new SendMoneyCommand(new AccountId(42L), new AccountId(41L), Money.of(700L)))));
+	}
+
+	@Test
+	void rejectsBatchLargerThanMaximum() throws Exception {
+		mockMvc.perform(post("/accounts/send/batch")
+				.header("Content-Type", "application/json")
+				.content("[" +
+						"{\"sourceAccountId\": 41, \"targetAccountId\": 42, \"amount\": 500}," +
+						"{\"sourceAccountId\": 41, \"targetAccountId\": 42, \"amount\": 500}," +
+						"{\"sourceAccountId\": 41, \"targetAccountId\": 42, \"amount\": 500}," +
+						"{\"sourceAccountId\": 41, \"targetAccountId\": 42, \"amount\": 500}" +
+						"]"))
+				.andExpect(status().isPayloadTooLarge());
+
+		mockMvc.perform(post("/accounts/send/batch")
+				.header("Content-Type", "application/x-ndjson")
+				.content("{\"sourceAccountId\": 41, \"targetAccountId\": 42, \"amount\": 500}\n".repeat(4)))
+				.andExpect(status().isPayloadTooLarge());
+
+		then(sendMoneyBatchUseCase).shouldHaveNoInteractions();
+	}
+
+	static class SmallBatches {
+
+		@Bean
+		SendMoneyBatchProperties sendMoneyBatchProperties() {
+			return new SendMoneyBatchProperties(3);
+		}
+
+	}
+
+}
@@ -37,4 +37,21 @@ class SendMoneyControllerTest {
 						Money.of(500L))));
 	}
 
+	@Test
+	void testSendMoneyWithIdempotencyKey() throws Exception {
+
+		mockMvc.perform(post("/accounts/send/{sourceAccountId}/{targetAccountId}/{amount}",
+				41L, 42L, 500)
+				.header("Content-Type", "application/json")
+				.header("Idempotency-Key", "transfer-1"))
+				.andExpect(status().isOk());
+
+		then(sendMoneyUseCase).should()
+				.sendMoney(eq(new SendMoneyCommand(
+						new AccountId(41L),
+						new AccountId(42L),
+						Money.of(500L),
+						"transfer-1")));
+	}
+
 }
@@ -0,0 +1,367 @@
+package io.reflectoring.buckpal.account.adapter.out.journal;
+
+import javax.persistence.EntityNotFoundException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static io.reflectoring.buckpal.common.AccountTestData.*;
+import static io.reflectoring.buckpal.common.ActivityTestData.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The scenarios of the {@code AccountPersistenceAdapterTest}, run against the journal, plus recovery and failures. The tests
+ * run outside of a transaction, so that they see when the journal is appended to.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JournalAccountPersistenceAdapterTest {
+
+	private static final AccountId ACCOUNT_1 = new AccountId(1L);
+
+	private static final AccountId ACCOUNT_2 = new AccountId(2L);
+
+	@TempDir
+	Path directory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private JournalAccountPersistenceAdapter adapterUnderTest;
+
+	@BeforeEach
+	void openJournal() {
+		reopen();
+	}
+
+	@AfterEach
+	void closeJournal() {
+		adapterUnderTest.close();
+	}
+
+	@Test
+	void loadsAccount() {
+		givenTwoAccountsWithActivities();
+
+		Account account = adapterUnderTest.loadAccount(ACCOUNT_1, LocalDateTime.of(2018, 8, 10, 0, 0));
+
+		assertThat(account.getActivityWindow().getActivities()).hasSize(2);
+		assertThat(account.calculateBalance()).isEqualTo(Money.of(500));
+	}
+
+	@Test
+	void loadsAccountsTogether() {
+		givenTwoAccountsWithActivities();
+
+		List<Account> accounts = adapterUnderTest.loadAccounts(
+				List.of(ACCOUNT_1, ACCOUNT_2),
+				LocalDateTime.of(2018, 8, 10, 0, 0));
+
+		assertThat(accounts).hasSize(2);
+		assertThat(accounts.get(0).getId()).contains(ACCOUNT_1);
+		assertThat(accounts.get(0).calculateBalance()).isEqualTo(Money.of(500));
+		assertThat(accounts.get(1).getId()).contains(ACCOUNT_2);
+		assertThat(accounts.get(1).getActivityWindow().getActivities()).hasSize(2);
+		assertThat(accounts.get(1).calculateBalance()).isEqualTo(Money.of(-500));
+	}
+
+	@Test
+	void loadsAccountWithActivitiesAppendedOutOfTimestampOrder() {
+		givenTwoAccountsWithActivities();
+		// appended last, but before the baseline date and before activities that are in the window
+		givenTransfer(ACCOUNT_2, ACCOUNT_1, LocalDateTime.of(2018, 8, 9, 12, 0), 7L);
+		givenTransfer(ACCOUNT_2, ACCOUNT_1, LocalDateTime.of(2019, 8, 9, 11, 0), 3L);
+
+		Account account = adapterUnderTest.loadAccount(ACCOUNT_1, LocalDateTime.of(2019, 1, 1, 0, 0));
+
+		assertThat(account.getActivityWindow().getActivities())
+				.extracting(Activity::getTimestamp)
+				.containsExactly(
+						LocalDateTime.of(2019, 8, 9, 9, 0),
+						LocalDateTime.of(2019, 8, 9, 10, 0),
+						LocalDateTime.of(2019, 8, 9, 11, 0));
+		assertThat(account.getBaselineBalance()).isEqualTo(Money.of(507L));
+		assertThat(account.calculateBalance()).isEqualTo(Money.of(510L));
+	}
+
+	@Test
+	void failsToLoadUnknownAccount() {
+		givenTwoAccountsWithActivities();
+
+		assertThatThrownBy(() -> adapterUnderTest.loadAccount(new AccountId(3L), LocalDateTime.now()))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+
+	@Test
+	void loadsExistingAccountIds() {
+		givenTwoAccountsWithActivities();
+
+		assertThat(adapterUnderTest.loadExistingAccountIds(List.of(ACCOUNT_1, ACCOUNT_2, new AccountId(3L))))
+				.containsExactlyInAnyOrder(ACCOUNT_1, ACCOUNT_2);
+	}
+
+	@Test
+	void loadsCurrentBalanceOnly() {
+		givenTwoAccountsWithActivities();
+
+		Money balance = adapterUnderTest.loadBalance(ACCOUNT_1);
+
+		assertThat(balance).isEqualTo(
+				adapterUnderTest.loadAccount(ACCOUNT_1, LocalDateTime.now()).calculateBalance());
+	}
+
+	@Test
+	void failsToLoadBalanceOfUnknownAccount() {
+		givenTwoAccountsWithActivities();
+
+		assertThatThrownBy(() -> adapterUnderTest.loadBalance(new AccountId(3L)))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+
+	@Test
+	void updatesActivities() {
+		Account account = defaultAccount()
+				.withBaselineBalance(Money.of(555L))
+				.withActivityWindow(new ActivityWindow(
+						defaultActivity()
+								.withId(null)
+								.withMoney(Money.of(1L)).build()))
+				.build();
+
+		adapterUnderTest.updateActivities(account);
+
+		Account saved = adapterUnderTest.loadAccount(new AccountId(42L), LocalDateTime.now().minusDays(1));
+		assertThat(saved.getActivityWindow().getActivities()).hasSize(1);
+		assertThat(saved.getActivityWindow().getActivities().get(0).getMoney()).isEqualTo(Money.of(1L));
+	}
+
+	@Test
+	void appendsActivitiesOnlyWhenTransactionCommits() {
+		adapterUnderTest.openAccount(ACCOUNT_1);
+		Account account = adapterUnderTest.loadAccount(ACCOUNT_1, LocalDateTime.now().minusDays(1));
+		account.deposit(Money.of(100L), ACCOUNT_2);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			adapterUnderTest.updateActivities(account);
+
+			assertThat(adapterUnderTest.loadBalance(ACCOUNT_1)).isEqualTo(Money.of(0L));
+		});
+
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_1)).isEqualTo(Money.of(100L));
+	}
+
+	@Test
+	void doesNotAppendActivitiesOfRolledBackTransaction() {
+		adapterUnderTest.openAccount(ACCOUNT_1);
+		Account account = adapterUnderTest.loadAccount(ACCOUNT_1, LocalDateTime.now().minusDays(1));
+		account.deposit(Money.of(100L), ACCOUNT_2);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			adapterUnderTest.updateActivities(account);
+			status.setRollbackOnly();
+		});
+
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_1)).isEqualTo(Money.of(0L));
+		reopen();
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_1)).isEqualTo(Money.of(0L));
+	}
+
+	@Test
+	void closesAccountsWhoseCommittedActivitiesCouldNotBeAppended() throws IOException {
+		// fills the first segment, so that the next append has to add one
+		adapterUnderTest.openAccount(ACCOUNT_1);
+		adapterUnderTest.openAccount(ACCOUNT_2);
+		givenTransfer(ACCOUNT_1, ACCOUNT_2, LocalDateTime.of(2018, 8, 8, 8, 0), 500L);
+		Account account = adapterUnderTest.loadAccount(ACCOUNT_2, LocalDateTime.now().minusDays(1));
+		account.deposit(Money.of(100L), ACCOUNT_1);
+		deleteJournalDirectory();
+
+		assertThatThrownBy(() -> new TransactionTemplate(transactionManager)
+				.executeWithoutResult(status -> adapterUnderTest.updateActivities(account)))
+				.isInstanceOf(UncheckedIOException.class);
+
+		assertThatThrownBy(() -> adapterUnderTest.loadBalance(ACCOUNT_2))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> adapterUnderTest.loadAccount(ACCOUNT_2, LocalDateTime.now()))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> adapterUnderTest.updateActivities(account))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_1)).isEqualTo(Money.of(-500L));
+	}
+
+	@Test
+	void loadsWindowStartOfAccountOpenedByItsFirstActivity() {
+		LocalDateTime first = LocalDateTime.of(2018, 8, 8, 8, 0);
+		LocalDateTime second = LocalDateTime.of(2018, 8, 9, 10, 0);
+		adapterUnderTest.updateActivities(transfer(ACCOUNT_1, ACCOUNT_2, ACCOUNT_1, first, 500L));
+		adapterUnderTest.updateActivities(transfer(ACCOUNT_1, ACCOUNT_2, ACCOUNT_1, second, 500L));
+		adapterUnderTest.openAccount(ACCOUNT_2);
+		adapterUnderTest.updateActivities(transfer(ACCOUNT_2, ACCOUNT_2, ACCOUNT_1, first, 500L));
+
+		assertThat(adapterUnderTest.loadWindowStart(ACCOUNT_1, 2)).isEqualTo(Optional.of(first));
+		assertThat(adapterUnderTest.loadWindowStart(ACCOUNT_1, 1)).isEqualTo(Optional.of(second));
+		assertThat(adapterUnderTest.loadWindowStart(ACCOUNT_1, 3)).isEmpty();
+		assertThat(adapterUnderTest.loadWindowStart(ACCOUNT_2, 1)).isEqualTo(Optional.of(first));
+		assertThat(adapterUnderTest.loadWindowStart(ACCOUNT_2, 2)).isEmpty();
+	}
+
+	@Test
+	void streamsActivityHistoryInTimestampOrder() {
+		givenTwoAccountsWithActivities();
+		// appended last, but the earliest
+		givenTransfer(ACCOUNT_1, ACCOUNT_2, LocalDateTime.of(2017, 1, 1, 0, 0), 1L);
+		List<Activity> history = new ArrayList<>();
+
+		adapterUnderTest.streamActivities(ACCOUNT_1, null, Long.MAX_VALUE, history::add);
+
+		assertThat(history).extracting(Activity::getTimestamp).containsExactly(
+				LocalDateTime.of(2017, 1, 1, 0, 0),
+				LocalDateTime.of(2018, 8, 8, 8, 0),
+				LocalDateTime.of(2018, 8, 9, 10, 0),
+				LocalDateTime.of(2019, 8, 9, 9, 0),
+				LocalDateTime.of(2019, 8, 9, 10, 0));
+
+		List<Activity> page = new ArrayList<>();
+		adapterUnderTest.streamActivities(ACCOUNT_1, ActivityCursor.after(history.get(1)), 2, page::add);
+
+		assertThat(page).containsExactly(history.get(2), history.get(3));
+	}
+
+	@Test
+	void loadsWindowStartInTimestampOrder() {
+		givenTwoAccountsWithActivities();
+		// appended last, but before the two latest activities
+		givenTransfer(ACCOUNT_1, ACCOUNT_2, LocalDateTime.of(2019, 1, 1, 0, 0), 1L);
+
+		assertThat(adapterUnderTest.loadWindowStart(ACCOUNT_1, 2)).contains(LocalDateTime.of(2019, 8, 9, 9, 0));
+		assertThat(adapterUnderTest.loadWindowStart(ACCOUNT_1, 3)).contains(LocalDateTime.of(2019, 1, 1, 0, 0));
+	}
+
+	@Test
+	void streamsActivityHistoryAfterCursorWithinSameTimestamp() {
+		LocalDateTime timestamp = LocalDateTime.of(2018, 8, 8, 8, 0);
+		givenTransfer(ACCOUNT_1, ACCOUNT_2, timestamp, 1L);
+		givenTransfer(ACCOUNT_1, ACCOUNT_2, timestamp, 2L);
+		givenTransfer(ACCOUNT_1, ACCOUNT_2, timestamp, 3L);
+		List<Activity> history = new ArrayList<>();
+		adapterUnderTest.streamActivities(ACCOUNT_1, null, Long.MAX_VALUE, history::add);
+
+		List<Activity> page = new ArrayList<>();
+		adapterUnderTest.streamActivities(ACCOUNT_1, ActivityCursor.after(history.get(0)), Long.MAX_VALUE, page::add);
+
+		assertThat(history).extracting(activity -> activity.getMoney()).containsExactly(
+				Money.of(1L), Money.of(2L), Money.of(3L));
+		assertThat(page).containsExactly(history.get(1), history.get(2));
+	}
+
+	@Test
+	void recoversAccountsWhenReopened() {
+		givenTwoAccountsWithActivities();
+		Account before = adapterUnderTest.loadAccount(ACCOUNT_1, LocalDateTime.of(2018, 8, 10, 0, 0));
+
+		reopen();
+		Account after = adapterUnderTest.loadAccount(ACCOUNT_1, LocalDateTime.of(2018, 8, 10, 0, 0));
+
+		assertThat(after.getBaselineBalance()).isEqualTo(before.getBaselineBalance());
+		assertThat(activityIdsOf(after)).isEqualTo(activityIdsOf(before));
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_2)).isEqualTo(Money.of(-500L));
+	}
+
+	@Test
+	void dropsTornRecordWhenReopened() throws IOException {
+		givenTwoAccountsWithActivities();
+		adapterUnderTest.updateActivities(transfer(ACCOUNT_1, ACCOUNT_1, ACCOUNT_2, LocalDateTime.now(), 7L));
+		adapterUnderTest.close();
+		// the last record is the 11th, the third one of the third segment
+		try (FileChannel segment = FileChannel.open(directory.resolve("activities-00000002.journal"), StandardOpenOption.WRITE)) {
+			segment.write(ByteBuffer.wrap(new byte[]{1}), 2 * ActivityJournal.RECORD_SIZE + 40);
+		}
+
+		reopen();
+
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_1)).isEqualTo(Money.of(500L));
+	}
+
+	private void reopen() {
+		if (adapterUnderTest != null) {
+			adapterUnderTest.close();
+		}
+		// small segments, so that the tests cross segment boundaries
+		adapterUnderTest = new JournalAccountPersistenceAdapter(new JournalProperties(directory, 4));
+	}
+
+	private void deleteJournalDirectory() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	/**
+	 * The same accounts and activities as {@code AccountPersistenceAdapterTest.sql}.
+	 */
+	private void givenTwoAccountsWithActivities() {
+		adapterUnderTest.openAccount(ACCOUNT_1);
+		adapterUnderTest.openAccount(ACCOUNT_2);
+		givenTransfer(ACCOUNT_1, ACCOUNT_2, LocalDateTime.of(2018, 8, 8, 8, 0), 500L);
+		givenTransfer(ACCOUNT_2, ACCOUNT_1, LocalDateTime.of(2018, 8, 9, 10, 0), 1000L);
+		givenTransfer(ACCOUNT_1, ACCOUNT_2, LocalDateTime.of(2019, 8, 9, 9, 0), 1000L);
+		givenTransfer(ACCOUNT_2, ACCOUNT_1, LocalDateTime.of(2019, 8, 9, 10, 0), 1000L);
+	}
+
+	private void givenTransfer(AccountId source, AccountId target, LocalDateTime timestamp, long amount) {
+		adapterUnderTest.updateActivities(transfer(source, source, target, timestamp, amount));
+		adapterUnderTest.updateActivities(transfer(target, source, target, timestamp, amount));
+	}
+
+	private Account transfer(AccountId owner, AccountId source, AccountId target, LocalDateTime timestamp, long amount) {
+		return defaultAccount()
+				.withAccountId(owner)
+				.withActivityWindow(new ActivityWindow(defaultActivity()
+						.withId(null)
+						.withOwnerAccount(owner)
+						.withSourceAccount(source)
+						.withTargetAccount(target)
+						.withTimestamp(timestamp)
+						.withMoney(Money.of(amount))
+						.build()))
+				.build();
+	}
+
+	private List<Long> activityIdsOf(Account account) {
+		return account.getActivityWindow().getActivities().stream()
+				.map(activity -> activity.getId().getValue())
+				.collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,76 @@
+package io.reflectoring.buckpal.account.adapter.out.journal;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static io.reflectoring.buckpal.common.AccountTestData.*;
+import static io.reflectoring.buckpal.common.ActivityTestData.*;
+import static org.assertj.core.api.BDDAssertions.*;
+
+@SpringBootTest
+@ActiveProfiles("journal")
+class JournalProfileTest {
+
+	private static final AccountId SOURCE_ACCOUNT_ID = new AccountId(1L);
+
+	private static final AccountId TARGET_ACCOUNT_ID = new AccountId(2L);
+
+	@TempDir
+	static Path directory;
+
+	@Autowired
+	private JournalAccountPersistenceAdapter journalAdapter;
+
+	@Autowired
+	private LoadAccountPort loadAccountPort;
+
+	@Autowired
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	@DynamicPropertySource
+	static void journalDirectory(DynamicPropertyRegistry registry) {
+		registry.add("buckpal.journal.directory", () -> directory.toString());
+	}
+
+	@Test
+	void sendsMoneyBetweenAccountsInJournal() {
+		journalAdapter.openAccount(SOURCE_ACCOUNT_ID);
+		journalAdapter.openAccount(TARGET_ACCOUNT_ID);
+		journalAdapter.updateActivities(defaultAccount()
+				.withAccountId(SOURCE_ACCOUNT_ID)
+				.withActivityWindow(new ActivityWindow(defaultActivity()
+						.withId(null)
+						.withOwnerAccount(SOURCE_ACCOUNT_ID)
+						.withSourceAccount(TARGET_ACCOUNT_ID)
+						.withTargetAccount(SOURCE_ACCOUNT_ID)
+						.withMoney(Money.of(1000L))
+						.build()))
+				.build());
+
+		boolean sent = sendMoneyUseCase.sendMoney(
+				new SendMoneyCommand(SOURCE_ACCOUNT_ID, TARGET_ACCOUNT_ID, Money.of(300L)));
+
+		then(sent).isTrue();
+		then(AopUtils.getTargetClass(loadAccountPort)).isEqualTo(JournalAccountPersistenceAdapter.class);
+		then(loadAccountPort.loadAccount(SOURCE_ACCOUNT_ID, LocalDateTime.now()).calculateBalance())
+				.isEqualTo(Money.of(700L));
+		then(loadAccountPort.loadAccount(TARGET_ACCOUNT_ID, LocalDateTime.now()).calculateBalance())
+				.isEqualTo(Money.of(300L));
+	}
+
+}
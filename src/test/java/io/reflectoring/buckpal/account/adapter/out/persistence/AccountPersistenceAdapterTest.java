@@ -1,21 +1,33 @@
 package io.reflectoring.buckpal.account.adapter.out.persistence;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import io.reflectoring.buckpal.account.domain.Account;
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity.ActivityId;
+import io.reflectoring.buckpal.account.domain.ActivityCursor;
 import io.reflectoring.buckpal.account.domain.ActivityWindow;
 import io.reflectoring.buckpal.account.domain.Money;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import static io.reflectoring.buckpal.common.AccountTestData.*;
 import static io.reflectoring.buckpal.common.ActivityTestData.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Import({AccountPersistenceAdapter.class, AccountMapper.class})
 class AccountPersistenceAdapterTest {
 
@@ -25,6 +37,12 @@ class AccountPersistenceAdapterTest {
 	@Autowired
 	private ActivityRepository activityRepository;
 
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Test
 	@Sql("AccountPersistenceAdapterTest.sql")
 	void loadsAccount() {
@@ -34,6 +52,122 @@ class AccountPersistenceAdapterTest {
 		assertThat(account.calculateBalance()).isEqualTo(Money.of(500));
 	}
 
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void startsWindowAtLatestActivities() {
+		assertThat(adapterUnderTest.loadWindowStart(new AccountId(1L), 3))
+				.contains(LocalDateTime.of(2018, 8, 9, 10, 0));
+		assertThat(adapterUnderTest.loadWindowStart(new AccountId(1L), 5))
+				.isEmpty();
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void startsWindowAtSnapshotBeforeLatestActivities() {
+		jdbcTemplate.update("insert into balance_snapshot (account_id, timestamp, deposit_balance, withdrawal_balance) "
+				+ "values (1, '2018-08-09 00:00:00.0', 0, 500)");
+
+		assertThat(adapterUnderTest.loadWindowStart(new AccountId(1L), 3))
+				.contains(LocalDateTime.of(2018, 8, 9, 0, 0));
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void startsWindowAtOlderSnapshotsIfLatestOnesAreTooRecent() {
+		for (String timestamp : List.of(
+				"2018-08-09 00:00:00.0", "2018-09-01 00:00:00.0", "2019-01-01 00:00:00.0", "2019-08-09 09:30:00.0")) {
+			jdbcTemplate.update("insert into balance_snapshot (account_id, timestamp, deposit_balance, withdrawal_balance) "
+					+ "values (1, ?, 0, 0)", timestamp);
+		}
+
+		assertThat(adapterUnderTest.loadWindowStart(new AccountId(1L), 2))
+				.contains(LocalDateTime.of(2019, 1, 1, 0, 0));
+		assertThat(adapterUnderTest.loadWindowStart(new AccountId(1L), 3))
+				.contains(LocalDateTime.of(2018, 8, 9, 0, 0));
+		assertThat(adapterUnderTest.loadWindowStart(new AccountId(1L), 4))
+				.contains(LocalDateTime.of(2018, 8, 8, 8, 0));
+		assertThat(adapterUnderTest.loadWindowStart(new AccountId(1L), 5))
+				.isEmpty();
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void streamsActivityHistoryInKeysetOrder() {
+		List<Long> ids = new ArrayList<>();
+
+		adapterUnderTest.streamActivities(new AccountId(1L), null, Long.MAX_VALUE,
+				activity -> ids.add(activity.getId().getValue()));
+
+		assertThat(ids).containsExactly(1L, 3L, 5L, 7L);
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void streamsActivityHistoryAfterCursor() {
+		List<Long> ids = new ArrayList<>();
+
+		adapterUnderTest.streamActivities(
+				new AccountId(1L),
+				new ActivityCursor(LocalDateTime.of(2018, 8, 9, 10, 0), new ActivityId(3L)),
+				1,
+				activity -> ids.add(activity.getId().getValue()));
+
+		assertThat(ids).containsExactly(5L);
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void failsToStreamActivityHistoryOfUnknownAccount() {
+		assertThatThrownBy(() -> adapterUnderTest.streamActivities(new AccountId(3L), null, Long.MAX_VALUE, activity -> { }))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void loadsAccountsTogether() {
+		List<Account> accounts = adapterUnderTest.loadAccounts(
+				List.of(new AccountId(1L), new AccountId(2L)),
+				LocalDateTime.of(2018, 8, 10, 0, 0));
+
+		assertThat(accounts).hasSize(2);
+		assertThat(accounts.get(0).getId()).contains(new AccountId(1L));
+		assertThat(accounts.get(0).calculateBalance()).isEqualTo(Money.of(500));
+		assertThat(accounts.get(1).getId()).contains(new AccountId(2L));
+		assertThat(accounts.get(1).getActivityWindow().getActivities()).hasSize(2);
+		assertThat(accounts.get(1).calculateBalance()).isEqualTo(Money.of(-500));
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void failsToLoadUnknownAccount() {
+		assertThatThrownBy(() -> adapterUnderTest.loadAccount(new AccountId(3L), LocalDateTime.now()))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void loadsExistingAccountIds() {
+		assertThat(adapterUnderTest.loadExistingAccountIds(
+				List.of(new AccountId(1L), new AccountId(2L), new AccountId(3L))))
+				.containsExactlyInAnyOrder(new AccountId(1L), new AccountId(2L));
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void loadsCurrentBalanceOnly() {
+		Money balance = adapterUnderTest.loadBalance(new AccountId(1L));
+
+		assertThat(balance).isEqualTo(
+				adapterUnderTest.loadAccount(new AccountId(1L), LocalDateTime.now()).calculateBalance());
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void failsToLoadBalanceOfUnknownAccount() {
+		assertThatThrownBy(() -> adapterUnderTest.loadBalance(new AccountId(3L)))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+
 	@Test
 	void updatesActivities() {
 		Account account = defaultAccount()
@@ -52,4 +186,62 @@ class AccountPersistenceAdapterTest {
 		assertThat(savedActivity.getAmount()).isEqualTo(1L);
 	}
 
-}
\ No newline at end of file
+	@Test
+	void insertsNewActivitiesOfSeveralAccountsInOneBatch() {
+		Account account1 = defaultAccount()
+				.withActivityWindow(new ActivityWindow(
+						defaultActivity().withId(null).build(),
+						defaultActivity().withId(null).build()))
+				.build();
+		Account account2 = defaultAccount()
+				.withActivityWindow(new ActivityWindow(
+						defaultActivity().withId(null).build()))
+				.build();
+		givenActivityIdsHaveBeenAllocated();
+		Statistics statistics = entityManager.unwrap(Session.class).getSessionFactory().getStatistics();
+		statistics.clear();
+
+		adapterUnderTest.updateActivities(account1);
+		adapterUnderTest.updateActivities(account2);
+		entityManager.flush();
+
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+		// one batch for all activities, plus one version increment and one snapshot lookup per updated account
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 2 * 2);
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void incrementsVersionWhenActivitiesAreAdded() {
+		Account account = adapterUnderTest.loadAccount(new AccountId(1L), LocalDateTime.now());
+		account.deposit(Money.of(1L), new AccountId(2L));
+
+		adapterUnderTest.updateActivities(account);
+
+		assertThat(versionOf(1L)).isEqualTo(1L);
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void failsToUpdateAccountChangedSinceItWasLoaded() {
+		Account account = adapterUnderTest.loadAccount(new AccountId(1L), LocalDateTime.now());
+		account.deposit(Money.of(1L), new AccountId(2L));
+		jdbcTemplate.update("update account set version = version + 1 where id = 1");
+
+		assertThatThrownBy(() -> adapterUnderTest.updateActivities(account))
+				.isInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(versionOf(1L)).isEqualTo(1L);
+	}
+
+	private Long versionOf(long accountId) {
+		return jdbcTemplate.queryForObject("select version from account where id = ?", Long.class, accountId);
+	}
+
+	private void givenActivityIdsHaveBeenAllocated() {
+		adapterUnderTest.updateActivities(defaultAccount()
+				.withActivityWindow(new ActivityWindow(defaultActivity().withId(null).build()))
+				.build());
+		entityManager.flush();
+	}
+
+}
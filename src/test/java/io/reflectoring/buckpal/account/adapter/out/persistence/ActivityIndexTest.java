@@ -0,0 +1,172 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.internal.ast.ASTQueryTranslatorFactory;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asks H2 for the plans of the queries on {@code activity} and checks that they read the activities through
+ * the covering index instead of scanning the table, and for the history streams, how many rows they read.
+ */
+@DataJpaTest
+class ActivityIndexTest {
+
+	private static final String INDEX = "ACTIVITY_OWNER_TIMESTAMP_IDX";
+
+	private static final String TABLE_SCAN = "ACTIVITY.tableScan";
+
+	private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+	private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void loadingAccountsUsesIndex() {
+		String plan = explain(
+				nativeQueryOf(SpringDataAccountRepository.class, "loadAccountsWithActivitiesSince"),
+				Map.of("accountIds", List.of(1L, 2L), "baselineDate", LocalDateTime.now()));
+
+		assertThat(plan).contains(INDEX).doesNotContain(TABLE_SCAN);
+	}
+
+	@Test
+	void loadingBalanceUsesIndex() {
+		String plan = explain(
+				nativeQueryOf(SpringDataAccountRepository.class, "loadBalance"),
+				Map.of("accountId", 1L));
+
+		assertThat(plan).contains(INDEX).doesNotContain(TABLE_SCAN);
+	}
+
+	@Test
+	void rollingSnapshotsForwardUsesIndex() {
+		String plan = explain(
+				nativeQueryOf(BalanceSnapshotRepository.class, "rollForwardTo"),
+				Map.of("until", LocalDateTime.now(), "fromId", 1L, "toId", 1000L));
+
+		assertThat(plan).contains(INDEX).doesNotContain(TABLE_SCAN);
+	}
+
+	@Test
+	void depositAndWithdrawalSumsAreCoveredByIndex() {
+		String depositPlan = explain("select sum(amount) from activity " +
+				"where target_account_id = :accountId and owner_account_id = :accountId and timestamp < :until",
+				Map.of("accountId", 1L, "until", LocalDateTime.now()));
+		String withdrawalPlan = explain("select sum(amount) from activity " +
+				"where source_account_id = :accountId and owner_account_id = :accountId and timestamp < :until",
+				Map.of("accountId", 1L, "until", LocalDateTime.now()));
+
+		assertThat(depositPlan).contains(INDEX).doesNotContain(TABLE_SCAN);
+		assertThat(withdrawalPlan).contains(INDEX).doesNotContain(TABLE_SCAN);
+	}
+
+	@Test
+	void activitiesSinceUseIndex() {
+		String plan = explain("select * from activity where owner_account_id = :accountId and timestamp >= :since",
+				Map.of("accountId", 1L, "since", LocalDateTime.now()));
+
+		assertThat(plan).contains(INDEX).doesNotContain(TABLE_SCAN);
+	}
+
+	@Test
+	void streamingActivityHistoryReadsOnlyTheOwner() {
+		givenActivitiesOfTwoOwners(1000);
+
+		String plan = explainAnalyze(jpqlQueryOf("streamByOwner"), 1L);
+
+		assertThat(plan).contains(INDEX).doesNotContain(TABLE_SCAN);
+		assertThat(maxScanCount(plan)).isLessThanOrEqualTo(1001);
+	}
+
+	@Test
+	void streamingActivityHistoryAfterCursorSeeksToTheCursor() {
+		givenActivitiesOfTwoOwners(1000);
+		LocalDateTime cursor = START.plusMinutes(990);
+
+		// owner, then the timestamp of the cursor for each of its three occurrences, then the ID
+		String plan = explainAnalyze(jpqlQueryOf("streamByOwnerAfter"), 1L, cursor, cursor, cursor, 991L);
+
+		assertThat(plan).contains(INDEX).doesNotContain(TABLE_SCAN);
+		assertThat(maxScanCount(plan)).isLessThan(20);
+	}
+
+	/**
+	 * One activity per minute for each of the accounts 1 and 2, with the IDs of account 1 counting up from 1.
+	 */
+	private void givenActivitiesOfTwoOwners(int activitiesPerOwner) {
+		for (long owner = 1; owner <= 2; owner++) {
+			jdbcTemplate.update("insert into activity " +
+							"(id, timestamp, owner_account_id, source_account_id, target_account_id, amount) " +
+							"select x + :offset, dateadd('MINUTE', x, :start), :owner, 1, 2, 1 " +
+							"from system_range(1, :activities)",
+					Map.of("offset", (owner - 1) * activitiesPerOwner, "start", START, "owner", owner,
+							"activities", activitiesPerOwner));
+		}
+	}
+
+	private String explainAnalyze(String sql, Object... parameters) {
+		return jdbcTemplate.getJdbcTemplate().queryForObject("explain analyze " + sql, String.class, parameters);
+	}
+
+	private static int maxScanCount(String plan) {
+		Matcher scanCount = SCAN_COUNT.matcher(plan);
+		int max = 0;
+		while (scanCount.find()) {
+			max = Math.max(max, Integer.parseInt(scanCount.group(1)));
+		}
+		return max;
+	}
+
+	/**
+	 * The SQL that Hibernate generates for a JPQL query of the {@link ActivityRepository}, with its parameters in
+	 * the order they appear.
+	 */
+	private String jpqlQueryOf(String methodName) {
+		Query query = queryOf(ActivityRepository.class, methodName);
+		assertThat(query.nativeQuery()).isFalse();
+		QueryTranslator translator = new ASTQueryTranslatorFactory().createQueryTranslator(
+				methodName, query.value(), Map.of(), entityManagerFactory.unwrap(SessionFactoryImplementor.class), null);
+		translator.compile(Map.of(), false);
+		return translator.getSQLString();
+	}
+
+	private String explain(String sql, Map<String, ?> parameters) {
+		return jdbcTemplate.queryForObject("explain " + sql, parameters, String.class);
+	}
+
+	private String nativeQueryOf(Class<?> repository, String methodName) {
+		Query query = queryOf(repository, methodName);
+		assertThat(query.nativeQuery()).isTrue();
+		return query.value();
+	}
+
+	private static Query queryOf(Class<?> repository, String methodName) {
+		Method method = Arrays.stream(repository.getDeclaredMethods())
+				.filter(m -> m.getName().equals(methodName))
+				.findFirst()
+				.orElseThrow();
+		return method.getAnnotation(Query.class);
+	}
+
+}
@@ -0,0 +1,119 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({AccountPersistenceAdapter.class, AccountMapper.class, BalanceSnapshotter.class})
+class BalanceSnapshotterTest {
+
+	@Autowired
+	private AccountPersistenceAdapter adapter;
+
+	@Autowired
+	private BalanceSnapshotter snapshotterUnderTest;
+
+	@Autowired
+	private BalanceSnapshotRepository balanceSnapshotRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void snapshotsDoNotChangeBalances() {
+		snapshotterUnderTest.rollForward();
+
+		assertThat(balanceSnapshotRepository.count()).isEqualTo(2);
+		assertThat(balanceOf(1L)).isEqualTo(Money.of(500));
+		assertThat(balanceOf(2L)).isEqualTo(Money.of(-500));
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void addsActivitiesSinceLatestSnapshot() {
+		snapshotterUnderTest.rollForward();
+		jdbcTemplate.update("insert into activity " +
+						"(id, timestamp, owner_account_id, source_account_id, target_account_id, amount) " +
+						"values (9, ?, 1, 2, 1, 250)",
+				LocalDateTime.now());
+
+		assertThat(balanceOf(1L)).isEqualTo(Money.of(750));
+
+		snapshotterUnderTest.rollForward();
+
+		// account 2 has no new activities, its latest snapshot still holds
+		assertThat(balanceSnapshotRepository.count()).isEqualTo(3);
+		assertThat(balanceOf(1L)).isEqualTo(Money.of(750));
+		assertThat(balanceOf(2L)).isEqualTo(Money.of(-500));
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void skipsAccountsWithoutActivitiesSinceLatestSnapshot() {
+		jdbcTemplate.update("insert into account (id, version) values (3, 0)");
+
+		snapshotterUnderTest.rollForward();
+		snapshotterUnderTest.rollForward();
+
+		assertThat(balanceSnapshotRepository.count()).isEqualTo(2);
+		assertThat(balanceOf(3L)).isEqualTo(Money.of(0));
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void rebuildsSnapshotsFromScratch() {
+		snapshotterUnderTest.rollForward();
+		snapshotterUnderTest.rollForward();
+
+		snapshotterUnderTest.rebuild();
+
+		assertThat(balanceSnapshotRepository.count()).isEqualTo(2);
+		assertThat(balanceOf(1L)).isEqualTo(Money.of(500));
+		assertThat(balanceOf(2L)).isEqualTo(Money.of(-500));
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void rejectsActivityOlderThanLatestSnapshot() {
+		Account account = adapter.loadAccount(new AccountId(1L), LocalDateTime.now());
+		account.deposit(Money.of(1L), new AccountId(2L));
+		snapshotterUnderTest.rollForward();
+
+		assertThatThrownBy(() -> adapter.updateActivities(account))
+				.isInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(balanceOf(1L)).isEqualTo(Money.of(500));
+	}
+
+	private Money balanceOf(Long accountId) {
+		Account account = adapter.loadAccount(new AccountId(accountId), LocalDateTime.now().plusSeconds(1));
+		return account.calculateBalance();
+	}
+
+	@TestConfiguration
+	static class SnapshotConfiguration {
+
+		@Bean
+		BalanceSnapshotProperties balanceSnapshotProperties() {
+			// one account per chunk, so that rolling forward takes several chunks
+			return new BalanceSnapshotProperties(Duration.ofHours(1), Duration.ZERO, Duration.ofDays(30), 1);
+		}
+
+	}
+
+}
@@ -0,0 +1,249 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Activity;
+import io.reflectoring.buckpal.account.domain.Activity.ActivityId;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static io.reflectoring.buckpal.common.AccountTestData.*;
+import static io.reflectoring.buckpal.common.ActivityTestData.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class CachingAccountPersistenceAdapterTest {
+
+	private static final AccountId ACCOUNT_ID = new AccountId(1L);
+
+	private static final LocalDateTime LOADED_SINCE = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+	private final AccountPersistenceAdapter delegate = Mockito.mock(AccountPersistenceAdapter.class);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final CachingAccountPersistenceAdapter adapterUnderTest = new CachingAccountPersistenceAdapter(
+			delegate,
+			new AccountCacheProperties(100, Duration.ofMinutes(5)),
+			meterRegistry);
+
+	@BeforeEach
+	void givenAnAccountInTheDatabase() {
+		given(delegate.loadVersionedAccounts(eq(List.of(ACCOUNT_ID)), any(LocalDateTime.class)))
+				.willAnswer(invocation -> List.of(new VersionedAccount(defaultAccount()
+						.withAccountId(ACCOUNT_ID)
+						.withBaselineBalance(Money.of(500L))
+						.withActivityWindow(new ActivityWindow(
+								deposit(1L, LOADED_SINCE.plusDays(1), 100L),
+								deposit(2L, LOADED_SINCE.plusDays(2), 10L)))
+						.build(), 0L)));
+	}
+
+	@Test
+	void loadsAccountFromDatabaseOnlyOnce() {
+		Account first = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+		Account second = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+
+		then(delegate).should(times(1)).loadVersionedAccounts(anyList(), any(LocalDateTime.class));
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.calculateBalance()).isEqualTo(Money.of(610L));
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "hit").functionCounter().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "miss").functionCounter().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void returnsIndependentAccounts() {
+		Account first = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+		first.withdraw(Money.of(600L), new AccountId(2L));
+
+		Account second = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+
+		assertThat(second.calculateBalance()).isEqualTo(Money.of(610L));
+		assertThat(second.getActivityWindow().getActivities()).hasSize(2);
+	}
+
+	@Test
+	void foldsActivitiesBeforeLaterBaselineDateIntoBaselineBalance() {
+		adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+
+		Account account = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE.plusDays(2));
+
+		then(delegate).should(times(1)).loadVersionedAccounts(anyList(), any(LocalDateTime.class));
+		assertThat(account.getBaselineBalance()).isEqualTo(Money.of(600L));
+		assertThat(activityIdsOf(account)).containsExactly(2L);
+		assertThat(account.calculateBalance()).isEqualTo(Money.of(610L));
+	}
+
+	@Test
+	void reloadsAccountForEarlierBaselineDate() {
+		adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+
+		adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE.minusDays(1));
+
+		then(delegate).should(times(2)).loadVersionedAccounts(anyList(), any(LocalDateTime.class));
+	}
+
+	@Test
+	void appendsNewActivitiesInsteadOfReloading() {
+		givenInsertedActivities(withdrawal(3L, LocalDateTime.now(), 600L));
+
+		inTransaction(() -> {
+			Account account = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+			account.withdraw(Money.of(600L), new AccountId(2L));
+			adapterUnderTest.updateActivities(account);
+		});
+		Account reloaded = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+
+		then(delegate).should(times(1)).loadVersionedAccounts(anyList(), any(LocalDateTime.class));
+		assertThat(reloaded.calculateBalance()).isEqualTo(Money.of(10L));
+		assertThat(activityIdsOf(reloaded)).containsExactly(1L, 2L, 3L);
+	}
+
+	@Test
+	void appendsNewActivitiesOnlyAfterCommit() {
+		givenInsertedActivities(withdrawal(3L, LocalDateTime.now(), 600L));
+
+		inTransaction(() -> {
+			Account account = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+			account.withdraw(Money.of(600L), new AccountId(2L));
+			adapterUnderTest.updateActivities(account);
+
+			assertThat(adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE).calculateBalance())
+					.isEqualTo(Money.of(610L));
+		});
+
+		assertThat(adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE).calculateBalance())
+				.isEqualTo(Money.of(10L));
+	}
+
+	@Test
+	void doesNotAppendActivitiesTwice() {
+		givenInsertedActivities(withdrawal(3L, LocalDateTime.now(), 600L));
+
+		inTransaction(() -> {
+			Account account = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+			account.withdraw(Money.of(600L), new AccountId(2L));
+			adapterUnderTest.updateActivities(account);
+			adapterUnderTest.updateActivities(account);
+		});
+
+		assertThat(activityIdsOf(adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE)))
+				.containsExactly(1L, 2L, 3L);
+	}
+
+	@Test
+	void answersBalanceFromCachedAccount() {
+		givenInsertedActivities(withdrawal(3L, LocalDateTime.now(), 600L));
+		inTransaction(() -> {
+			Account account = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+			account.withdraw(Money.of(600L), new AccountId(2L));
+			adapterUnderTest.updateActivities(account);
+		});
+
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_ID)).isEqualTo(Money.of(10L));
+		then(delegate).should(never()).loadBalance(any());
+	}
+
+	@Test
+	void asksDatabaseForBalanceOfAccountNotCached() {
+		given(delegate.loadBalance(ACCOUNT_ID)).willReturn(Money.of(610L));
+
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_ID)).isEqualTo(Money.of(610L));
+		assertThat(adapterUnderTest.loadBalance(ACCOUNT_ID)).isEqualTo(Money.of(610L));
+		then(delegate).should(times(2)).loadBalance(ACCOUNT_ID);
+		then(delegate).should(never()).loadVersionedAccounts(anyList(), any(LocalDateTime.class));
+	}
+
+	@Test
+	void evictsAccountChangedConcurrently() {
+		Account account = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+		account.withdraw(Money.of(600L), new AccountId(2L));
+		given(delegate.insertNewActivities(any(Account.class)))
+				.willThrow(new OptimisticLockingFailureException("changed concurrently"));
+
+		assertThatThrownBy(() -> adapterUnderTest.updateActivities(account))
+				.isInstanceOf(OptimisticLockingFailureException.class);
+		adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+
+		then(delegate).should(times(2)).loadVersionedAccounts(anyList(), any(LocalDateTime.class));
+	}
+
+	@Test
+	void evictsAccountUpdatedOutsideOfTransaction() {
+		Account account = adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+		account.withdraw(Money.of(600L), new AccountId(2L));
+		givenInsertedActivities(withdrawal(3L, LocalDateTime.now(), 600L));
+
+		adapterUnderTest.updateActivities(account);
+		adapterUnderTest.loadAccount(ACCOUNT_ID, LOADED_SINCE);
+
+		then(delegate).should(times(2)).loadVersionedAccounts(anyList(), any(LocalDateTime.class));
+	}
+
+	/**
+	 * Runs the given work as if in a transaction that commits afterwards.
+	 */
+	private void inTransaction(Runnable work) {
+		TransactionSynchronizationManager.initSynchronization();
+		int status = TransactionSynchronization.STATUS_ROLLED_BACK;
+		try {
+			work.run();
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(TransactionSynchronization::afterCommit);
+			status = TransactionSynchronization.STATUS_COMMITTED;
+		} finally {
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(status);
+			}
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private void givenInsertedActivities(Activity... activities) {
+		given(delegate.insertNewActivities(any(Account.class)))
+				.willReturn(List.of(activities));
+	}
+
+	private List<Long> activityIdsOf(Account account) {
+		return account.getActivityWindow().getActivities().stream()
+				.map(activity -> activity.getId().getValue())
+				.collect(Collectors.toList());
+	}
+
+	private Activity deposit(long id, LocalDateTime timestamp, long amount) {
+		return defaultActivity()
+				.withId(new ActivityId(id))
+				.withOwnerAccount(ACCOUNT_ID)
+				.withSourceAccount(new AccountId(2L))
+				.withTargetAccount(ACCOUNT_ID)
+				.withTimestamp(timestamp)
+				.withMoney(Money.of(amount))
+				.build();
+	}
+
+	private Activity withdrawal(long id, LocalDateTime timestamp, long amount) {
+		return defaultActivity()
+				.withId(new ActivityId(id))
+				.withOwnerAccount(ACCOUNT_ID)
+				.withSourceAccount(ACCOUNT_ID)
+				.withTargetAccount(new AccountId(2L))
+				.withTimestamp(timestamp)
+				.withMoney(Money.of(amount))
+				.build();
+	}
+
+}
@@ -0,0 +1,72 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+
+class IdempotencyKeyIndexTest {
+
+	private static final long TIME_TO_LIVE = 1000L;
+
+	@Test
+	void findsRecordedOutcome() {
+		IdempotencyKeyIndex index = new IdempotencyKeyIndex(1024, TIME_TO_LIVE);
+
+		index.put("transfer-1", 100L, index.codeOf("SUCCEEDED"), 100L);
+		index.put("transfer-2", 100L, index.codeOf("INSUFFICIENT_BALANCE"), 100L);
+
+		assertThat(index.outcomeOf(index.lookup("transfer-1", 200L))).isEqualTo("SUCCEEDED");
+		assertThat(index.outcomeOf(index.lookup("transfer-2", 200L))).isEqualTo("INSUFFICIENT_BALANCE");
+		assertThat(index.lookup("transfer-3", 200L)).isEqualTo(IdempotencyKeyIndex.MISSING);
+	}
+
+	@Test
+	void forgetsExpiredKeys() {
+		IdempotencyKeyIndex index = new IdempotencyKeyIndex(1024, TIME_TO_LIVE);
+
+		index.put("transfer-1", 100L, index.codeOf("SUCCEEDED"), 100L);
+
+		assertThat(index.lookup("transfer-1", 100L + TIME_TO_LIVE - 1)).isNotEqualTo(IdempotencyKeyIndex.MISSING);
+		assertThat(index.lookup("transfer-1", 100L + TIME_TO_LIVE)).isEqualTo(IdempotencyKeyIndex.MISSING);
+	}
+
+	@Test
+	void dropsOldestKeyWhenFullAndIsIncompleteUntilItExpires() {
+		// a single bucket
+		IdempotencyKeyIndex index = new IdempotencyKeyIndex(8, TIME_TO_LIVE);
+		for (int i = 1; i <= 8; i++) {
+			index.put("transfer-" + i, i, index.codeOf("SUCCEEDED"), 10L);
+		}
+		assertThat(index.isComplete(10L)).isTrue();
+
+		index.put("transfer-9", 9L, index.codeOf("SUCCEEDED"), 10L);
+
+		assertThat(index.lookup("transfer-1", 10L)).isEqualTo(IdempotencyKeyIndex.MISSING);
+		for (int i = 2; i <= 9; i++) {
+			assertThat(index.lookup("transfer-" + i, 10L)).isNotEqualTo(IdempotencyKeyIndex.MISSING);
+		}
+		assertThat(index.isComplete(1L + TIME_TO_LIVE)).isFalse();
+		assertThat(index.isComplete(2L + TIME_TO_LIVE)).isTrue();
+	}
+
+	@Test
+	void reusesSlotsOfExpiredKeys() {
+		IdempotencyKeyIndex index = new IdempotencyKeyIndex(8, TIME_TO_LIVE);
+		for (int i = 1; i <= 8; i++) {
+			index.put("transfer-" + i, i, index.codeOf("SUCCEEDED"), 10L);
+		}
+
+		index.put("transfer-9", 2000L, index.codeOf("SUCCEEDED"), 2000L);
+
+		assertThat(index.lookup("transfer-9", 2000L)).isNotEqualTo(IdempotencyKeyIndex.MISSING);
+		assertThat(index.isComplete(2000L)).isTrue();
+	}
+
+	@Test
+	void roundsCapacityUpToPowerOfTwo() {
+		assertThat(new IdempotencyKeyIndex(1, TIME_TO_LIVE).capacity()).isEqualTo(8);
+		assertThat(new IdempotencyKeyIndex(100, TIME_TO_LIVE).capacity()).isEqualTo(128);
+		assertThatThrownBy(() -> new IdempotencyKeyIndex(0, TIME_TO_LIVE))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
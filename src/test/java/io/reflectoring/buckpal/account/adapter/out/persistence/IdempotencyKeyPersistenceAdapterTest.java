@@ -0,0 +1,91 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@Import(IdempotencyKeyPersistenceAdapter.class)
+class IdempotencyKeyPersistenceAdapterTest {
+
+	@Autowired
+	private IdempotencyKeyPersistenceAdapter adapterUnderTest;
+
+	@Autowired
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+
+	@Autowired
+	private IdempotencyKeyProperties idempotencyKeyProperties;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void recordsOutcome() {
+		adapterUnderTest.recordTransferOutcome("transfer-1", "SUCCEEDED");
+
+		assertThat(idempotencyKeyRepository.findById("transfer-1"))
+				.hasValueSatisfying(key -> assertThat(key.getOutcome()).isEqualTo("SUCCEEDED"));
+	}
+
+	@Test
+	void loadsRecentKeysOnStartup() {
+		givenRecordedKey("recent", LocalDateTime.now().minusMinutes(5), "SUCCEEDED");
+		givenRecordedKey("expired", LocalDateTime.now().minusHours(2), "SUCCEEDED");
+
+		IdempotencyKeyPersistenceAdapter restarted =
+				new IdempotencyKeyPersistenceAdapter(idempotencyKeyRepository, idempotencyKeyProperties);
+
+		assertThat(restarted.loadTransferOutcome("recent")).contains("SUCCEEDED");
+		assertThat(restarted.loadTransferOutcome("expired")).isEmpty();
+		assertThat(restarted.loadTransferOutcome("unknown")).isEmpty();
+	}
+
+	@Test
+	void readsKeyRecordedElsewhereFromDatabaseOnceItCollides() {
+		// recorded by another instance, after this one loaded its index
+		givenRecordedKey("transfer-1", LocalDateTime.now().minusMinutes(5), "DEPOSIT_REJECTED");
+
+		assertThatThrownBy(() -> adapterUnderTest.recordTransferOutcome("transfer-1", "SUCCEEDED"))
+				.isInstanceOf(ConcurrencyFailureException.class);
+
+		assertThat(adapterUnderTest.loadTransferOutcome("transfer-1")).contains("DEPOSIT_REJECTED");
+	}
+
+	@Test
+	void deletesExpiredKeys() {
+		givenRecordedKey("recent", LocalDateTime.now().minusMinutes(5), "SUCCEEDED");
+		givenRecordedKey("expired", LocalDateTime.now().minusHours(2), "SUCCEEDED");
+
+		adapterUnderTest.deleteExpiredKeys();
+
+		assertThat(idempotencyKeyRepository.findAll())
+				.extracting(IdempotencyKeyJpaEntity::getIdempotencyKey)
+				.containsExactly("recent");
+	}
+
+	private void givenRecordedKey(String idempotencyKey, LocalDateTime recordedAt, String outcome) {
+		jdbcTemplate.update("insert into idempotency_key (idempotency_key, recorded_at, outcome) values (?, ?, ?)",
+				idempotencyKey, recordedAt, outcome);
+	}
+
+	@TestConfiguration
+	static class IdempotencyKeyConfiguration {
+
+		@Bean
+		IdempotencyKeyProperties idempotencyKeyProperties() {
+			return new IdempotencyKeyProperties(Duration.ofHours(1), 1024, Duration.ofHours(1));
+		}
+
+	}
+
+}
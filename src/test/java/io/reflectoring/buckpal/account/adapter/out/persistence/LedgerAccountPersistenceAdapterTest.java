@@ -0,0 +1,109 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("ledger")
+@Import({AccountPersistenceAdapter.class, LedgerAccountPersistenceAdapter.class, AccountMapper.class})
+class LedgerAccountPersistenceAdapterTest {
+
+	@Autowired
+	private LedgerAccountPersistenceAdapter adapterUnderTest;
+
+	@Autowired
+	private ActivityRepository activityRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@Sql("LedgerAccountPersistenceAdapterTest.sql")
+	void loadsAccountFromProjection() {
+		List<Account> accounts = adapterUnderTest.loadAccounts(
+				List.of(new AccountId(1L), new AccountId(2L), new AccountId(1L)),
+				LocalDateTime.of(2018, 8, 10, 0, 0));
+
+		assertThat(accounts).hasSize(3);
+		assertThat(accounts.get(0).getActivityWindow().getActivities()).isEmpty();
+		assertThat(accounts.get(0).calculateBalance()).isEqualTo(Money.of(500));
+		assertThat(accounts.get(1).calculateBalance()).isEqualTo(Money.of(-500));
+		assertThat(accounts.get(2)).isNotSameAs(accounts.get(0));
+	}
+
+	@Test
+	@Sql("LedgerAccountPersistenceAdapterTest.sql")
+	void loadsBalanceFromProjection() {
+		assertThat(adapterUnderTest.loadBalance(new AccountId(1L))).isEqualTo(Money.of(500));
+		assertThat(adapterUnderTest.loadBalance(new AccountId(2L))).isEqualTo(Money.of(-500));
+	}
+
+	@Test
+	@Sql("LedgerAccountPersistenceAdapterTest.sql")
+	void addsNewActivitiesToProjection() {
+		Account account = adapterUnderTest.loadAccount(new AccountId(1L), LocalDateTime.now());
+		account.withdraw(Money.of(100L), new AccountId(2L));
+		account.deposit(Money.of(30L), new AccountId(2L));
+
+		adapterUnderTest.updateActivities(account);
+		entityManager.flush();
+
+		assertThat(activityRepository.count()).isEqualTo(10);
+		assertThat(jdbcTemplate.queryForList(
+				"select deposit_balance, withdrawal_balance from account_balance where account_id = 1"))
+				.containsExactly(Map.of("DEPOSIT_BALANCE", 2030L, "WITHDRAWAL_BALANCE", 1600L));
+		assertThat(adapterUnderTest.loadBalance(new AccountId(1L))).isEqualTo(Money.of(430));
+		assertThat(jdbcTemplate.queryForObject("select version from account where id = 1", Long.class))
+				.isEqualTo(1L);
+	}
+
+	@Test
+	@Sql("AccountPersistenceAdapterTest.sql")
+	void seedsProjectionOfAccountLoadedForTheFirstTime() {
+		assertThat(adapterUnderTest.loadBalance(new AccountId(1L))).isEqualTo(Money.of(500));
+		assertThat(projectedAccountIds()).isEmpty();
+
+		List<Account> accounts = adapterUnderTest.loadAccounts(
+				List.of(new AccountId(1L), new AccountId(2L)),
+				LocalDateTime.of(2018, 8, 10, 0, 0));
+
+		assertThat(accounts.get(0).calculateBalance()).isEqualTo(Money.of(500));
+		assertThat(accounts.get(1).calculateBalance()).isEqualTo(Money.of(-500));
+		assertThat(projectedAccountIds()).containsExactly(1L, 2L);
+		assertThat(adapterUnderTest.loadBalance(new AccountId(2L))).isEqualTo(Money.of(-500));
+	}
+
+	@Test
+	@Sql("LedgerAccountPersistenceAdapterTest.sql")
+	void failsToLoadUnknownAccount() {
+		assertThatThrownBy(() -> adapterUnderTest.loadAccount(new AccountId(3L), LocalDateTime.now()))
+				.isInstanceOf(EntityNotFoundException.class);
+		assertThatThrownBy(() -> adapterUnderTest.loadBalance(new AccountId(3L)))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+
+	private List<Long> projectedAccountIds() {
+		return jdbcTemplate.queryForList("select account_id from account_balance order by account_id", Long.class);
+	}
+
+}
@@ -0,0 +1,89 @@
+package io.reflectoring.buckpal.account.adapter.out.persistence;
+
+import java.time.LocalDateTime;
+
+import io.reflectoring.buckpal.account.application.port.in.GetAccountBalanceQuery;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyUseCase;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.BDDAssertions.*;
+
+@SpringBootTest(properties = "buckpal.ledger.replay-partitions=3")
+@ActiveProfiles("ledger")
+class LedgerProfileTest {
+
+	@Autowired
+	private BalanceProjectionReplayer replayer;
+
+	@Autowired
+	private LoadAccountPort loadAccountPort;
+
+	@Autowired
+	private GetAccountBalanceQuery getAccountBalanceQuery;
+
+	@Autowired
+	private SendMoneyUseCase sendMoneyUseCase;
+
+	@Test
+	@Sql("LedgerProfileTest.sql")
+	void sendsMoneyOnReplayedProjections() throws Exception {
+		then(replayer.replay()).isEqualTo(5);
+
+		then(balanceOf(1L)).isEqualTo(Money.of(800L));
+		then(balanceOf(2L)).isEqualTo(Money.of(-1000L));
+		then(balanceOf(3L)).isEqualTo(Money.of(200L));
+		then(balanceOf(4L)).isEqualTo(Money.of(50L));
+		then(balanceOf(5L)).isEqualTo(Money.of(-50L));
+
+		boolean sent = sendMoneyUseCase.sendMoney(
+				new SendMoneyCommand(new AccountId(1L), new AccountId(4L), Money.of(300L)));
+
+		then(sent).isTrue();
+		then(AopUtils.getTargetClass(loadAccountPort)).isEqualTo(LedgerAccountPersistenceAdapter.class);
+		then(loadAccountPort.loadAccount(new AccountId(1L), LocalDateTime.now()).calculateBalance())
+				.isEqualTo(Money.of(500L));
+		then(balanceOf(4L)).isEqualTo(Money.of(350L));
+
+		// the projections maintained by the transfer match those replayed from the activities
+		then(replayer.replay()).isEqualTo(5);
+		then(balanceOf(1L)).isEqualTo(Money.of(500L));
+		then(balanceOf(4L)).isEqualTo(Money.of(350L));
+	}
+
+	@Test
+	void refusesToStartWithReactiveProfile() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().setActiveProfiles("ledger", "reactive");
+		context.register(LedgerProfileGuard.class, EagerBean.class);
+
+		thenThrownBy(context::refresh)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("ledger profile cannot be combined with the reactive profile");
+		then(EagerBean.created).isFalse();
+	}
+
+	private Money balanceOf(long accountId) {
+		return getAccountBalanceQuery.getAccountBalance(new AccountId(accountId));
+	}
+
+	static class EagerBean {
+
+		static boolean created;
+
+		EagerBean() {
+			created = true;
+		}
+
+	}
+
+}
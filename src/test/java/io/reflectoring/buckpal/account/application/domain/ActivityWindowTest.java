@@ -1,5 +1,6 @@
 package io.reflectoring.buckpal.account.domain;
 
+import java.math.BigInteger;
 import java.time.LocalDateTime;
 
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
@@ -53,6 +54,92 @@ class ActivityWindowTest {
 		Assertions.assertThat(window.calculateBalance(account2)).isEqualTo(Money.of(500));
 	}
 
+	@Test
+	void updatesBalanceWhenActivityIsAdded() {
+
+		AccountId account1 = new AccountId(1L);
+		AccountId account2 = new AccountId(2L);
+
+		ActivityWindow window = new ActivityWindow(
+				defaultActivity()
+						.withSourceAccount(account2)
+						.withTargetAccount(account1)
+						.withMoney(Money.of(500)).build());
+
+		window.addActivity(defaultActivity()
+				.withSourceAccount(account1)
+				.withTargetAccount(account2)
+				.withMoney(Money.of(200)).build());
+
+		Assertions.assertThat(window.calculateBalance(account1)).isEqualTo(Money.of(300));
+		Assertions.assertThat(window.calculateBalance(account2)).isEqualTo(Money.of(-300));
+		Assertions.assertThat(window.calculateBalance(new AccountId(3L))).isEqualTo(Money.ZERO);
+	}
+
+	@Test
+	void keepsBalancesOfAllAccountsWhenCalculatedInTurn() {
+
+		ActivityWindow window = new ActivityWindow();
+		// more accounts than the totals hold at first, and every balance read between two activities
+		for (long i = 1; i <= 20; i++) {
+			window.addActivity(defaultActivity()
+					.withSourceAccount(new AccountId(100L))
+					.withTargetAccount(new AccountId(i))
+					.withMoney(Money.of(i)).build());
+			Assertions.assertThat(window.calculateBalance(new AccountId(i))).isEqualTo(Money.of(i));
+			Assertions.assertThat(window.calculateBalance(new AccountId(100L))).isEqualTo(Money.of(-i * (i + 1) / 2));
+		}
+
+		for (long i = 1; i <= 20; i++) {
+			Assertions.assertThat(window.calculateBalance(new AccountId(i))).isEqualTo(Money.of(i));
+		}
+		Assertions.assertThat(window.calculateBalance(new AccountId(100L))).isEqualTo(Money.of(-210));
+	}
+
+	@Test
+	void fallsBackToBigAmountsOnOverflow() {
+
+		AccountId account1 = new AccountId(1L);
+		AccountId account2 = new AccountId(2L);
+
+		ActivityWindow window = new ActivityWindow(
+				defaultActivity()
+						.withSourceAccount(account2)
+						.withTargetAccount(account1)
+						.withMoney(Money.of(Long.MAX_VALUE)).build());
+		window.addActivity(defaultActivity()
+				.withSourceAccount(account2)
+				.withTargetAccount(account1)
+				.withMoney(Money.of(1)).build());
+
+		Assertions.assertThat(window.calculateBalance(account1).getAmount())
+				.isEqualTo(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE));
+
+		window.addActivity(defaultActivity()
+				.withSourceAccount(account2)
+				.withTargetAccount(account1)
+				.withMoney(new Money(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TEN))).build());
+
+		Assertions.assertThat(window.calculateBalance(account2).getAmount())
+				.isEqualTo(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(11)).add(BigInteger.ONE).negate());
+	}
+
+	@Test
+	void returnsActivitiesAsTheyWereAdded() {
+		Activity saved = defaultActivity()
+				.withTimestamp(LocalDateTime.of(2019, 8, 3, 10, 15, 30, 123_456_789))
+				.build();
+		Activity unsaved = defaultActivity()
+				.withId(null)
+				.withMoney(Money.of(4_200_000L))
+				.build();
+
+		ActivityWindow window = new ActivityWindow(saved);
+		window.addActivity(unsaved);
+
+		Assertions.assertThat(window.getActivities()).containsExactly(saved, unsaved);
+	}
+
 	private LocalDateTime startDate() {
 		return LocalDateTime.of(2019, 8, 3, 0, 0);
 	}
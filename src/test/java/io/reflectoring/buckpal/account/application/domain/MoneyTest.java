@@ -0,0 +1,56 @@
+package io.reflectoring.buckpal.account.domain;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+
+class MoneyTest {
+
+	@Test
+	void addsAndSubtracts() {
+		assertThat(Money.add(Money.of(500L), Money.of(-200L))).isEqualTo(Money.of(300L));
+		assertThat(Money.of(500L).minus(Money.of(2000L))).isEqualTo(Money.of(-1500L));
+		assertThat(Money.of(500L).plus(Money.of(2000L))).isEqualTo(Money.of(2500L));
+		assertThat(Money.of(500L).negate()).isEqualTo(Money.of(-500L));
+	}
+
+	@Test
+	void fallsBackToBigIntegerOnOverflow() {
+		Money sum = Money.add(Money.of(Long.MAX_VALUE), Money.of(1L));
+
+		assertThat(sum.getAmount()).isEqualTo(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE));
+		assertThat(sum.isGreaterThan(Money.of(Long.MAX_VALUE))).isTrue();
+		assertThat(Money.subtract(Money.of(Long.MIN_VALUE), Money.of(1L)).isNegative()).isTrue();
+		assertThat(Money.of(Long.MIN_VALUE).negate().getAmount())
+				.isEqualTo(BigInteger.valueOf(Long.MIN_VALUE).negate());
+	}
+
+	@Test
+	void returnsToLongRangeAfterOverflow() {
+		Money overflowed = Money.add(Money.of(Long.MAX_VALUE), Money.of(1L));
+
+		Money back = overflowed.minus(Money.of(1L));
+
+		assertThat(back).isEqualTo(Money.of(Long.MAX_VALUE));
+		assertThat(back.hashCode()).isEqualTo(Money.of(Long.MAX_VALUE).hashCode());
+	}
+
+	@Test
+	void equalityDoesNotDependOnRepresentation() {
+		assertThat(new Money(BigInteger.valueOf(42L))).isEqualTo(Money.of(42L));
+		assertThat(new Money(BigInteger.valueOf(4_200_000L))).isEqualTo(Money.of(4_200_000L));
+		assertThat(Money.of(42L)).isNotEqualTo(Money.of(43L));
+		assertThat(Money.of(42L).toString()).isEqualTo("Money(amount=42)");
+	}
+
+	@Test
+	void comparesAmounts() {
+		assertThat(Money.of(2L).isGreaterThan(Money.of(1L))).isTrue();
+		assertThat(Money.of(1L).isGreaterThan(Money.of(1L))).isFalse();
+		assertThat(Money.of(1L).isGreaterThanOrEqualTo(Money.of(1L))).isTrue();
+		assertThat(Money.ZERO.isPositiveOrZero()).isTrue();
+		assertThat(Money.ZERO.isPositive()).isFalse();
+	}
+
+}
@@ -0,0 +1,35 @@
+package io.reflectoring.buckpal.account.application.port.in;
+
+import javax.validation.ConstraintViolationException;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+
+class SendMoneyCommandTest {
+
+	@Test
+	void acceptsValidCommand() {
+		assertThatCode(() -> new SendMoneyCommand(new AccountId(41L), new AccountId(42L), Money.of(500L)))
+				.doesNotThrowAnyException();
+	}
+
+	@Test
+	void rejectsMissingAttributes() {
+		assertThatThrownBy(() -> new SendMoneyCommand(new AccountId(41L), null, Money.of(500L)))
+				.isInstanceOf(ConstraintViolationException.class);
+		assertThatThrownBy(() -> new SendMoneyCommand(null, new AccountId(42L), null))
+				.isInstanceOf(ConstraintViolationException.class)
+				.satisfies(e -> assertThat(((ConstraintViolationException) e).getConstraintViolations()).hasSize(2));
+	}
+
+	@Test
+	void rejectsEmptyOrTooLongIdempotencyKey() {
+		assertThatThrownBy(() -> new SendMoneyCommand(new AccountId(41L), new AccountId(42L), Money.of(500L), ""))
+				.isInstanceOf(ConstraintViolationException.class);
+		assertThatThrownBy(() -> new SendMoneyCommand(new AccountId(41L), new AccountId(42L), Money.of(500L), "k".repeat(256)))
+				.isInstanceOf(ConstraintViolationException.class);
+	}
+
+}
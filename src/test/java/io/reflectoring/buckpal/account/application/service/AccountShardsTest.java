@@ -0,0 +1,96 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AccountShardsTest {
+
+	private static final int THREADS = 6;
+
+	private static final int TRANSFERS_PER_THREAD = 5_000;
+
+	private final AccountShards shards = new AccountShards(16);
+
+	@AfterEach
+	void closeShards() {
+		shards.close();
+	}
+
+	@Test
+	@Timeout(30)
+	void transfersAcrossShardsDoNotDeadlockAndAreSerialized() throws Exception {
+		AccountId[] accounts = {new AccountId(1L), new AccountId(2L), new AccountId(3L)};
+		assertThat(shards.shardOf(accounts[0])).isNotEqualTo(shards.shardOf(accounts[1]));
+		assertThat(shards.shardOf(accounts[1])).isNotEqualTo(shards.shardOf(accounts[2]));
+		long[] balances = new long[3];
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			// every ordered pair of accounts, so that transfers run in opposing directions
+			int source = t % 3;
+			int target = (source + 1 + t / 3) % 3;
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+					shards.execute(List.of(accounts[source], accounts[target]), () -> {
+						// deliberately non-atomic: lost updates show up if the shards do not serialize
+						balances[source]--;
+						balances[target]++;
+						return null;
+					});
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(balances).containsExactly(0, 0, 0);
+	}
+
+	@Test
+	void runsWorkOnLowestShardOfAccounts() {
+		AccountId a = new AccountId(1L);
+		AccountId b = new AccountId(2L);
+		int lowestShard = Math.min(shards.shardOf(a), shards.shardOf(b));
+
+		String thread = shards.execute(List.of(b, a), () -> Thread.currentThread().getName());
+
+		assertThat(thread).isEqualTo("account-shard-" + lowestShard);
+	}
+
+	@Test
+	void rethrowsExceptionOfWork() {
+		assertThatThrownBy(() -> shards.execute(List.of(new AccountId(1L), new AccountId(2L)), () -> {
+			throw new IllegalStateException("failed");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("failed");
+
+		assertThat(shards.execute(List.of(new AccountId(1L), new AccountId(2L)), () -> "still running"))
+				.isEqualTo("still running");
+	}
+
+	@Test
+	void rejectsEmptyShards() {
+		assertThatThrownBy(() -> new AccountShards(0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
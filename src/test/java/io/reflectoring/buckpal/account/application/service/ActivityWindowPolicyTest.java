@@ -0,0 +1,64 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityWindowStartPort;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class ActivityWindowPolicyTest {
+
+	private static final AccountId BUSY = new AccountId(1L);
+
+	private static final AccountId DORMANT = new AccountId(2L);
+
+	private final LoadActivityWindowStartPort loadActivityWindowStartPort =
+			Mockito.mock(LoadActivityWindowStartPort.class);
+
+	@Test
+	void reachesBackMaxAgeWithoutCap() {
+		ActivityWindowPolicy policy = policy(Duration.ofDays(3), 0);
+
+		LocalDateTime baselineDate = policy.baselineDate(List.of(BUSY, DORMANT));
+
+		assertThat(baselineDate).isBetween(
+				LocalDateTime.now().minusDays(3).minusMinutes(1),
+				LocalDateTime.now().minusDays(3));
+		then(loadActivityWindowStartPort).shouldHaveNoInteractions();
+	}
+
+	@Test
+	void capsWindowAtLatestActivitiesOfBusiestAccount() {
+		LocalDateTime windowStart = LocalDateTime.now().minusHours(1);
+		given(loadActivityWindowStartPort.loadWindowStart(BUSY, 100))
+				.willReturn(Optional.of(windowStart));
+		given(loadActivityWindowStartPort.loadWindowStart(DORMANT, 100))
+				.willReturn(Optional.empty());
+
+		LocalDateTime baselineDate = policy(Duration.ofDays(10), 100).baselineDate(List.of(DORMANT, BUSY));
+
+		assertThat(baselineDate).isEqualTo(windowStart);
+	}
+
+	@Test
+	void neverReachesBackFurtherThanMaxAge() {
+		given(loadActivityWindowStartPort.loadWindowStart(BUSY, 100))
+				.willReturn(Optional.of(LocalDateTime.now().minusDays(30)));
+
+		LocalDateTime baselineDate = policy(Duration.ofDays(10), 100).baselineDate(List.of(BUSY));
+
+		assertThat(baselineDate).isAfter(LocalDateTime.now().minusDays(10).minusMinutes(1));
+	}
+
+	private ActivityWindowPolicy policy(Duration maxAge, int maxActivities) {
+		return new ActivityWindowPolicy(loadActivityWindowStartPort, new ActivityWindowProperties(maxAge, maxActivities));
+	}
+
+}
@@ -0,0 +1,136 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyBatchUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferRejectedException;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import io.reflectoring.buckpal.common.VirtualThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+import static org.mockito.BDDMockito.*;
+
+class AsyncSendMoneyServiceTest {
+
+	private final SendMoneyBatchUseCase sendMoneyBatchUseCase =
+			Mockito.mock(SendMoneyBatchUseCase.class);
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private AsyncSendMoneyService asyncSendMoneyService;
+
+	@AfterEach
+	void stop() {
+		release.countDown();
+		if (asyncSendMoneyService != null) {
+			asyncSendMoneyService.destroy();
+		}
+	}
+
+	@Test
+	void completesWithResultOfTransfer() throws Exception {
+		givenAsyncTransfersOf(2, 10);
+		given(sendMoneyBatchUseCase.sendMoney(anyList()))
+				.willReturn(List.of(TransferResult.of(Status.INSUFFICIENT_BALANCE)));
+
+		CompletableFuture<TransferResult> result = asyncSendMoneyService.sendMoney(transfer());
+
+		assertThat(result.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(Status.INSUFFICIENT_BALANCE);
+		then(sendMoneyBatchUseCase).should().sendMoney(List.of(transfer()));
+		// the future completes before the pool counts the task as completed
+		asyncSendMoneyService.destroy();
+		assertThat(meterRegistry.get("executor.completed").tag("name", "transfers").functionCounter().count())
+				.isEqualTo(1.0);
+	}
+
+	@Test
+	void failsWithExceptionOfTransfer() {
+		givenAsyncTransfersOf(2, 10);
+		given(sendMoneyBatchUseCase.sendMoney(anyList())).willThrow(new IllegalStateException("failed"));
+
+		CompletableFuture<TransferResult> result = asyncSendMoneyService.sendMoney(transfer());
+
+		assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void rejectsTransfersWhenQueueIsFull() throws Exception {
+		givenAsyncTransfersOf(1, 1);
+		CountDownLatch running = new CountDownLatch(1);
+		given(sendMoneyBatchUseCase.sendMoney(anyList())).willAnswer(invocation -> {
+			running.countDown();
+			release.await();
+			return List.of(TransferResult.of(Status.SUCCEEDED));
+		});
+
+		CompletableFuture<TransferResult> executing = asyncSendMoneyService.sendMoney(transfer());
+		running.await(5, TimeUnit.SECONDS);
+		CompletableFuture<TransferResult> queued = asyncSendMoneyService.sendMoney(transfer());
+		CompletableFuture<TransferResult> rejected = asyncSendMoneyService.sendMoney(transfer());
+
+		assertThat(rejected).isCompletedExceptionally();
+		assertThatThrownBy(rejected::join).hasCauseInstanceOf(TransferRejectedException.class);
+		assertThat(meterRegistry.get("executor.queued").tag("name", "transfers").gauge().value()).isEqualTo(1.0);
+		assertThat(meterRegistry.get(AsyncSendMoneyService.REJECTED).counter().count()).isEqualTo(1.0);
+
+		release.countDown();
+		assertThat(executing.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(queued.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+	}
+
+	@Test
+	void runsTransfersOnVirtualThreads() throws Exception {
+		assumeTrue(VirtualThreads.isSupported());
+		givenAsyncTransfersOf(2, 10, true);
+		given(sendMoneyBatchUseCase.sendMoney(anyList())).willAnswer(invocation -> List.of(TransferResult.of(
+				Boolean.TRUE.equals(Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()))
+						? Status.SUCCEEDED
+						: Status.DEPOSIT_REJECTED)));
+
+		CompletableFuture<TransferResult> result = asyncSendMoneyService.sendMoney(transfer());
+
+		assertThat(result.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(Status.SUCCEEDED);
+	}
+
+	@Test
+	void refusesVirtualThreadsOnJdkWithoutThem() {
+		assumeFalse(VirtualThreads.isSupported());
+
+		assertThatThrownBy(() -> givenAsyncTransfersOf(2, 10, true))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	private void givenAsyncTransfersOf(int threads, int queueCapacity) {
+		givenAsyncTransfersOf(threads, queueCapacity, false);
+	}
+
+	private void givenAsyncTransfersOf(int threads, int queueCapacity, boolean virtualThreads) {
+		asyncSendMoneyService = new AsyncSendMoneyService(
+				sendMoneyBatchUseCase,
+				new AsyncTransferProperties(threads, queueCapacity, virtualThreads),
+				meterRegistry);
+	}
+
+	private static SendMoneyCommand transfer() {
+		return new SendMoneyCommand(new AccountId(1L), new AccountId(2L), Money.of(100L));
+	}
+
+}
@@ -0,0 +1,182 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyBatchUseCase;
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferRejectedException;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class GroupCommitSendMoneyServiceTest {
+
+	private final SendMoneyBatchUseCase sendMoneyBatchUseCase =
+			Mockito.mock(SendMoneyBatchUseCase.class);
+
+	private final ExecutorService callers = Executors.newCachedThreadPool();
+
+	private GroupCommitSendMoneyService groupCommitSendMoneyService;
+
+	@AfterEach
+	void stop() {
+		callers.shutdownNow();
+		groupCommitSendMoneyService.close();
+	}
+
+	@Test
+	void commitsConcurrentTransfersTogether() throws Exception {
+		givenGroupCommitOf(3, Duration.ofSeconds(10));
+		given(sendMoneyBatchUseCase.sendMoney(anyList()))
+				.willAnswer(invocation -> resultsFor(invocation.getArgument(0), Status.SUCCEEDED));
+
+		List<Boolean> results = sendConcurrently(transfer(1L, 2L), transfer(3L, 4L), transfer(5L, 6L));
+
+		assertThat(results).containsExactly(true, true, true);
+		then(sendMoneyBatchUseCase).should(times(1)).sendMoney(argThat(commands -> commands.size() == 3));
+	}
+
+	@Test
+	void commitsTransfersAloneWhenTheirBatchFails() throws Exception {
+		givenGroupCommitOf(2, Duration.ofSeconds(10));
+		SendMoneyCommand failing = transfer(1L, 2L);
+		SendMoneyCommand succeeding = transfer(3L, 4L);
+		given(sendMoneyBatchUseCase.sendMoney(anyList())).willAnswer(invocation -> {
+			List<SendMoneyCommand> commands = invocation.getArgument(0);
+			if (commands.contains(failing)) {
+				throw new IllegalStateException("batch failed");
+			}
+			return resultsFor(commands, Status.SUCCEEDED);
+		});
+
+		Future<Boolean> failingResult = callers.submit(() -> groupCommitSendMoneyService.sendMoney(failing));
+		Future<Boolean> succeedingResult = callers.submit(() -> groupCommitSendMoneyService.sendMoney(succeeding));
+
+		assertThat(succeedingResult.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThatThrownBy(() -> failingResult.get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+		then(sendMoneyBatchUseCase).should().sendMoney(List.of(failing));
+		then(sendMoneyBatchUseCase).should().sendMoney(List.of(succeeding));
+	}
+
+	@Test
+	void reportsTransfersThatWereNotApplied() {
+		givenGroupCommitOf(1, Duration.ZERO);
+		given(sendMoneyBatchUseCase.sendMoney(anyList()))
+				.willAnswer(invocation -> resultsFor(invocation.getArgument(0), Status.INSUFFICIENT_BALANCE));
+
+		assertThat(groupCommitSendMoneyService.sendMoney(transfer(1L, 2L))).isFalse();
+	}
+
+	@Test
+	void throwsWhenThresholdIsExceeded() {
+		givenGroupCommitOf(1, Duration.ZERO);
+		given(sendMoneyBatchUseCase.sendMoney(anyList()))
+				.willAnswer(invocation -> resultsFor(invocation.getArgument(0), Status.THRESHOLD_EXCEEDED));
+
+		assertThatThrownBy(() -> groupCommitSendMoneyService.sendMoney(transfer(1L, 2L)))
+				.isInstanceOf(ThresholdExceededException.class);
+	}
+
+	@Test
+	void keepsCommittingAfterABatchFailedWithAnError() {
+		givenGroupCommitOf(1, Duration.ZERO);
+		given(sendMoneyBatchUseCase.sendMoney(anyList()))
+				.willThrow(new AssertionError("batch failed"))
+				.willAnswer(invocation -> resultsFor(invocation.getArgument(0), Status.SUCCEEDED));
+
+		assertThatThrownBy(() -> groupCommitSendMoneyService.sendMoney(transfer(1L, 2L)))
+				.isInstanceOf(AssertionError.class);
+		assertThat(groupCommitSendMoneyService.sendMoney(transfer(3L, 4L))).isTrue();
+	}
+
+	@Test
+	void rejectsTransfersAfterClose() {
+		givenGroupCommitOf(1, Duration.ZERO);
+
+		groupCommitSendMoneyService.close();
+
+		assertThatThrownBy(() -> groupCommitSendMoneyService.sendMoney(transfer(1L, 2L)))
+				.isInstanceOf(TransferRejectedException.class);
+		then(sendMoneyBatchUseCase).shouldHaveNoInteractions();
+	}
+
+	@Test
+	void stopsWaitingForACommitAfterTheResultTimeout() throws Exception {
+		givenGroupCommitOf(1, Duration.ZERO, Duration.ofMillis(100));
+		CountDownLatch committing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		given(sendMoneyBatchUseCase.sendMoney(anyList())).willAnswer(invocation -> {
+			committing.countDown();
+			release.await();
+			return resultsFor(invocation.getArgument(0), Status.SUCCEEDED);
+		});
+
+		try {
+			Future<Boolean> committed = callers.submit(() -> groupCommitSendMoneyService.sendMoney(transfer(1L, 2L)));
+			assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+
+			// the second transfer is still queued behind the hanging commit and is never executed
+			assertThatThrownBy(() -> groupCommitSendMoneyService.sendMoney(transfer(3L, 4L)))
+					.isInstanceOf(TransferRejectedException.class);
+			assertThatThrownBy(() -> committed.get(5, TimeUnit.SECONDS))
+					.hasCauseInstanceOf(IllegalStateException.class);
+		} finally {
+			release.countDown();
+		}
+		then(sendMoneyBatchUseCase).should(times(1)).sendMoney(anyList());
+	}
+
+	private void givenGroupCommitOf(int maxBatchSize, Duration maxWait) {
+		givenGroupCommitOf(maxBatchSize, maxWait, Duration.ofSeconds(5));
+	}
+
+	private void givenGroupCommitOf(int maxBatchSize, Duration maxWait, Duration resultTimeout) {
+		groupCommitSendMoneyService = new GroupCommitSendMoneyService(
+				sendMoneyBatchUseCase,
+				new MoneyTransferProperties(Money.of(1000L)),
+				new GroupCommitProperties(maxBatchSize, maxWait, resultTimeout));
+	}
+
+	private List<Boolean> sendConcurrently(SendMoneyCommand... commands)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		List<Future<Boolean>> futures = new ArrayList<>();
+		for (SendMoneyCommand command : commands) {
+			futures.add(callers.submit(() -> groupCommitSendMoneyService.sendMoney(command)));
+		}
+		List<Boolean> results = new ArrayList<>();
+		for (Future<Boolean> future : futures) {
+			results.add(future.get(5, TimeUnit.SECONDS));
+		}
+		return results;
+	}
+
+	private static List<TransferResult> resultsFor(List<SendMoneyCommand> commands, Status status) {
+		return commands.stream()
+				.map(command -> TransferResult.of(status))
+				.collect(Collectors.toList());
+	}
+
+	private static SendMoneyCommand transfer(long source, long target) {
+		return new SendMoneyCommand(new AccountId(source), new AccountId(target), Money.of(100L));
+	}
+
+}
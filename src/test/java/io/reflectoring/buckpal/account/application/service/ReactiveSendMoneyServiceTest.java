@@ -0,0 +1,177 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.application.port.out.ReactiveLoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.ReactiveUpdateAccountStatePort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.reflectoring.buckpal.common.AccountTestData.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class ReactiveSendMoneyServiceTest {
+
+	private static final AccountId SOURCE_ACCOUNT_ID = new AccountId(41L);
+
+	private static final AccountId TARGET_ACCOUNT_ID = new AccountId(42L);
+
+	private final ReactiveLoadAccountPort loadAccountPort =
+			Mockito.mock(ReactiveLoadAccountPort.class);
+
+	private final ReactiveUpdateAccountStatePort updateAccountStatePort =
+			Mockito.mock(ReactiveUpdateAccountStatePort.class);
+
+	private final TransactionalOperator transactionalOperator =
+			Mockito.mock(TransactionalOperator.class);
+
+	private final ReactiveSendMoneyService reactiveSendMoneyService = new ReactiveSendMoneyService(
+			loadAccountPort,
+			updateAccountStatePort,
+			transactionalOperator,
+			new MoneyTransferProperties(Money.of(1000L)),
+			new ActivityWindowProperties(),
+			new ReactiveTransferProperties(2),
+			new TransferRetryProperties(3, Duration.ofMillis(1), Duration.ofMillis(1)));
+
+	@BeforeEach
+	void givenTransactionsAndAccounts() {
+		given(transactionalOperator.transactional(anyMono()))
+				.willAnswer(invocation -> invocation.getArgument(0));
+		given(loadAccountPort.loadAccount(any(AccountId.class), any(LocalDateTime.class)))
+				.willAnswer(invocation -> Mono.fromSupplier(() -> accountWithBalance(invocation.getArgument(0), 500L)));
+		given(updateAccountStatePort.updateActivities(any(Account.class))).willReturn(Mono.empty());
+	}
+
+	@Test
+	void transactionSucceeds() {
+
+		TransferResult result = reactiveSendMoneyService.sendMoney(transfer(300L)).block();
+
+		assertThat(result.getStatus()).isEqualTo(Status.SUCCEEDED);
+		then(updateAccountStatePort).should().updateActivities(argThat(account ->
+				account.getId().get().equals(SOURCE_ACCOUNT_ID)
+						&& account.calculateBalance().equals(Money.of(200L))));
+		then(updateAccountStatePort).should().updateActivities(argThat(account ->
+				account.getId().get().equals(TARGET_ACCOUNT_ID)
+						&& account.calculateBalance().equals(Money.of(800L))));
+		then(transactionalOperator).should().transactional(anyMono());
+	}
+
+	@Test
+	void givenWithdrawalFails_thenNothingIsUpdated() {
+
+		TransferResult result = reactiveSendMoneyService.sendMoney(transfer(600L)).block();
+
+		assertThat(result.getStatus()).isEqualTo(Status.INSUFFICIENT_BALANCE);
+		then(updateAccountStatePort).should(never()).updateActivities(any(Account.class));
+	}
+
+	@Test
+	void givenThresholdExceeded_thenNothingIsLoaded() {
+
+		TransferResult result = reactiveSendMoneyService.sendMoney(transfer(1001L)).block();
+
+		assertThat(result.getStatus()).isEqualTo(Status.THRESHOLD_EXCEEDED);
+		then(loadAccountPort).shouldHaveNoInteractions();
+	}
+
+	@Test
+	void rejectsIdempotencyKeys() {
+
+		SendMoneyCommand command = new SendMoneyCommand(
+				SOURCE_ACCOUNT_ID, TARGET_ACCOUNT_ID, Money.of(300L), "transfer-1");
+
+		assertThatThrownBy(() -> reactiveSendMoneyService.sendMoney(command).block())
+				.isInstanceOf(IllegalArgumentException.class);
+		then(loadAccountPort).shouldHaveNoInteractions();
+	}
+
+	@Test
+	void givenConcurrentChange_thenTransferIsRetriedWithFreshAccounts() {
+		AtomicLong updates = new AtomicLong();
+		given(updateAccountStatePort.updateActivities(any(Account.class))).willReturn(Mono.defer(() ->
+				updates.incrementAndGet() == 1
+						? Mono.error(new OptimisticLockingFailureException("changed concurrently"))
+						: Mono.empty()));
+
+		TransferResult result = reactiveSendMoneyService.sendMoney(transfer(300L)).block();
+
+		assertThat(result.getStatus()).isEqualTo(Status.SUCCEEDED);
+		then(loadAccountPort).should(times(2)).loadAccount(eq(SOURCE_ACCOUNT_ID), any(LocalDateTime.class));
+		then(loadAccountPort).should(times(2)).loadAccount(eq(TARGET_ACCOUNT_ID), any(LocalDateTime.class));
+	}
+
+	@Test
+	void givenRetriesExhausted_thenConcurrencyFailureIsSignalled() {
+		given(updateAccountStatePort.updateActivities(any(Account.class))).willReturn(
+				Mono.error(new OptimisticLockingFailureException("changed concurrently")));
+
+		assertThatThrownBy(() -> reactiveSendMoneyService.sendMoney(transfer(300L)).block())
+				.isInstanceOf(OptimisticLockingFailureException.class);
+		then(loadAccountPort).should(times(3)).loadAccount(eq(SOURCE_ACCOUNT_ID), any(LocalDateTime.class));
+	}
+
+	@Test
+	void streamKeepsOrderOfCommands() {
+		AtomicLong loads = new AtomicLong();
+		given(loadAccountPort.loadAccount(any(AccountId.class), any(LocalDateTime.class)))
+				.willAnswer(invocation -> Mono.fromSupplier(() -> accountWithBalance(invocation.getArgument(0), 500L))
+						// 먼저 온 송금이 늦게 끝나도 결과는 명령 순서대로 나온다
+						.delayElement(Duration.ofMillis(loads.incrementAndGet() <= 2 ? 50 : 0)));
+
+		List<TransferResult> results = reactiveSendMoneyService
+				.sendMoney(Flux.just(transfer(300L), transfer(600L), transfer(1001L)))
+				.collectList()
+				.block();
+
+		assertThat(results).extracting(TransferResult::getStatus).containsExactly(
+				Status.SUCCEEDED, Status.INSUFFICIENT_BALANCE, Status.THRESHOLD_EXCEEDED);
+	}
+
+	@Test
+	void streamRequestsOnlyAsManyCommandsAsTransfersMayRun() {
+		given(loadAccountPort.loadAccount(any(AccountId.class), any(LocalDateTime.class))).willReturn(Mono.never());
+		AtomicLong requested = new AtomicLong();
+
+		reactiveSendMoneyService.sendMoney(Flux.range(0, 100)
+						.map(i -> transfer(100L))
+						.doOnRequest(requested::addAndGet))
+				.subscribe();
+
+		assertThat(requested.get()).isEqualTo(2L);
+	}
+
+	private static Mono<Object> anyMono() {
+		return any();
+	}
+
+	private static SendMoneyCommand transfer(long amount) {
+		return new SendMoneyCommand(SOURCE_ACCOUNT_ID, TARGET_ACCOUNT_ID, Money.of(amount));
+	}
+
+	private static Account accountWithBalance(AccountId accountId, long balance) {
+		return defaultAccount()
+				.withAccountId(accountId)
+				.withBaselineBalance(Money.of(balance))
+				.withActivityWindow(new ActivityWindow())
+				.build();
+	}
+
+}
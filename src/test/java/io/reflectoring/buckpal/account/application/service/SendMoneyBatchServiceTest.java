@@ -0,0 +1,193 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult;
+import io.reflectoring.buckpal.account.application.port.in.TransferResult.Status;
+import io.reflectoring.buckpal.account.application.port.out.AccountLock;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityWindowStartPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadExistingAccountIdsPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadTransferOutcomePort;
+import io.reflectoring.buckpal.account.application.port.out.RecordTransferOutcomePort;
+import io.reflectoring.buckpal.account.application.port.out.UpdateAccountStatePort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import io.reflectoring.buckpal.account.domain.ActivityWindow;
+import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static io.reflectoring.buckpal.common.AccountTestData.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class SendMoneyBatchServiceTest {
+
+	private final LoadAccountPort loadAccountPort =
+			Mockito.mock(LoadAccountPort.class);
+
+	private final LoadExistingAccountIdsPort loadExistingAccountIdsPort =
+			Mockito.mock(LoadExistingAccountIdsPort.class);
+
+	private final AccountLock accountLock =
+			Mockito.mock(AccountLock.class);
+
+	private final UpdateAccountStatePort updateAccountStatePort =
+			Mockito.mock(UpdateAccountStatePort.class);
+
+	private final LoadTransferOutcomePort loadTransferOutcomePort =
+			Mockito.mock(LoadTransferOutcomePort.class);
+
+	private final RecordTransferOutcomePort recordTransferOutcomePort =
+			Mockito.mock(RecordTransferOutcomePort.class);
+
+	private final SendMoneyBatchService sendMoneyBatchService =
+			new SendMoneyBatchService(loadAccountPort, loadExistingAccountIdsPort, accountLock, updateAccountStatePort,
+					new MoneyTransferProperties(Money.of(1000L)),
+					new ActivityWindowPolicy(Mockito.mock(LoadActivityWindowStartPort.class), new ActivityWindowProperties()),
+					new TransferOutcomes(loadTransferOutcomePort, recordTransferOutcomePort));
+
+	private final Map<AccountId, Account> accounts = new HashMap<>();
+
+	@BeforeEach
+	void givenAccountsAreLoadedTogether() {
+		given(loadExistingAccountIdsPort.loadExistingAccountIds(anyCollection()))
+				.willAnswer(invocation -> invocation.<Collection<AccountId>>getArgument(0)
+						.stream()
+						.filter(accounts::containsKey)
+						.collect(Collectors.toSet()));
+		given(loadAccountPort.loadAccounts(anyList(), any(LocalDateTime.class)))
+				.willAnswer(invocation -> invocation.<List<AccountId>>getArgument(0)
+						.stream()
+						.map(accounts::get)
+						.collect(Collectors.toList()));
+	}
+
+	@Test
+	void appliesTransfersInOrderAndReportsEachResult() {
+		AccountId a = givenAnAccountWithBalance(1L, 500L);
+		AccountId b = givenAnAccountWithBalance(2L, 0L);
+		AccountId c = givenAnAccountWithBalance(3L, 0L);
+
+		List<TransferResult> results = sendMoneyBatchService.sendMoney(List.of(
+				new SendMoneyCommand(a, b, Money.of(300L)),
+				new SendMoneyCommand(a, c, Money.of(300L)),
+				new SendMoneyCommand(b, c, Money.of(200L)),
+				new SendMoneyCommand(c, a, Money.of(5000L))));
+
+		assertThat(results).extracting(TransferResult::getStatus).containsExactly(
+				Status.SUCCEEDED,
+				Status.INSUFFICIENT_BALANCE,
+				Status.SUCCEEDED,
+				Status.THRESHOLD_EXCEEDED);
+		assertThat(accounts.get(a).calculateBalance()).isEqualTo(Money.of(200L));
+		assertThat(accounts.get(b).calculateBalance()).isEqualTo(Money.of(100L));
+		assertThat(accounts.get(c).calculateBalance()).isEqualTo(Money.of(200L));
+	}
+
+	@Test
+	void loadsLocksAndUpdatesEachAccountOnce() {
+		AccountId a = givenAnAccountWithBalance(1L, 500L);
+		AccountId b = givenAnAccountWithBalance(2L, 500L);
+
+		sendMoneyBatchService.sendMoney(List.of(
+				new SendMoneyCommand(a, b, Money.of(100L)),
+				new SendMoneyCommand(b, a, Money.of(100L)),
+				new SendMoneyCommand(a, b, Money.of(100L))));
+
+		then(accountLock).should().lockAccounts(eq(List.of(a, b)));
+		then(loadAccountPort).should().loadAccounts(eq(List.of(a, b)), any(LocalDateTime.class));
+		then(updateAccountStatePort).should().updateActivities(accounts.get(a));
+		then(updateAccountStatePort).should().updateActivities(accounts.get(b));
+		then(accountLock).should().releaseAccounts(eq(List.of(a, b)));
+	}
+
+	@Test
+	void rejectsOnlyTransfersWithMissingAccounts() {
+		AccountId a = givenAnAccountWithBalance(1L, 500L);
+		AccountId b = givenAnAccountWithBalance(2L, 0L);
+		AccountId missing = new AccountId(3L);
+
+		List<TransferResult> results = sendMoneyBatchService.sendMoney(List.of(
+				new SendMoneyCommand(a, b, Money.of(100L)),
+				new SendMoneyCommand(a, missing, Money.of(100L), "missing"),
+				new SendMoneyCommand(missing, b, Money.of(100L)),
+				new SendMoneyCommand(a, b, Money.of(100L))));
+
+		assertThat(results).extracting(TransferResult::getStatus).containsExactly(
+				Status.SUCCEEDED,
+				Status.ACCOUNT_NOT_FOUND,
+				Status.ACCOUNT_NOT_FOUND,
+				Status.SUCCEEDED);
+		assertThat(accounts.get(a).calculateBalance()).isEqualTo(Money.of(300L));
+		assertThat(accounts.get(b).calculateBalance()).isEqualTo(Money.of(200L));
+		then(accountLock).should().lockAccounts(eq(List.of(a, b)));
+		then(loadAccountPort).should().loadAccounts(eq(List.of(a, b)), any(LocalDateTime.class));
+		then(loadTransferOutcomePort).should(never()).loadTransferOutcome("missing");
+		then(recordTransferOutcomePort).should(never()).recordTransferOutcome(eq("missing"), anyString());
+	}
+
+	@Test
+	void sendsEachIdempotencyKeyOnlyOnce() {
+		AccountId a = givenAnAccountWithBalance(1L, 500L);
+		AccountId b = givenAnAccountWithBalance(2L, 0L);
+		given(loadTransferOutcomePort.loadTransferOutcome("recorded"))
+				.willReturn(Optional.of("SUCCEEDED"));
+
+		List<TransferResult> results = sendMoneyBatchService.sendMoney(List.of(
+				new SendMoneyCommand(a, b, Money.of(100L), "recorded"),
+				new SendMoneyCommand(a, b, Money.of(100L), "new"),
+				new SendMoneyCommand(a, b, Money.of(100L), "new"),
+				new SendMoneyCommand(a, b, Money.of(100L))));
+
+		assertThat(results).extracting(TransferResult::getStatus).containsOnly(Status.SUCCEEDED);
+		assertThat(accounts.get(a).calculateBalance()).isEqualTo(Money.of(300L));
+		then(recordTransferOutcomePort).should().recordTransferOutcome("new", "SUCCEEDED");
+		then(recordTransferOutcomePort).shouldHaveNoMoreInteractions();
+	}
+
+	@Test
+	void looksUpIdempotencyKeysOnlyWhileAccountsAreLocked() {
+		AccountId a = givenAnAccountWithBalance(1L, 500L);
+		AccountId b = givenAnAccountWithBalance(2L, 0L);
+		given(loadTransferOutcomePort.loadTransferOutcome("recorded"))
+				.willReturn(Optional.of("SUCCEEDED"));
+
+		sendMoneyBatchService.sendMoney(List.of(new SendMoneyCommand(a, b, Money.of(100L), "recorded")));
+
+		InOrder inOrder = inOrder(accountLock, loadTransferOutcomePort);
+		inOrder.verify(accountLock).lockAccounts(eq(List.of(a, b)));
+		inOrder.verify(loadTransferOutcomePort).loadTransferOutcome("recorded");
+		inOrder.verify(accountLock).releaseAccounts(eq(List.of(a, b)));
+		then(loadAccountPort).shouldHaveNoInteractions();
+		then(updateAccountStatePort).shouldHaveNoInteractions();
+	}
+
+	@Test
+	void doesNothingForAnEmptyBatch() {
+		assertThat(sendMoneyBatchService.sendMoney(List.of())).isEmpty();
+
+		then(loadAccountPort).shouldHaveNoInteractions();
+	}
+
+	private AccountId givenAnAccountWithBalance(long id, long balance) {
+		AccountId accountId = new AccountId(id);
+		accounts.put(accountId, defaultAccount()
+				.withAccountId(accountId)
+				.withBaselineBalance(Money.of(balance))
+				.withActivityWindow(new ActivityWindow())
+				.build());
+		return accountId;
+	}
+
+}
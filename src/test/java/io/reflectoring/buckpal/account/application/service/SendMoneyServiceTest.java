@@ -3,16 +3,23 @@ package io.reflectoring.buckpal.account.application.service;
 import io.reflectoring.buckpal.account.application.port.in.SendMoneyCommand;
 import io.reflectoring.buckpal.account.application.port.out.AccountLock;
 import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadActivityWindowStartPort;
+import io.reflectoring.buckpal.account.application.port.out.LoadTransferOutcomePort;
+import io.reflectoring.buckpal.account.application.port.out.RecordTransferOutcomePort;
 import io.reflectoring.buckpal.account.application.port.out.UpdateAccountStatePort;
 import io.reflectoring.buckpal.account.domain.Account;
 import io.reflectoring.buckpal.account.domain.Account.AccountId;
 import io.reflectoring.buckpal.account.domain.Money;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -30,11 +37,30 @@ class SendMoneyServiceTest {
 	private final UpdateAccountStatePort updateAccountStatePort =
 			Mockito.mock(UpdateAccountStatePort.class);
 
+	private final LoadTransferOutcomePort loadTransferOutcomePort =
+			Mockito.mock(LoadTransferOutcomePort.class);
+
+	private final RecordTransferOutcomePort recordTransferOutcomePort =
+			Mockito.mock(RecordTransferOutcomePort.class);
+
 	private final SendMoneyService sendMoneyService =
-			new SendMoneyService(loadAccountPort, accountLock, updateAccountStatePort, moneyTransferProperties());
+			new SendMoneyService(loadAccountPort, accountLock, updateAccountStatePort, moneyTransferProperties(),
+					new ActivityWindowPolicy(Mockito.mock(LoadActivityWindowStartPort.class), new ActivityWindowProperties()),
+					new TransferOutcomes(loadTransferOutcomePort, recordTransferOutcomePort));
+
+	private final Map<AccountId, Account> accounts = new HashMap<>();
+
+	@BeforeEach
+	void givenAccountsAreLoadedTogether() {
+		given(loadAccountPort.loadAccounts(anyList(), any(LocalDateTime.class)))
+				.willAnswer(invocation -> invocation.<List<AccountId>>getArgument(0)
+						.stream()
+						.map(accounts::get)
+						.collect(Collectors.toList()));
+	}
 
 	@Test
-	void givenWithdrawalFails_thenOnlySourceAccountIsLockedAndReleased() {
+	void givenWithdrawalFails_thenAccountsAreReleasedWithoutUpdate() {
 
 		// given
 		AccountId sourceAccountId = new AccountId(41L);
@@ -57,9 +83,9 @@ class SendMoneyServiceTest {
 		// then
 		assertThat(success).isFalse();
 
-		then(accountLock).should().lockAccount(eq(sourceAccountId));
-		then(accountLock).should().releaseAccount(eq(sourceAccountId));
-		then(accountLock).should(times(0)).lockAccount(eq(targetAccountId));
+		then(accountLock).should().lockAccounts(eq(sourceAccountId), eq(targetAccountId));
+		then(accountLock).should().releaseAccounts(eq(sourceAccountId), eq(targetAccountId));
+		then(updateAccountStatePort).should(never()).updateActivities(any(Account.class));
 	}
 
 	@Test
@@ -85,17 +111,69 @@ class SendMoneyServiceTest {
 		AccountId sourceAccountId = sourceAccount.getId().get();
 		AccountId targetAccountId = targetAccount.getId().get();
 
-		then(accountLock).should().lockAccount(eq(sourceAccountId));
-		then(sourceAccount).should().withdraw(eq(money), eq(targetAccountId));
-		then(accountLock).should().releaseAccount(eq(sourceAccountId));
+		InOrder inOrder = inOrder(accountLock, loadAccountPort, updateAccountStatePort);
+		inOrder.verify(accountLock).lockAccounts(eq(sourceAccountId), eq(targetAccountId));
+		inOrder.verify(loadAccountPort).loadAccounts(anyList(), any(LocalDateTime.class));
+		inOrder.verify(updateAccountStatePort, times(2)).updateActivities(any(Account.class));
+		inOrder.verify(accountLock).releaseAccounts(eq(sourceAccountId), eq(targetAccountId));
 
-		then(accountLock).should().lockAccount(eq(targetAccountId));
+		then(sourceAccount).should().withdraw(eq(money), eq(targetAccountId));
 		then(targetAccount).should().deposit(eq(money), eq(sourceAccountId));
-		then(accountLock).should().releaseAccount(eq(targetAccountId));
 
 		thenAccountsHaveBeenUpdated(sourceAccountId, targetAccountId);
 	}
 
+	@Test
+	void recordsOutcomeUnderIdempotencyKey() {
+
+		Account sourceAccount = givenSourceAccount();
+		Account targetAccount = givenTargetAccount();
+
+		givenWithdrawalWillFail(sourceAccount);
+		givenDepositWillSucceed(targetAccount);
+
+		SendMoneyCommand command = new SendMoneyCommand(
+				sourceAccount.getId().get(),
+				targetAccount.getId().get(),
+				Money.of(500L),
+				"transfer-1");
+
+		boolean success = sendMoneyService.sendMoney(command);
+
+		assertThat(success).isFalse();
+		then(recordTransferOutcomePort).should().recordTransferOutcome("transfer-1", "INSUFFICIENT_BALANCE");
+	}
+
+	@Test
+	void repeatedIdempotencyKeyReturnsRecordedOutcome() {
+
+		Account sourceAccount = givenSourceAccount();
+		Account targetAccount = givenTargetAccount();
+
+		given(loadTransferOutcomePort.loadTransferOutcome("transfer-1"))
+				.willReturn(Optional.of("SUCCEEDED"));
+
+		AccountId sourceAccountId = sourceAccount.getId().get();
+		AccountId targetAccountId = targetAccount.getId().get();
+		SendMoneyCommand command = new SendMoneyCommand(
+				sourceAccountId,
+				targetAccountId,
+				Money.of(500L),
+				"transfer-1");
+
+		boolean success = sendMoneyService.sendMoney(command);
+
+		assertThat(success).isTrue();
+		InOrder inOrder = inOrder(accountLock, loadTransferOutcomePort);
+		inOrder.verify(accountLock).lockAccounts(eq(sourceAccountId), eq(targetAccountId));
+		inOrder.verify(loadTransferOutcomePort).loadTransferOutcome("transfer-1");
+		inOrder.verify(accountLock).releaseAccounts(eq(sourceAccountId), eq(targetAccountId));
+		then(loadAccountPort).shouldHaveNoInteractions();
+		then(sourceAccount).should(never()).withdraw(any(Money.class), any(AccountId.class));
+		then(updateAccountStatePort).shouldHaveNoInteractions();
+		then(recordTransferOutcomePort).shouldHaveNoInteractions();
+	}
+
 	private void thenAccountsHaveBeenUpdated(AccountId... accountIds){
 		ArgumentCaptor<Account> accountCaptor = ArgumentCaptor.forClass(Account.class);
 		then(updateAccountStatePort).should(times(accountIds.length))
@@ -141,6 +219,7 @@ class SendMoneyServiceTest {
 				.willReturn(Optional.of(id));
 		given(loadAccountPort.loadAccount(eq(account.getId().get()), any(LocalDateTime.class)))
 				.willReturn(account);
+		accounts.put(id, account);
 		return account;
 	}
 
@@ -0,0 +1,84 @@
+package io.reflectoring.buckpal.account.application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StripedAccountLockTest {
+
+	private static final int THREADS = 8;
+
+	private static final int TRANSFERS_PER_THREAD = 20_000;
+
+	@Test
+	@Timeout(30)
+	void opposingTransfersDoNotDeadlockAndAreMutuallyExclusive() throws Exception {
+		StripedAccountLock lock = new StripedAccountLock(16);
+		AccountId a = new AccountId(1L);
+		AccountId b = new AccountId(2L);
+		long[] balances = new long[2];
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			boolean forward = t % 2 == 0;
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+					AccountId source = forward ? a : b;
+					AccountId target = forward ? b : a;
+					lock.lockAccounts(source, target);
+					try {
+						// deliberately non-atomic: lost updates show up if the lock does not exclude
+						balances[forward ? 0 : 1]--;
+						balances[forward ? 1 : 0]++;
+					} finally {
+						lock.releaseAccounts(source, target);
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(balances[0]).isZero();
+		assertThat(balances[1]).isZero();
+	}
+
+	@Test
+	void locksAccountsOnTheSameStripeOnlyOnce() {
+		StripedAccountLock lock = new StripedAccountLock(1);
+		AccountId a = new AccountId(1L);
+		AccountId b = new AccountId(2L);
+
+		lock.lockAccounts(a, b);
+		lock.releaseAccounts(a, b);
+
+		assertThat(lock.stripeOf(a)).isEqualTo(lock.stripeOf(b));
+		assertThatCode(() -> lock.releaseAccount(a))
+				.isInstanceOf(IllegalMonitorStateException.class);
+	}
+
+	@Test
+	void rejectsEmptyStripes() {
+		assertThatThrownBy(() -> new StripedAccountLock(0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
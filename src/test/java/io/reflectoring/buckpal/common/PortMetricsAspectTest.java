@@ -0,0 +1,228 @@
+package io.reflectoring.buckpal.common;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reflectoring.buckpal.account.application.port.out.AccountLock;
+import io.reflectoring.buckpal.account.application.port.out.LoadAccountPort;
+import io.reflectoring.buckpal.account.application.port.out.ReactiveLoadAccountPort;
+import io.reflectoring.buckpal.account.domain.Account;
+import io.reflectoring.buckpal.account.domain.Account.AccountId;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Mono;
+
+import static io.reflectoring.buckpal.common.AccountTestData.*;
+import static org.assertj.core.api.Assertions.*;
+
+class PortMetricsAspectTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void recordsSuccessfulCallsPerPortMethod() {
+		LoadAccountPort port = proxy(new FakePersistenceAdapter());
+
+		port.loadAccount(new AccountId(1L), LocalDateTime.now());
+		port.loadAccount(new AccountId(1L), LocalDateTime.now());
+
+		assertThat(registry.get(PortMetricsAspect.CALLS)
+				.tag("layer", "persistence-adapter")
+				.tag("port", "LoadAccountPort")
+				.tag("method", "loadAccount")
+				.tag("outcome", "success")
+				.timer()
+				.count()).isEqualTo(2);
+		assertThat(registry.get(PortMetricsAspect.IN_FLIGHT)
+				.tag("method", "loadAccount")
+				.gauge()
+				.value()).isZero();
+		assertThat(registry.find(PortMetricsAspect.ERRORS).counter()).isNull();
+	}
+
+	@Test
+	void countsFailedCallsByExceptionType() {
+		LoadAccountPort port = proxy(new FakePersistenceAdapter());
+
+		assertThatThrownBy(() -> port.loadAccounts(List.of(), LocalDateTime.now()))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(registry.get(PortMetricsAspect.CALLS)
+				.tag("method", "loadAccounts")
+				.tag("outcome", "error")
+				.timer()
+				.count()).isEqualTo(1);
+		assertThat(registry.get(PortMetricsAspect.ERRORS)
+				.tag("port", "LoadAccountPort")
+				.tag("method", "loadAccounts")
+				.tag("exception", "IllegalStateException")
+				.counter()
+				.count()).isEqualTo(1);
+	}
+
+	@Test
+	void countsCallsInFlight() {
+		FakeWebAdapter target = new FakeWebAdapter();
+		FakeWebAdapter adapter = proxy(target);
+		target.whileRunning = () -> assertThat(registry.get(PortMetricsAspect.IN_FLIGHT)
+				.tag("layer", "web-adapter")
+				.tag("port", "FakeWebAdapter")
+				.tag("method", "handle")
+				.gauge()
+				.value()).isEqualTo(1);
+
+		adapter.handle();
+
+		assertThat(registry.get(PortMetricsAspect.IN_FLIGHT)
+				.tag("method", "handle")
+				.gauge()
+				.value()).isZero();
+	}
+
+	@Test
+	void recordsReactiveCallsFromSubscriptionUntilTermination() {
+		FakeReactivePersistenceAdapter adapter = proxy(new FakeReactivePersistenceAdapter());
+
+		Mono<Account> account = adapter.loadAccount(new AccountId(1L), LocalDateTime.now());
+
+		assertThat(registry.get(PortMetricsAspect.CALLS)
+				.tag("port", "ReactiveLoadAccountPort")
+				.tag("outcome", "success")
+				.timer()
+				.count()).isZero();
+		assertThat(registry.get(PortMetricsAspect.IN_FLIGHT)
+				.tag("port", "ReactiveLoadAccountPort")
+				.gauge()
+				.value()).isZero();
+
+		account.block();
+		assertThatThrownBy(() -> adapter.loadAccount(new AccountId(2L), LocalDateTime.now()).block())
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(registry.get(PortMetricsAspect.CALLS)
+				.tag("port", "ReactiveLoadAccountPort")
+				.tag("outcome", "success")
+				.timer()
+				.count()).isEqualTo(1);
+		assertThat(registry.get(PortMetricsAspect.ERRORS)
+				.tag("port", "ReactiveLoadAccountPort")
+				.tag("exception", "IllegalStateException")
+				.counter()
+				.count()).isEqualTo(1);
+		assertThat(registry.get(PortMetricsAspect.IN_FLIGHT)
+				.tag("port", "ReactiveLoadAccountPort")
+				.gauge()
+				.value()).isZero();
+	}
+
+	@Test
+	void recordsOverloadsSeparately() {
+		FakeAccountLock target = new FakeAccountLock();
+		FakeAccountLock lock = proxy(target);
+		target.whileLocking = () -> assertThat(registry.get(PortMetricsAspect.IN_FLIGHT)
+				.tag("method", "lockAccounts")
+				.tag("signature", "Collection")
+				.gauge()
+				.value()).isEqualTo(1);
+
+		lock.lockAccounts(new AccountId(1L), new AccountId(2L));
+		lock.lockAccounts(new AccountId(1L), new AccountId(2L));
+		lock.lockAccounts(List.of(new AccountId(1L)));
+
+		assertThat(registry.get(PortMetricsAspect.CALLS)
+				.tag("port", "AccountLock")
+				.tag("signature", "AccountId,AccountId")
+				.tag("outcome", "success")
+				.timer()
+				.count()).isEqualTo(2);
+		assertThat(registry.get(PortMetricsAspect.CALLS)
+				.tag("port", "AccountLock")
+				.tag("signature", "Collection")
+				.tag("outcome", "success")
+				.timer()
+				.count()).isEqualTo(1);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T proxy(T target) {
+		AspectJProxyFactory factory = new AspectJProxyFactory(target);
+		factory.setProxyTargetClass(true);
+		factory.addAspect(new PortMetricsAspect(registry));
+		return (T) factory.getProxy();
+	}
+
+	@PersistenceAdapter
+	static class FakePersistenceAdapter implements LoadAccountPort {
+
+		@Override
+		public Account loadAccount(AccountId accountId, LocalDateTime baselineDate) {
+			return defaultAccount().build();
+		}
+
+		@Override
+		public List<Account> loadAccounts(List<AccountId> accountIds, LocalDateTime baselineDate) {
+			throw new IllegalStateException();
+		}
+
+	}
+
+	@PersistenceAdapter
+	static class FakeReactivePersistenceAdapter implements ReactiveLoadAccountPort {
+
+		@Override
+		public Mono<Account> loadAccount(AccountId accountId, LocalDateTime baselineDate) {
+			if (accountId.getValue() != 1L) {
+				return Mono.error(new IllegalStateException());
+			}
+			return Mono.fromSupplier(() -> defaultAccount().build());
+		}
+
+	}
+
+	static class FakeAccountLock implements AccountLock {
+
+		Runnable whileLocking = () -> {
+		};
+
+		@Override
+		public void lockAccount(AccountId accountId) {
+		}
+
+		@Override
+		public void releaseAccount(AccountId accountId) {
+		}
+
+		@Override
+		public void lockAccounts(AccountId first, AccountId second) {
+		}
+
+		@Override
+		public void releaseAccounts(AccountId first, AccountId second) {
+		}
+
+		@Override
+		public void lockAccounts(Collection<AccountId> accountIds) {
+			whileLocking.run();
+		}
+
+		@Override
+		public void releaseAccounts(Collection<AccountId> accountIds) {
+		}
+
+	}
+
+	@WebAdapter
+	static class FakeWebAdapter {
+
+		Runnable whileRunning = () -> {
+		};
+
+		public void handle() {
+			whileRunning.run();
+		}
+
+	}
+
+}
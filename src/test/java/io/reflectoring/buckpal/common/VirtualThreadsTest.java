@@ -0,0 +1,50 @@
+package io.reflectoring.buckpal.common;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+class VirtualThreadsTest {
+
+	@Test
+	void createsNamedVirtualThreads() throws Exception {
+		assumeTrue(VirtualThreads.isSupported());
+		ThreadFactory factory = VirtualThreads.factory("test-");
+
+		Thread thread = factory.newThread(() -> { });
+
+		assertThat(thread.getName()).isEqualTo("test-1");
+		assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+	}
+
+	@Test
+	void runsEachTaskOnItsOwnThread() throws Exception {
+		assumeTrue(VirtualThreads.isSupported());
+		ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+		try {
+			String first = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+			String second = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+			assertThat(first).isNotEqualTo(second);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void failsOnJdkWithoutVirtualThreads() {
+		assumeFalse(VirtualThreads.isSupported());
+
+		assertThatThrownBy(() -> VirtualThreads.factory("test-"))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("JDK 21");
+		assertThatThrownBy(() -> VirtualThreads.newThreadPerTaskExecutor("test-"))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+}
@@ -0,0 +1,8 @@
+insert into account (id) values (11);
+insert into account (id) values (12);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1101, '2018-08-08 08:00:00.0', 11, 12, 11, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1102, '2018-08-08 08:00:00.0', 12, 12, 11, 1000);
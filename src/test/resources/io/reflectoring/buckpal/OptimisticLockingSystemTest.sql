@@ -0,0 +1,8 @@
+insert into account (id) values (5);
+insert into account (id) values (6);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (3001, '2018-08-08 08:00:00.0', 5, 6, 5, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (3002, '2018-08-08 08:00:00.0', 6, 6, 5, 1000);
@@ -0,0 +1,8 @@
+insert into account (id) values (3);
+insert into account (id) values (4);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (2001, '2018-08-08 08:00:00.0', 3, 4, 3, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (2002, '2018-08-08 08:00:00.0', 4, 4, 3, 1000);
@@ -0,0 +1,8 @@
+insert into account (id) values (21);
+insert into account (id) values (22);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (2101, '2018-08-08 08:00:00.0', 21, 22, 21, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (2102, '2018-08-08 08:00:00.0', 22, 22, 21, 1000);
@@ -0,0 +1,8 @@
+insert into account (id) values (23);
+insert into account (id) values (24);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (2301, '2018-08-08 08:00:00.0', 23, 24, 23, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (2302, '2018-08-08 08:00:00.0', 24, 24, 23, 1000);
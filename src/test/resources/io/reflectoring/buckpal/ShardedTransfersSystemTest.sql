@@ -0,0 +1,8 @@
+insert into account (id) values (7);
+insert into account (id) values (8);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (4001, '2018-08-08 08:00:00.0', 7, 8, 7, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (4002, '2018-08-08 08:00:00.0', 8, 8, 7, 1000);
@@ -0,0 +1,29 @@
+insert into account (id) values (1);
+insert into account (id) values (2);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1001, '2018-08-08 08:00:00.0', 1, 1, 2, 500);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1002, '2018-08-08 08:00:00.0', 2, 1, 2, 500);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1003, '2018-08-09 10:00:00.0', 1, 2, 1, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1004, '2018-08-09 10:00:00.0', 2, 2, 1, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1005, '2019-08-09 09:00:00.0', 1, 1, 2, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1006, '2019-08-09 09:00:00.0', 2, 1, 2, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1007, '2019-08-09 10:00:00.0', 1, 2, 1, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (1008, '2019-08-09 10:00:00.0', 2, 2, 1, 1000);
+
+insert into account_balance (account_id, deposit_balance, withdrawal_balance) values (1, 2000, 1500);
+insert into account_balance (account_id, deposit_balance, withdrawal_balance) values (2, 1500, 2000);
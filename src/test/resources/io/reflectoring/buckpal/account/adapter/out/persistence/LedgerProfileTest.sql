@@ -0,0 +1,23 @@
+insert into account (id) values (1);
+insert into account (id) values (2);
+insert into account (id) values (3);
+insert into account (id) values (4);
+insert into account (id) values (5);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (501, '2018-08-08 08:00:00.0', 1, 2, 1, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (502, '2018-08-08 08:00:00.0', 2, 2, 1, 1000);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (503, '2018-08-09 08:00:00.0', 1, 1, 3, 200);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (504, '2018-08-09 08:00:00.0', 3, 1, 3, 200);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (505, '2018-08-10 08:00:00.0', 4, 5, 4, 50);
+
+insert into activity (id, timestamp, owner_account_id, source_account_id, target_account_id, amount)
+values (506, '2018-08-10 08:00:00.0', 5, 5, 4, 50);